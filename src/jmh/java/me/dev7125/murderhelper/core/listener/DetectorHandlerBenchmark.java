@@ -0,0 +1,187 @@
+package me.dev7125.murderhelper.core.listener;
+
+import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.headless.HeadlessMinecraft;
+import me.dev7125.murderhelper.headless.SyntheticPackets;
+import net.minecraft.entity.item.EntityArmorStand;
+import net.minecraft.network.play.server.S0EPacketSpawnObject;
+import net.minecraft.network.play.server.S13PacketDestroyEntities;
+import net.minecraft.network.play.server.S14PacketEntity;
+import net.minecraft.network.play.server.S1CPacketEntityMetadata;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 检测器数据包处理基准测试
+ * 在无头Minecraft环境中把合成数据包直接交给 MurderMysteryGameListener，
+ * 覆盖所有检测器的 RelMove / Metadata / SpawnObject / DestroyEntities 处理路径
+ *
+ * 分配率需要加上GC分析器运行: gradlew jmh -PjmhArgs="DetectorHandlerBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DetectorHandlerBenchmark {
+
+    // 常驻实体：盔甲架（飞刀/尸体/掉落弓候选）和掉落物
+    private static final int TRACKED_ARMOR_STANDS = 48;
+    private static final int TRACKED_ITEMS = 16;
+    private static final int TRACKED_BASE_ID = 1000;
+
+    // 每轮生成/销毁的临时实体
+    private static final int BATCH_SIZE = 256;
+    private static final int BATCH_BASE_ID = 100000;
+    private static final int IDS_PER_DESTROY = 8;
+
+    private static final int MOVE_COUNT = 1024;
+
+    private static final int ARMOR_STAND_TYPE = 78;
+    private static final int ITEM_TYPE = 2;
+
+    MurderMysteryGameListener listener;
+
+    private S14PacketEntity.S15PacketEntityRelMove[] moves;
+    private S1CPacketEntityMetadata[] metadata;
+    S0EPacketSpawnObject[] batchSpawns;
+    S13PacketDestroyEntities[] batchDestroys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HeadlessMinecraft.bootstrapMod();
+        HeadlessMinecraft.startGame();
+        listener = HeadlessMinecraft.createListener();
+
+        Random random = new Random(7125);
+
+        // 常驻实体生成后保持被追踪
+        int trackedCount = TRACKED_ARMOR_STANDS + TRACKED_ITEMS;
+        for (int i = 0; i < trackedCount; i++) {
+            int entityId = TRACKED_BASE_ID + i;
+            int type = i < TRACKED_ARMOR_STANDS ? ARMOR_STAND_TYPE : ITEM_TYPE;
+            if (type == ARMOR_STAND_TYPE) {
+                HeadlessMinecraft.addEntity(HeadlessMinecraft.allocateEntity(EntityArmorStand.class, entityId));
+            }
+            listener.listenS0EPacketSpawnObject(SyntheticPackets.spawnObject(entityId, type,
+                    random.nextInt(64), 64 + random.nextInt(8), random.nextInt(64), 0));
+        }
+
+        // 盔甲架元数据：隐形 + 无底座，不满足尸体/掉落弓确认条件，保证状态稳定
+        metadata = new S1CPacketEntityMetadata[TRACKED_ARMOR_STANDS];
+        for (int i = 0; i < TRACKED_ARMOR_STANDS; i++) {
+            metadata[i] = SyntheticPackets.armorStandMetadata(TRACKED_BASE_ID + i, 0x20, 0x08);
+        }
+
+        moves = new S14PacketEntity.S15PacketEntityRelMove[MOVE_COUNT];
+        for (int i = 0; i < MOVE_COUNT; i++) {
+            moves[i] = SyntheticPackets.relMove(TRACKED_BASE_ID + random.nextInt(trackedCount),
+                    random.nextInt(17) - 8, random.nextInt(5) - 2, random.nextInt(17) - 8);
+        }
+
+        batchSpawns = new S0EPacketSpawnObject[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batchSpawns[i] = SyntheticPackets.spawnObject(BATCH_BASE_ID + i, ARMOR_STAND_TYPE,
+                    random.nextInt(64), 64, random.nextInt(64), 0);
+        }
+
+        batchDestroys = new S13PacketDestroyEntities[BATCH_SIZE / IDS_PER_DESTROY];
+        for (int i = 0; i < batchDestroys.length; i++) {
+            int[] ids = new int[IDS_PER_DESTROY];
+            for (int j = 0; j < IDS_PER_DESTROY; j++) {
+                ids[j] = BATCH_BASE_ID + i * IDS_PER_DESTROY + j;
+            }
+            batchDestroys[i] = SyntheticPackets.destroy(ids);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MurderHelperMod.clearGameData();
+    }
+
+    // ==================== 调用级状态 ====================
+
+    /**
+     * 每次调用前生成一批临时实体（供销毁基准使用）
+     */
+    @State(Scope.Thread)
+    public static class SpawnedBatch {
+        @Setup(Level.Invocation)
+        public void spawn(DetectorHandlerBenchmark benchmark) {
+            for (S0EPacketSpawnObject packet : benchmark.batchSpawns) {
+                benchmark.listener.listenS0EPacketSpawnObject(packet);
+            }
+        }
+    }
+
+    /**
+     * 每次调用后销毁这批临时实体（供生成基准使用）
+     */
+    @State(Scope.Thread)
+    public static class DespawnAfter {
+        @TearDown(Level.Invocation)
+        public void destroy(DetectorHandlerBenchmark benchmark) {
+            for (S13PacketDestroyEntities packet : benchmark.batchDestroys) {
+                benchmark.listener.listenS13PacketDestroyEntities(packet);
+            }
+        }
+    }
+
+    // ==================== 基准 ====================
+
+    @Benchmark
+    @OperationsPerInvocation(MOVE_COUNT)
+    public void entityRelMove() {
+        for (S14PacketEntity.S15PacketEntityRelMove packet : moves) {
+            listener.listenS15PacketEntityRelMove(packet);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRACKED_ARMOR_STANDS)
+    public void entityMetadata() {
+        for (S1CPacketEntityMetadata packet : metadata) {
+            listener.listenS1CPacketEntityMetadata(packet);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void spawnObject(DespawnAfter despawn) {
+        for (S0EPacketSpawnObject packet : batchSpawns) {
+            listener.listenS0EPacketSpawnObject(packet);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE / IDS_PER_DESTROY)
+    public void destroyEntities(SpawnedBatch spawned) {
+        for (S13PacketDestroyEntities packet : batchDestroys) {
+            listener.listenS13PacketDestroyEntities(packet);
+        }
+    }
+
+    /**
+     * 完整生命周期：生成 -> 元数据 -> 移动 -> 销毁（按数据包计数）
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE + TRACKED_ARMOR_STANDS + MOVE_COUNT + BATCH_SIZE / IDS_PER_DESTROY)
+    public void session() {
+        for (S0EPacketSpawnObject packet : batchSpawns) {
+            listener.listenS0EPacketSpawnObject(packet);
+        }
+        for (S1CPacketEntityMetadata packet : metadata) {
+            listener.listenS1CPacketEntityMetadata(packet);
+        }
+        for (S14PacketEntity.S15PacketEntityRelMove packet : moves) {
+            listener.listenS15PacketEntityRelMove(packet);
+        }
+        for (S13PacketDestroyEntities packet : batchDestroys) {
+            listener.listenS13PacketDestroyEntities(packet);
+        }
+    }
+}
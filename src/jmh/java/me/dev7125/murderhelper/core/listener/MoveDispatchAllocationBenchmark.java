@@ -0,0 +1,139 @@
+package me.dev7125.murderhelper.core.listener;
+
+import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.headless.HeadlessMinecraft;
+import me.dev7125.murderhelper.headless.SyntheticPackets;
+import net.minecraft.network.play.server.S14PacketEntity;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 移动数据包完整分发路径的分配基准测试
+ * S15 经 PacketListenerRegistry.handlePacket（Netty线程入队）和 processQueue（主线程按实体合并、发布净位置）
+ * 到达 MurderMysteryGameListener 和各检测器的 EntityMoved 订阅，稳定后每个数据包不应分配任何对象（包括装箱）
+ *
+ * 移动的实体一半是被掉落弓检测追踪的盔甲架，一半是不被追踪的实体（对应玩家移动）
+ * 直接运行 main 会带GC分析器执行并检查 gc.alloc.rate.norm，超过阈值时以非0状态退出:
+ * gradlew moveAllocationCheck
+ * 也可以单独运行: gradlew jmh -PjmhArgs="MoveDispatchAllocationBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveDispatchAllocationBenchmark {
+
+    // 每轮的数据包数量（小于默认队列容量，一轮内不会溢出）
+    private static final int PACKET_COUNT = 256;
+
+    private static final int TRACKED_ARMOR_STANDS = 16;
+    private static final int TRACKED_BASE_ID = 1000;
+    private static final int UNTRACKED_COUNT = 16;
+    private static final int UNTRACKED_BASE_ID = 5000;
+
+    private static final int ARMOR_STAND_TYPE = 78;
+
+    // 归一化分配率的上限（B/op）；JMH对零分配的测量会有极小的噪声
+    private static final double MAX_ALLOC_BYTES_PER_OP = 0.5;
+
+    private S14PacketEntity.S15PacketEntityRelMove[] moves;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        HeadlessMinecraft.bootstrapMod();
+        HeadlessMinecraft.startGame();
+
+        MurderMysteryGameListener listener = HeadlessMinecraft.createListener();
+        PacketListenerRegistry.register(listener);
+        PacketListenerRegistry.freeze();
+
+        Random random = new Random(7125);
+
+        // 掉落弓检测追踪所有盔甲架的位置
+        for (int i = 0; i < TRACKED_ARMOR_STANDS; i++) {
+            listener.listenS0EPacketSpawnObject(SyntheticPackets.spawnObject(TRACKED_BASE_ID + i, ARMOR_STAND_TYPE,
+                    random.nextInt(64), 64, random.nextInt(64), 0));
+        }
+
+        moves = new S14PacketEntity.S15PacketEntityRelMove[PACKET_COUNT];
+        for (int i = 0; i < PACKET_COUNT; i++) {
+            int entityId = i % 2 == 0
+                    ? TRACKED_BASE_ID + random.nextInt(TRACKED_ARMOR_STANDS)
+                    : UNTRACKED_BASE_ID + random.nextInt(UNTRACKED_COUNT);
+            moves[i] = SyntheticPackets.relMove(entityId,
+                    random.nextInt(17) - 8, random.nextInt(5) - 2, random.nextInt(17) - 8);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        PacketListenerRegistry.clearQueue();
+        MurderHelperMod.clearGameData();
+    }
+
+    /**
+     * 一个tick：入队一批移动，再由主线程处理
+     */
+    @Benchmark
+    @OperationsPerInvocation(PACKET_COUNT)
+    public void relMoveTick() {
+        for (S14PacketEntity.S15PacketEntityRelMove packet : moves) {
+            PacketListenerRegistry.handlePacket(packet);
+        }
+        PacketListenerRegistry.processQueue();
+    }
+
+    // ==================== 分配检查 ====================
+
+    public static void main(String[] args) throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(MoveDispatchAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+
+        boolean failed = false;
+        for (RunResult result : results) {
+            Result allocation = findSecondary(result.getSecondaryResults(), "gc.alloc.rate.norm");
+            if (allocation == null) {
+                System.err.println("[AllocationCheck] gc.alloc.rate.norm missing for " + result.getParams().getBenchmark());
+                failed = true;
+                continue;
+            }
+
+            double bytesPerOp = allocation.getScore();
+            boolean ok = bytesPerOp <= MAX_ALLOC_BYTES_PER_OP;
+            System.out.println(String.format(Locale.ROOT, "[AllocationCheck] %s: %.3f B/op (%s)",
+                    result.getParams().getBenchmark(), bytesPerOp, ok ? "ok" : "FAILED"));
+            failed |= !ok;
+        }
+
+        if (failed || results.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 按名字后缀查找次要结果（JMH给GC分析器的结果名加了前缀符号）
+     */
+    private static Result findSecondary(Map<String, Result> secondary, String suffix) {
+        for (Map.Entry<String, Result> entry : secondary.entrySet()) {
+            if (entry.getKey().endsWith(suffix)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
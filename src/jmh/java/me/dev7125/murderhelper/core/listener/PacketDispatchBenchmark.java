@@ -0,0 +1,80 @@
+package me.dev7125.murderhelper.core.listener;
+
+import me.dev7125.murderhelper.core.annotation.PacketListener;
+import net.minecraft.network.play.server.S14PacketEntity;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Method;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据包分发基准测试
+ * 对比反射 Method.invoke 与注册时生成的 PacketHandler 在 S15PacketEntityRelMove 数据流上的开销
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketDispatchBenchmark {
+
+    private static final int PACKET_COUNT = 1024;
+
+    /**
+     * 模拟监听器（和MurderMysteryGameListener一样是public类的public方法）
+     */
+    public static class RelMoveListener {
+        long sum;
+
+        @PacketListener(S14PacketEntity.S15PacketEntityRelMove.class)
+        public void listenS15PacketEntityRelMove(S14PacketEntity.S15PacketEntityRelMove packet) {
+            sum += packet.func_149062_c() + packet.func_149061_d() + packet.func_149064_e();
+        }
+    }
+
+    private S14PacketEntity.S15PacketEntityRelMove[] packets;
+    private RelMoveListener listener;
+    private Method method;
+    private PacketListenerRegistry.PacketHandler generatedHandler;
+
+    @Setup
+    public void setup() throws Exception {
+        // 16人大厅的合成移动数据包流
+        Random random = new Random(7125);
+        packets = new S14PacketEntity.S15PacketEntityRelMove[PACKET_COUNT];
+        for (int i = 0; i < PACKET_COUNT; i++) {
+            packets[i] = new S14PacketEntity.S15PacketEntityRelMove(
+                    100 + random.nextInt(16),
+                    (byte) (random.nextInt(17) - 8),
+                    (byte) (random.nextInt(5) - 2),
+                    (byte) (random.nextInt(17) - 8),
+                    true);
+        }
+
+        listener = new RelMoveListener();
+        method = RelMoveListener.class.getMethod("listenS15PacketEntityRelMove",
+                S14PacketEntity.S15PacketEntityRelMove.class);
+        generatedHandler = PacketListenerRegistry.createHandler(listener, method);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PACKET_COUNT)
+    public void reflectiveInvoke(Blackhole bh) throws Exception {
+        for (S14PacketEntity.S15PacketEntityRelMove packet : packets) {
+            method.invoke(listener, packet);
+        }
+        bh.consume(listener.sum);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PACKET_COUNT)
+    public void generatedHandler(Blackhole bh) {
+        for (S14PacketEntity.S15PacketEntityRelMove packet : packets) {
+            generatedHandler.handle(packet);
+        }
+        bh.consume(listener.sum);
+    }
+}
@@ -0,0 +1,157 @@
+package me.dev7125.murderhelper.headless;
+
+import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.core.capture.PacketCaptureFormat;
+import me.dev7125.murderhelper.core.capture.PacketCaptureReader;
+import me.dev7125.murderhelper.core.listener.EntityInterestFilter;
+import me.dev7125.murderhelper.core.listener.PacketListenerRegistry;
+import me.dev7125.murderhelper.game.CorpseDetector;
+import me.dev7125.murderhelper.game.GameClock;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.*;
+
+/**
+ * 录制文件无头回放
+ * 按录制顺序把数据包交给 PacketListenerRegistry（经过与Netty线程相同的关注过滤），
+ * 在每条tick记录处执行 MurderHelperMod.onClientTick 的START/END两个阶段，全程不等待、不创建OpenGL上下文
+ *
+ * 回放结束后向标准输出打印排序后的最终状态（角色、锁定、嫌疑人、尸体），同一录制文件的输出可以直接diff；
+ * 吞吐量统计打印到标准错误
+ *
+ * 检测器的 GameClock 由录制时间驱动（每条记录的时间戳），超时和时间窗口的判定与录制时一致
+ *
+ * 用法: gradlew replay -PreplayFile=path/to/capture.mhcap
+ */
+public final class CaptureReplay {
+
+    // 录制结束后最多再执行的tick数（排空队列中剩余的数据包）
+    private static final int MAX_DRAIN_TICKS = 1000;
+
+    private final HeadlessWorldMirror mirror = new HeadlessWorldMirror();
+    private final MurderHelperMod mod = new MurderHelperMod();
+
+    private final TickEvent.ClientTickEvent tickStart = new TickEvent.ClientTickEvent(TickEvent.Phase.START);
+    private final TickEvent.ClientTickEvent tickEnd = new TickEvent.ClientTickEvent(TickEvent.Phase.END);
+
+    private long packetCount = 0;
+    private long filteredCount = 0;
+    private long tickCount = 0;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: CaptureReplay <capture.mhcap>");
+            System.exit(2);
+        }
+
+        try (PacketCaptureReader reader = new PacketCaptureReader(new File(args[0]))) {
+            // 时钟读取当前记录的录制时间
+            HeadlessMinecraft.bootstrapMod(new GameClock(() -> reader.getStartTime() + reader.getRelativeTime()));
+            // 无头环境没有声音
+            MurderHelperMod.config.murderAlarm = false;
+
+            PacketListenerRegistry.register(HeadlessMinecraft.createListener());
+            PacketListenerRegistry.freeze();
+
+            if (reader.getVersion() < PacketCaptureFormat.VERSION_WITH_LOOK_MOVES) {
+                // 旧录制没有S16/S17，移动中的玩家位置会偏离录制时的世界（影响嫌疑人距离和弓拾取判定）
+                System.err.println("[Replay] Capture version " + reader.getVersion()
+                        + " has no S16/S17 packets; replayed player positions may drift from the live session");
+            }
+
+            if (!reader.getLocalPlayerName().isEmpty()) {
+                HeadlessMinecraft.setLocalPlayerName(reader.getLocalPlayerName());
+            }
+
+            CaptureReplay replay = new CaptureReplay();
+            long startNanos = System.nanoTime();
+            replay.run(reader);
+            long elapsedNanos = System.nanoTime() - startNanos;
+            // 输出检测器日志中剩余的事件，避免与结果交错
+            MurderHelperMod.detectorLog.stop();
+
+            replay.dump(System.out);
+            replay.printStats(System.err, elapsedNanos);
+        }
+    }
+
+    // ==================== 回放 ====================
+
+    private void run(PacketCaptureReader reader) throws IOException {
+        while (reader.next()) {
+            if (reader.isTick()) {
+                mirror.onTick(reader.getTickX(), reader.getTickY(), reader.getTickZ());
+                tick();
+            } else {
+                replayPacket(reader);
+            }
+        }
+
+        // 录制末尾的数据包还在队列中（每tick最多分发固定数量）
+        for (int i = 0; i < MAX_DRAIN_TICKS && PacketListenerRegistry.getBacklog() > 0; i++) {
+            tick();
+        }
+    }
+
+    private void replayPacket(PacketCaptureReader reader) {
+        packetCount++;
+
+        // 原版先在Netty线程上处理数据包，再进入本模组的拦截器
+        mirror.apply(reader.getPacket());
+
+        if (EntityInterestFilter.accept(reader.getPacket())) {
+            PacketListenerRegistry.handlePacket(reader.getPacket());
+        } else {
+            filteredCount++;
+        }
+    }
+
+    private void tick() {
+        tickCount++;
+        mod.onClientTick(tickStart);
+        mod.onClientTick(tickEnd);
+    }
+
+    // ==================== 输出 ====================
+
+    /**
+     * 打印最终状态（按名字/实体ID排序，保证输出稳定）
+     */
+    private void dump(PrintStream out) {
+        out.println("state: " + MurderHelperMod.gameState.getCurrentState());
+        out.println("myRole: " + MurderHelperMod.gameState.getMyRole());
+
+        out.println("roles:");
+        for (Map.Entry<String, MurderHelperMod.PlayerRole> entry
+                : new TreeMap<>(MurderHelperMod.playerTracker.getAllPlayerRoles()).entrySet()) {
+            out.println("  " + entry.getKey() + " " + entry.getValue());
+        }
+
+        out.println("lockedMurderers: " + new TreeSet<>(MurderHelperMod.playerTracker.getLockedMurderers()));
+        out.println("lockedDetectives: " + new TreeSet<>(MurderHelperMod.playerTracker.getLockedDetectives()));
+        out.println("suspects: " + new TreeSet<>(MurderHelperMod.suspectTracker.getAllSuspects()));
+
+        List<CorpseDetector.CorpseInfo> corpses = new ArrayList<>(MurderHelperMod.corpseDetector.getAllCorpses());
+        corpses.sort(Comparator.comparingInt(corpse -> corpse.entityId));
+        out.println("corpses:");
+        for (CorpseDetector.CorpseInfo corpse : corpses) {
+            out.println(String.format(Locale.ROOT, "  #%d %s %s (%.2f, %.2f, %.2f)",
+                    corpse.entityId, corpse.type, corpse.playerName,
+                    corpse.position.xCoord, corpse.position.yCoord, corpse.position.zCoord));
+        }
+    }
+
+    private void printStats(PrintStream out, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        out.println(String.format(Locale.ROOT,
+                "[Replay] %d packets (%d filtered), %d ticks in %.3f s: %.0f packets/s, %.0f ticks/s",
+                packetCount, filteredCount, tickCount, seconds,
+                packetCount / seconds, tickCount / seconds));
+        out.println(String.format(Locale.ROOT,
+                "[Replay] queue: dropped=%d, backlog=%d",
+                PacketListenerRegistry.getDroppedCount(), PacketListenerRegistry.getBacklog()));
+    }
+}
@@ -0,0 +1,352 @@
+package me.dev7125.murderhelper.headless;
+
+import com.mojang.authlib.GameProfile;
+import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.config.ModConfig;
+import me.dev7125.murderhelper.core.event.DomainEventBus;
+import me.dev7125.murderhelper.core.listener.MurderMysteryGameListener;
+import me.dev7125.murderhelper.game.*;
+import me.dev7125.murderhelper.util.GameConstants;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.entity.EntityPlayerSP;
+import net.minecraft.client.multiplayer.WorldClient;
+import net.minecraft.client.network.NetHandlerPlayClient;
+import net.minecraft.client.network.NetworkPlayerInfo;
+import net.minecraft.entity.DataWatcher;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.InventoryPlayer;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.network.play.server.S38PacketPlayerListItem;
+import net.minecraft.util.IntHashMap;
+import net.minecraft.world.World;
+import org.apache.logging.log4j.LogManager;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * 无头Minecraft环境
+ * 不创建窗口和OpenGL上下文：用Unsafe分配Minecraft、WorldClient和EntityPlayerSP（不执行构造函数），
+ * 只填充检测器会访问的字段，然后按MurderHelperMod.preInit的顺序创建核心组件（跳过渲染处理器和配置文件）
+ *
+ * 注意：MurderHelperMod和部分检测器在类初始化时缓存Minecraft.getMinecraft()，
+ * 因此必须在第一次访问这些类之前调用install()
+ * 基准测试和回放都在反混淆（MCP名）环境下运行，World的列表字段直接按名字查找
+ */
+public final class HeadlessMinecraft {
+
+    public static final int LOCAL_PLAYER_ID = 1;
+    public static final String LOCAL_PLAYER_NAME = "HeadlessPlayer";
+
+    private static final Unsafe UNSAFE = getUnsafe();
+
+    private static Minecraft minecraft;
+    private static IntHashMap<Entity> entitiesById;
+    private static Map<UUID, NetworkPlayerInfo> playerInfoMap;
+
+    private HeadlessMinecraft() {
+    }
+
+    // ==================== 环境安装 ====================
+
+    /**
+     * 安装无头Minecraft实例（重复调用返回同一实例）
+     */
+    public static synchronized Minecraft install() {
+        if (minecraft != null) {
+            return minecraft;
+        }
+
+        Minecraft mc = allocate(Minecraft.class);
+        setStaticFieldByType(Minecraft.class, Minecraft.class, mc);
+        // 安装线程视为主线程（PacketListenerRegistry.processQueue 会检查 isCallingFromMinecraftThread）
+        setFieldByType(Minecraft.class, mc, Thread.class, Thread.currentThread());
+
+        WorldClient world = allocate(WorldClient.class);
+        IntHashMap<Entity> idMap = new IntHashMap<>();
+        setFieldByType(World.class, world, IntHashMap.class, idMap);
+        setFieldByName(World.class, world, "playerEntities", new ArrayList<EntityPlayer>());
+        setFieldByName(World.class, world, "loadedEntityList", new ArrayList<Entity>());
+        // WorldClient.getEntityByID 会先比较 mc.thePlayer
+        setFieldByType(WorldClient.class, world, Minecraft.class, mc);
+
+        // 物品注册表（解码装备/物品栏数据包和物品分类需要）
+        Bootstrap.register();
+
+        // Tab列表（HeadlessWorldMirror 生成玩家实体时按UUID查名字）
+        NetHandlerPlayClient netHandler = allocate(NetHandlerPlayClient.class);
+        Map<UUID, NetworkPlayerInfo> infoMap = new HashMap<>();
+        setFieldByType(NetHandlerPlayClient.class, netHandler, Map.class, infoMap);
+
+        EntityPlayerSP player = allocatePlayer(EntityPlayerSP.class, LOCAL_PLAYER_ID,
+                UUID.nameUUIDFromBytes(LOCAL_PLAYER_NAME.getBytes()), LOCAL_PLAYER_NAME);
+        setFieldByType(EntityPlayerSP.class, player, NetHandlerPlayClient.class, netHandler);
+
+        world.playerEntities.add(player);
+        world.loadedEntityList.add(player);
+
+        mc.theWorld = world;
+        mc.thePlayer = player;
+
+        entitiesById = idMap;
+        playerInfoMap = infoMap;
+        minecraft = mc;
+        return mc;
+    }
+
+    /**
+     * 安装环境并初始化模组核心组件（对应MurderHelperMod.preInit中的非渲染部分），使用系统时钟
+     */
+    public static void bootstrapMod() {
+        bootstrapMod(new GameClock());
+    }
+
+    /**
+     * 安装环境并初始化模组核心组件，使用指定的时钟（回放时由录制时间驱动）
+     */
+    public static synchronized void bootstrapMod(GameClock clock) {
+        Minecraft mc = install();
+
+        MurderHelperMod.mc = mc;
+        MurderHelperMod.logger = LogManager.getLogger("MurderHelperHeadless");
+        MurderHelperMod.config = new ModConfig();
+        MurderHelperMod.playerName = LOCAL_PLAYER_NAME;
+
+        MurderHelperMod.gameClock = clock;
+        MurderHelperMod.tickProfiler = new TickProfiler();
+        if (MurderHelperMod.detectorLog != null) {
+            MurderHelperMod.detectorLog.stop();
+        }
+        MurderHelperMod.detectorLog = new DetectorEventLog(MurderHelperMod.logger, clock);
+        MurderHelperMod.detectorLog.start(null);
+        MurderHelperMod.playerTracker = new PlayerTracker();
+        MurderHelperMod.entityRegistry = new EntityRegistry();
+        MurderHelperMod.playerSnapshot = new PlayerSnapshot();
+        MurderHelperMod.nametagDecisions = new NametagDecisions();
+        MurderHelperMod.gameState = new GameStateManager(MurderHelperMod.logger, clock,
+                MurderHelperMod.entityRegistry);
+        MurderHelperMod.roleDetector = new RoleDetector(MurderHelperMod.logger,
+                MurderHelperMod.gameState, MurderHelperMod.playerTracker);
+        MurderHelperMod.weaponDetector = new KnifeThrownDetector(clock);
+        MurderHelperMod.bowShotDetector = new BowShotDetector(MurderHelperMod.playerTracker, clock);
+        MurderHelperMod.corpseDetector = new CorpseDetector(MurderHelperMod.logger, clock);
+        MurderHelperMod.suspectTracker = new SuspectTracker(MurderHelperMod.logger,
+                MurderHelperMod.playerTracker, MurderHelperMod.corpseDetector, clock);
+        MurderHelperMod.bowDropDetector = new BowDropDetector(clock);
+
+        DomainEventBus eventBus = new DomainEventBus();
+        MurderHelperMod.roleDetector.registerEvents(eventBus);
+        MurderHelperMod.weaponDetector.registerEvents(eventBus);
+        MurderHelperMod.bowShotDetector.registerEvents(eventBus);
+        MurderHelperMod.bowDropDetector.registerEvents(eventBus);
+        MurderHelperMod.corpseDetector.registerEvents(eventBus);
+        MurderHelperMod.eventBus = eventBus;
+    }
+
+    /**
+     * 创建与MurderHelperMod.init中相同组装方式的监听器
+     */
+    public static MurderMysteryGameListener createListener() {
+        return new MurderMysteryGameListener(
+                MurderHelperMod.weaponDetector,
+                MurderHelperMod.bowShotDetector,
+                MurderHelperMod.corpseDetector,
+                MurderHelperMod.suspectTracker,
+                MurderHelperMod.roleDetector,
+                MurderHelperMod.bowDropDetector,
+                MurderHelperMod.eventBus);
+    }
+
+    /**
+     * 直接进入游戏进行中状态
+     * 走 GameStateManager.onGameStart（使用注入的时钟），再按tick推进跳过角色检测延迟
+     */
+    public static void startGame() {
+        GameStateManager gameState = MurderHelperMod.gameState;
+        gameState.onGameStart();
+        gameState.addRealPlayers(Collections.singletonList(LOCAL_PLAYER_NAME));
+        for (int i = 0; i < GameConstants.GAME_START_ROLE_CHECK_DELAY_TICKS; i++) {
+            gameState.tick();
+        }
+    }
+
+    /**
+     * 修改本地玩家名字（回放时使用录制文件中的名字）
+     */
+    public static void setLocalPlayerName(String name) {
+        EntityPlayerSP player = minecraft.thePlayer;
+        setFieldByType(EntityPlayer.class, player, GameProfile.class,
+                new GameProfile(UUID.nameUUIDFromBytes(name.getBytes()), name));
+        MurderHelperMod.playerName = name;
+    }
+
+    // ==================== 实体管理 ====================
+
+    public static EntityPlayerSP getLocalPlayer() {
+        return minecraft.thePlayer;
+    }
+
+    public static World getWorld() {
+        return minecraft.theWorld;
+    }
+
+    public static Entity getEntity(int entityId) {
+        return minecraft.theWorld.getEntityByID(entityId);
+    }
+
+    /**
+     * 把实体登记到无头世界（getEntityByID可查到）
+     */
+    public static void addEntity(Entity entity) {
+        World world = minecraft.theWorld;
+        entitiesById.addKey(entity.getEntityId(), entity);
+        world.loadedEntityList.add(entity);
+        if (entity instanceof EntityPlayer) {
+            world.playerEntities.add((EntityPlayer) entity);
+        }
+    }
+
+    /**
+     * 从无头世界移除实体
+     */
+    public static void removeEntity(int entityId) {
+        Entity entity = entitiesById.removeObject(entityId);
+        if (entity != null) {
+            World world = minecraft.theWorld;
+            world.loadedEntityList.remove(entity);
+            world.playerEntities.remove(entity);
+        }
+    }
+
+    /**
+     * 切换世界：清空除本地玩家以外的所有实体
+     */
+    public static void resetWorld() {
+        World world = minecraft.theWorld;
+        entitiesById.clearMap();
+        world.loadedEntityList.clear();
+        world.playerEntities.clear();
+        world.loadedEntityList.add(minecraft.thePlayer);
+        world.playerEntities.add(minecraft.thePlayer);
+    }
+
+    /**
+     * 当前世界中的玩家列表
+     */
+    public static List<EntityPlayer> getPlayerEntities() {
+        return minecraft.theWorld.playerEntities;
+    }
+
+    /**
+     * 分配一个指定ID的实体（不执行构造函数）
+     */
+    public static <T extends Entity> T allocateEntity(Class<T> type, int entityId) {
+        T entity = allocate(type);
+        entity.setEntityId(entityId);
+        return entity;
+    }
+
+    /**
+     * 分配一个指定ID和名字的玩家实体
+     * 同时创建只含实体标志(0)和生命值(6)的DataWatcher，使 isInvisible()/getHealth() 可用；
+     * 以及物品栏，使 getHeldItem()/setCurrentItemOrArmor() 可用
+     */
+    public static <T extends EntityPlayer> T allocatePlayer(Class<T> type, int entityId, UUID uuid, String name) {
+        T player = allocateEntity(type, entityId);
+        setFieldByType(EntityPlayer.class, player, GameProfile.class, new GameProfile(uuid, name));
+
+        DataWatcher dataWatcher = new DataWatcher(player);
+        dataWatcher.addObject(0, (byte) 0);
+        dataWatcher.addObject(6, 20.0F);
+        setFieldByType(Entity.class, player, DataWatcher.class, dataWatcher);
+        setFieldByType(EntityPlayer.class, player, InventoryPlayer.class, new InventoryPlayer(player));
+        return player;
+    }
+
+    // ==================== Tab列表 ====================
+
+    public static void addPlayerInfo(S38PacketPlayerListItem.AddPlayerData data) {
+        playerInfoMap.put(data.getProfile().getId(), new NetworkPlayerInfo(data));
+    }
+
+    public static void removePlayerInfo(UUID uuid) {
+        playerInfoMap.remove(uuid);
+    }
+
+    /**
+     * 按UUID查找Tab列表中的玩家名
+     */
+    public static String getPlayerInfoName(UUID uuid) {
+        NetworkPlayerInfo info = playerInfoMap.get(uuid);
+        return info != null ? info.getGameProfile().getName() : null;
+    }
+
+    // ==================== 反射工具 ====================
+
+    @SuppressWarnings("unchecked")
+    public static <T> T allocate(Class<T> type) {
+        try {
+            return (T) UNSAFE.allocateInstance(type);
+        } catch (InstantiationException e) {
+            throw new IllegalStateException("Failed to allocate " + type.getName(), e);
+        }
+    }
+
+    private static void setStaticFieldByType(Class<?> owner, Class<?> fieldType, Object value) {
+        for (Field field : owner.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == fieldType) {
+                setField(field, null, value);
+                return;
+            }
+        }
+        throw new IllegalStateException("No static " + fieldType.getSimpleName() + " field in " + owner.getName());
+    }
+
+    private static void setFieldByType(Class<?> owner, Object target, Class<?> fieldType, Object value) {
+        for (Field field : owner.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && field.getType() == fieldType) {
+                setField(field, target, value);
+                return;
+            }
+        }
+        throw new IllegalStateException("No " + fieldType.getSimpleName() + " field in " + owner.getName());
+    }
+
+    private static void setFieldByName(Class<?> owner, Object target, String name, Object value) {
+        try {
+            setField(owner.getDeclaredField(name), target, value);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("No field " + name + " in " + owner.getName(), e);
+        }
+    }
+
+    private static void setField(Field field, Object target, Object value) {
+        // final字段（如World.playerEntities）通过Unsafe写入
+        if (Modifier.isStatic(field.getModifiers())) {
+            UNSAFE.putObject(UNSAFE.staticFieldBase(field), UNSAFE.staticFieldOffset(field), value);
+            return;
+        }
+
+        long offset = UNSAFE.objectFieldOffset(field);
+        if (field.getType() == boolean.class) {
+            UNSAFE.putBoolean(target, offset, (Boolean) value);
+        } else if (field.getType() == int.class) {
+            UNSAFE.putInt(target, offset, (Integer) value);
+        } else {
+            UNSAFE.putObject(target, offset, value);
+        }
+    }
+
+    private static Unsafe getUnsafe() {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return (Unsafe) field.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unsafe is not available", e);
+        }
+    }
+}
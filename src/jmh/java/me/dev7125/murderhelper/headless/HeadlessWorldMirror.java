@@ -0,0 +1,168 @@
+package me.dev7125.murderhelper.headless;
+
+import net.minecraft.client.entity.EntityOtherPlayerMP;
+import net.minecraft.client.entity.EntityPlayerSP;
+import net.minecraft.entity.DataWatcher;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.entity.item.EntityArmorStand;
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.projectile.EntityArrow;
+import net.minecraft.network.Packet;
+import net.minecraft.network.play.server.*;
+
+import java.util.List;
+
+/**
+ * 无头世界镜像
+ * 回放时代替原版 NetHandlerPlayClient：在数据包交给监听器之前，按原版的方式把实体生成/移动/销毁、
+ * Tab列表和玩家元数据应用到无头世界，使检测器通过 getEntityByID/playerEntities 看到与录制时一致的世界
+ *
+ * 只镜像检测器会读取的状态（位置、朝向、名字、实体标志、生命值、手持物品），不模拟物理和插值
+ * 位置包括没有监听器的S16/S17（录制器为此单独录制这两种数据包）
+ */
+public final class HeadlessWorldMirror {
+
+    private static final int OBJECT_TYPE_ITEM = 2;
+    private static final int OBJECT_TYPE_ARROW = 60;
+    private static final int OBJECT_TYPE_ARMOR_STAND = 78;
+
+    /**
+     * 把数据包应用到无头世界（监听器处理之前调用，对应原版Netty线程上的 processPacket）
+     */
+    public void apply(Packet<?> packet) {
+        if (packet instanceof S14PacketEntity) {
+            applyRelMove((S14PacketEntity) packet);
+        } else if (packet instanceof S18PacketEntityTeleport) {
+            applyTeleport((S18PacketEntityTeleport) packet);
+        } else if (packet instanceof S1CPacketEntityMetadata) {
+            applyMetadata((S1CPacketEntityMetadata) packet);
+        } else if (packet instanceof S0EPacketSpawnObject) {
+            applySpawnObject((S0EPacketSpawnObject) packet);
+        } else if (packet instanceof S0CPacketSpawnPlayer) {
+            applySpawnPlayer((S0CPacketSpawnPlayer) packet);
+        } else if (packet instanceof S13PacketDestroyEntities) {
+            for (int entityId : ((S13PacketDestroyEntities) packet).getEntityIDs()) {
+                HeadlessMinecraft.removeEntity(entityId);
+            }
+        } else if (packet instanceof S04PacketEntityEquipment) {
+            applyEquipment((S04PacketEntityEquipment) packet);
+        } else if (packet instanceof S38PacketPlayerListItem) {
+            applyPlayerList((S38PacketPlayerListItem) packet);
+        } else if (packet instanceof S01PacketJoinGame) {
+            // 换世界：原版会创建新的WorldClient，这里清空实体并更新本地玩家ID
+            HeadlessMinecraft.resetWorld();
+            HeadlessMinecraft.getLocalPlayer().setEntityId(((S01PacketJoinGame) packet).getEntityId());
+        }
+    }
+
+    /**
+     * 应用tick记录：本地玩家位置和存活tick数
+     */
+    public void onTick(double x, double y, double z) {
+        EntityPlayerSP player = HeadlessMinecraft.getLocalPlayer();
+        if (!Double.isNaN(x)) {
+            player.setPosition(x, y, z);
+        }
+        player.ticksExisted++;
+    }
+
+    // ==================== 实体生成 ====================
+
+    private void applySpawnObject(S0EPacketSpawnObject packet) {
+        Entity entity;
+        switch (packet.getType()) {
+            case OBJECT_TYPE_ARMOR_STAND:
+                entity = HeadlessMinecraft.allocateEntity(EntityArmorStand.class, packet.getEntityID());
+                break;
+            case OBJECT_TYPE_ITEM:
+                entity = HeadlessMinecraft.allocateEntity(EntityItem.class, packet.getEntityID());
+                break;
+            case OBJECT_TYPE_ARROW:
+                entity = HeadlessMinecraft.allocateEntity(EntityArrow.class, packet.getEntityID());
+                break;
+            default:
+                return;
+        }
+
+        entity.setPosition(packet.getX() / 32.0, packet.getY() / 32.0, packet.getZ() / 32.0);
+        HeadlessMinecraft.addEntity(entity);
+    }
+
+    private void applySpawnPlayer(S0CPacketSpawnPlayer packet) {
+        // 原版同样从Tab列表取名字，不在列表中的玩家不会生成
+        String name = HeadlessMinecraft.getPlayerInfoName(packet.getPlayer());
+        if (name == null) {
+            return;
+        }
+
+        EntityOtherPlayerMP player = HeadlessMinecraft.allocatePlayer(EntityOtherPlayerMP.class,
+                packet.getEntityID(), packet.getPlayer(), name);
+        player.setPosition(packet.getX() / 32.0, packet.getY() / 32.0, packet.getZ() / 32.0);
+
+        List<DataWatcher.WatchableObject> watched = packet.func_148944_c();
+        if (watched != null) {
+            player.getDataWatcher().updateWatchedObjectsFromList(watched);
+        }
+
+        HeadlessMinecraft.removeEntity(packet.getEntityID());
+        HeadlessMinecraft.addEntity(player);
+    }
+
+    // ==================== 实体更新 ====================
+
+    /**
+     * S15相对移动、S16转头、S17相对移动+转头（S16的位移为0）
+     */
+    private void applyRelMove(S14PacketEntity packet) {
+        Entity entity = packet.getEntity(HeadlessMinecraft.getWorld());
+        if (entity == null) {
+            return;
+        }
+        entity.setPosition(
+                entity.posX + packet.func_149062_c() / 32.0,
+                entity.posY + packet.func_149061_d() / 32.0,
+                entity.posZ + packet.func_149064_e() / 32.0);
+        if (packet.func_149060_h()) {
+            entity.rotationYaw = packet.func_149066_f() * 360 / 256.0F;
+            entity.rotationPitch = packet.func_149063_g() * 360 / 256.0F;
+        }
+    }
+
+    private void applyTeleport(S18PacketEntityTeleport packet) {
+        Entity entity = HeadlessMinecraft.getEntity(packet.getEntityId());
+        if (entity == null) {
+            return;
+        }
+        entity.setPosition(packet.getX() / 32.0, packet.getY() / 32.0, packet.getZ() / 32.0);
+    }
+
+    private void applyMetadata(S1CPacketEntityMetadata packet) {
+        // 只有玩家带DataWatcher（盔甲架等的元数据由检测器直接从数据包读取）
+        Entity entity = HeadlessMinecraft.getEntity(packet.getEntityId());
+        if (entity instanceof EntityPlayer && packet.func_149376_c() != null) {
+            entity.getDataWatcher().updateWatchedObjectsFromList(packet.func_149376_c());
+        }
+    }
+
+    private void applyEquipment(S04PacketEntityEquipment packet) {
+        Entity entity = HeadlessMinecraft.getEntity(packet.getEntityID());
+        if (entity instanceof EntityPlayer) {
+            ((EntityLivingBase) entity).setCurrentItemOrArmor(packet.getEquipmentSlot(), packet.getItemStack());
+        }
+    }
+
+    // ==================== Tab列表 ====================
+
+    private void applyPlayerList(S38PacketPlayerListItem packet) {
+        S38PacketPlayerListItem.Action action = packet.func_179768_b();
+        for (S38PacketPlayerListItem.AddPlayerData data : packet.func_179767_a()) {
+            if (action == S38PacketPlayerListItem.Action.ADD_PLAYER) {
+                HeadlessMinecraft.addPlayerInfo(data);
+            } else if (action == S38PacketPlayerListItem.Action.REMOVE_PLAYER) {
+                HeadlessMinecraft.removePlayerInfo(data.getProfile().getId());
+            }
+        }
+    }
+}
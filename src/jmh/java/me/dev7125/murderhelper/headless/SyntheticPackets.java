@@ -0,0 +1,88 @@
+package me.dev7125.murderhelper.headless;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.Packet;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.network.play.server.S0EPacketSpawnObject;
+import net.minecraft.network.play.server.S13PacketDestroyEntities;
+import net.minecraft.network.play.server.S14PacketEntity;
+import net.minecraft.network.play.server.S1CPacketEntityMetadata;
+
+import java.io.IOException;
+
+/**
+ * 合成数据包构造器
+ * 按1.8.9协议格式写入字节后调用 readPacketData 解码，得到与网络线程解码结果一致的数据包对象
+ * （S0E/S1C的构造函数需要真实实体，走字节解码可以避免构造实体）
+ */
+public final class SyntheticPackets {
+
+    // DataWatcher 类型编号（readWatchedListFromPacketBuffer 格式：类型 << 5 | 索引）
+    private static final int WATCHER_TYPE_BYTE = 0;
+    private static final int WATCHER_END = 127;
+
+    private SyntheticPackets() {
+    }
+
+    /**
+     * 生成对象数据包
+     * @param type 对象类型（78=盔甲架，60=箭矢，2=掉落物）
+     * @param data 附加数据（箭矢为射手实体ID+1，0表示无）
+     */
+    public static S0EPacketSpawnObject spawnObject(int entityId, int type, double x, double y, double z, int data) {
+        PacketBuffer buf = new PacketBuffer(Unpooled.buffer());
+        buf.writeVarIntToBuffer(entityId);
+        buf.writeByte(type);
+        buf.writeInt((int) Math.floor(x * 32.0));
+        buf.writeInt((int) Math.floor(y * 32.0));
+        buf.writeInt((int) Math.floor(z * 32.0));
+        buf.writeByte(0); // pitch
+        buf.writeByte(0); // yaw
+        buf.writeInt(data);
+        if (data > 0) {
+            buf.writeShort(0);
+            buf.writeShort(0);
+            buf.writeShort(0);
+        }
+        return decode(new S0EPacketSpawnObject(), buf);
+    }
+
+    /**
+     * 实体元数据数据包（索引0的实体标志 + 索引10的盔甲架标志，均为byte）
+     */
+    public static S1CPacketEntityMetadata armorStandMetadata(int entityId, int entityFlags, int armorStandFlags) {
+        PacketBuffer buf = new PacketBuffer(Unpooled.buffer());
+        buf.writeVarIntToBuffer(entityId);
+        buf.writeByte((WATCHER_TYPE_BYTE << 5) | 0);
+        buf.writeByte(entityFlags);
+        buf.writeByte((WATCHER_TYPE_BYTE << 5) | 10);
+        buf.writeByte(armorStandFlags);
+        buf.writeByte(WATCHER_END);
+        return decode(new S1CPacketEntityMetadata(), buf);
+    }
+
+    /**
+     * 实体相对移动数据包（增量单位：1/32方块）
+     */
+    public static S14PacketEntity.S15PacketEntityRelMove relMove(int entityId, int dx, int dy, int dz) {
+        return new S14PacketEntity.S15PacketEntityRelMove(entityId, (byte) dx, (byte) dy, (byte) dz, false);
+    }
+
+    /**
+     * 实体销毁数据包
+     */
+    public static S13PacketDestroyEntities destroy(int... entityIds) {
+        return new S13PacketDestroyEntities(entityIds);
+    }
+
+    private static <T extends Packet<?>> T decode(T packet, PacketBuffer buf) {
+        try {
+            packet.readPacketData(buf);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to decode synthetic " + packet.getClass().getSimpleName(), e);
+        } finally {
+            buf.release();
+        }
+        return packet;
+    }
+}
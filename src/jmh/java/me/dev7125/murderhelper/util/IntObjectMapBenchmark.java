@@ -0,0 +1,69 @@
+package me.dev7125.murderhelper.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体ID查表的分配基准测试
+ * 模拟移动数据包路径上按实体ID查询检测器表（大部分实体不在表中）
+ * 使用 -prof gc 运行，IntObjectMap 的 gc.alloc.rate.norm 应为 0 B/op，
+ * Map<Integer, ...> 在实体ID超出 Integer 缓存(-128~127)时每次查询都会装箱
+ * 运行: gradlew jmh -PjmhArgs="IntObjectMapBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntObjectMapBenchmark {
+
+    private static final int PACKET_COUNT = 1024;
+
+    // 检测器追踪的实体数量（盔甲架/箭矢）
+    private static final int TRACKED = 32;
+
+    private int[] packetEntityIds;
+    private Map<Integer, Object> boxedMap;
+    private IntObjectMap<Object> intMap;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7125);
+        boxedMap = new ConcurrentHashMap<>();
+        intMap = new IntObjectMap<>();
+
+        // 实体ID从1000开始，与实际服务器上的实体ID范围一致
+        for (int i = 0; i < TRACKED; i++) {
+            Object value = new Object();
+            boxedMap.put(1000 + i * 7, value);
+            intMap.put(1000 + i * 7, value);
+        }
+
+        packetEntityIds = new int[PACKET_COUNT];
+        for (int i = 0; i < PACKET_COUNT; i++) {
+            packetEntityIds[i] = 1000 + random.nextInt(TRACKED * 14);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PACKET_COUNT)
+    public void boxedLookup(Blackhole bh) {
+        for (int entityId : packetEntityIds) {
+            bh.consume(boxedMap.get(entityId));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PACKET_COUNT)
+    public void primitiveLookup(Blackhole bh) {
+        for (int entityId : packetEntityIds) {
+            bh.consume(intMap.get(entityId));
+        }
+    }
+}
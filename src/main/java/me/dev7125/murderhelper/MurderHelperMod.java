@@ -1,15 +1,20 @@
 package me.dev7125.murderhelper;
 
 import me.dev7125.murderhelper.config.ModConfig;
+import me.dev7125.murderhelper.core.capture.PacketCaptureRecorder;
+import me.dev7125.murderhelper.core.event.DomainEventBus;
 import me.dev7125.murderhelper.core.listener.ConnectionEventHandler;
+import me.dev7125.murderhelper.core.listener.EntityInterestFilter;
 import me.dev7125.murderhelper.core.listener.MurderMysteryGameListener;
 import me.dev7125.murderhelper.core.listener.PacketListenerRegistry;
+import me.dev7125.murderhelper.core.listener.PacketMetricsExporter;
 import me.dev7125.murderhelper.feature.AlarmSystem;
 import me.dev7125.murderhelper.feature.ShoutMessageBuilder;
 import me.dev7125.murderhelper.game.*;
 import me.dev7125.murderhelper.handler.BowDropRenderHandler;
 import me.dev7125.murderhelper.handler.HUDRenderHandler;
 import me.dev7125.murderhelper.handler.NameTagsRenderHandler;
+import me.dev7125.murderhelper.handler.PacketMetricsOverlayHandler;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.ItemStack;
@@ -57,9 +62,19 @@ public class MurderHelperMod {
     public static CorpseDetector corpseDetector;
     public static SuspectTracker suspectTracker;
     public static BowDropDetector bowDropDetector;
+    public static EntityRegistry entityRegistry;
+    public static PlayerSnapshot playerSnapshot;
+    public static NametagDecisions nametagDecisions;
+    public static GameClock gameClock;
+    public static TickProfiler tickProfiler;
+    public static DetectorEventLog detectorLog;
+    public static DomainEventBus eventBus;
 
     public static String playerName;
 
+    // 已断开连接、等待主线程清理（断开事件在Netty线程触发，检测器的表和数据包队列都只能在主线程修改）
+    private static volatile boolean disconnectPending = false;
+
     public static Minecraft mc = Minecraft.getMinecraft();
 
     @Mod.EventHandler
@@ -77,20 +92,37 @@ public class MurderHelperMod {
 
         config = new ModConfig();
         config.load(new File(configDir, "config.cfg"));
+        PacketListenerRegistry.setQueueCapacity(config.packetQueueCapacity);
+        PacketCaptureRecorder.setOutputDirectory(new File(configDir, "captures"));
+        PacketMetricsExporter.setOutputDirectory(new File(configDir, "metrics"));
 
 
         // 初始化核心组件
+        gameClock = new GameClock();
+        tickProfiler = new TickProfiler();
+        detectorLog = new DetectorEventLog(logger, gameClock);
+        detectorLog.start(new File(configDir, "logs"));
         playerTracker = new PlayerTracker();
-        gameState = new GameStateManager(logger);
+        entityRegistry = new EntityRegistry();
+        playerSnapshot = new PlayerSnapshot();
+        nametagDecisions = new NametagDecisions();
+        gameState = new GameStateManager(logger, gameClock, entityRegistry);
         roleDetector = new RoleDetector(logger, gameState, playerTracker);
         alarmSystem = new AlarmSystem();
         bowDropRenderHandler = new BowDropRenderHandler();
-        weaponDetector = new KnifeThrownDetector();
-        bowShotDetector = new BowShotDetector(playerTracker);
-        corpseDetector = new CorpseDetector(logger);
-        suspectTracker = new SuspectTracker(logger, playerTracker, corpseDetector);
-        bowDropDetector = new BowDropDetector();
-
+        weaponDetector = new KnifeThrownDetector(gameClock);
+        bowShotDetector = new BowShotDetector(playerTracker, gameClock);
+        corpseDetector = new CorpseDetector(logger, gameClock);
+        suspectTracker = new SuspectTracker(logger, playerTracker, corpseDetector, gameClock);
+        bowDropDetector = new BowDropDetector(gameClock);
+
+        // 检测器订阅领域事件（订阅顺序即同一事件的处理顺序）
+        eventBus = new DomainEventBus();
+        roleDetector.registerEvents(eventBus);
+        weaponDetector.registerEvents(eventBus);
+        bowShotDetector.registerEvents(eventBus);
+        bowDropDetector.registerEvents(eventBus);
+        corpseDetector.registerEvents(eventBus);
 
         // 设置角色变化回调（用于自动喊话）
         roleDetector.setRoleChangeCallback(this::handleRoleChange);
@@ -99,6 +131,7 @@ public class MurderHelperMod {
         MinecraftForge.EVENT_BUS.register(this);
         MinecraftForge.EVENT_BUS.register(new NameTagsRenderHandler());
         MinecraftForge.EVENT_BUS.register(bowDropRenderHandler);
+        MinecraftForge.EVENT_BUS.register(new PacketMetricsOverlayHandler());
 
         // 初始化并注册HUD处理器
         hudHandler = new HUDRenderHandler(weaponDetector, bowShotDetector);
@@ -120,8 +153,11 @@ public class MurderHelperMod {
 
         //注册数据包监听器
         PacketListenerRegistry.register(new MurderMysteryGameListener(weaponDetector, bowShotDetector, corpseDetector,
-                suspectTracker, roleDetector, bowDropDetector));
+                suspectTracker, roleDetector, bowDropDetector, eventBus));
         logger.info("MurderMysteryGameListener registered!");
+
+        // 所有监听器注册完毕，冻结分发表
+        PacketListenerRegistry.freeze();
     }
 
 
@@ -129,16 +165,33 @@ public class MurderHelperMod {
 
     @SubscribeEvent
     public void onClientDisconnect(FMLNetworkEvent.ClientDisconnectionFromServerEvent event) {
-        clearGameData();
-        // 清空待处理的数据包队列
-        PacketListenerRegistry.clearQueue();
+        // 游戏数据和数据包队列交给下一tick开始时在主线程清空
+        disconnectPending = true;
+        PacketCaptureRecorder.stop();
     }
 
     @SubscribeEvent(priority = EventPriority.HIGHEST) // 提高优先级，优先处理数据包
     public void onClientTick(TickEvent.ClientTickEvent event) {
         // 在tick开始时处理数据包队列
         if (event.phase == TickEvent.Phase.START) {
+            // 断开连接后先清空游戏数据和待处理的数据包队列，再处理新的数据包
+            if (disconnectPending) {
+                disconnectPending = false;
+                clearGameData();
+                if (entityRegistry != null) {
+                    entityRegistry.clear();
+                }
+                PacketListenerRegistry.clearQueue();
+                EntityInterestFilter.reset();
+            }
+            PacketCaptureRecorder.recordTick(mc.thePlayer);
+            // 本批数据包的处理时间
+            gameClock.sample();
+            // 输出上一秒被限流的检测器日志汇总
+            detectorLog.tick();
+            long start = TickProfiler.start();
             PacketListenerRegistry.processQueue();
+            tickProfiler.lap(TickProfiler.Stage.PACKET_QUEUE, start);
             return;
         }
 
@@ -147,6 +200,21 @@ public class MurderHelperMod {
             return;
         }
 
+        // 不在游戏中时也要结束本tick，否则 PACKET_QUEUE 的告警限频计数会停住
+        try {
+            tickGameLogic();
+        } finally {
+            tickProfiler.endTick();
+        }
+    }
+
+    /**
+     * tick结束时的检测逻辑（主线程）
+     */
+    private void tickGameLogic() {
+        // 本tick检测逻辑的时间
+        gameClock.sample();
+
         EntityPlayer localPlayer = mc.thePlayer;
         if (localPlayer == null) {
             return;
@@ -155,16 +223,31 @@ public class MurderHelperMod {
         // 如果未开启全局功能或不在游戏中，直接返回
         if (!config.globalEnabled || !gameState.isInGame() ||
                 mc.theWorld == null) {
+            // 恢复原版名牌
+            nametagDecisions.clear();
             return;
         }
 
+        // 各阶段耗时记录到tickProfiler
+        long t = TickProfiler.start();
+
         //检测凶手武器状态
         weaponDetector.tick();
+        t = tickProfiler.lap(TickProfiler.Stage.WEAPON, t);
         bowShotDetector.update();
+        t = tickProfiler.lap(TickProfiler.Stage.BOW_SHOT, t);
 
         // 更新游戏状态管理器
         gameState.tick();
+        t = tickProfiler.lap(TickProfiler.Stage.GAME_STATE, t);
+
+        // 每tick构建一次玩家快照，供后续检测和HUD共享
+        playerSnapshot.update(mc);
+        t = tickProfiler.lap(TickProfiler.Stage.SNAPSHOT, t);
 
+        // 根据快照决定本tick哪些玩家使用自定义名牌，供Mixin和名牌渲染共享
+        nametagDecisions.update(playerSnapshot);
+        t = tickProfiler.lap(TickProfiler.Stage.NAMETAGS, t);
 
         // 只有在游戏真正开始且过了延迟时间后才进行其他检测
         if (gameState.isGameActuallyStarted() && gameState.shouldCheckRoles()) {
@@ -172,20 +255,24 @@ public class MurderHelperMod {
             // 嫌疑人检测
             if (suspectTracker != null) {
                 suspectTracker.updateSuspects();
+                t = tickProfiler.lap(TickProfiler.Stage.SUSPECTS, t);
             }
 
             if (bowDropDetector != null) {
                 bowDropDetector.onClientTick();
+                t = tickProfiler.lap(TickProfiler.Stage.BOW_DROP, t);
             }
 
             // 清理过期尸体（可选，每秒检查一次）
             if (mc.thePlayer.ticksExisted % 20 == 0 && corpseDetector != null) {
                 corpseDetector.cleanupOldCorpses(10000); // 清理10秒前的尸体
+                t = tickProfiler.lap(TickProfiler.Stage.CORPSE_CLEANUP, t);
             }
 
             // 警报检测
             if (config.murderAlarm) {
                 alarmSystem.checkAndAlarm();
+                tickProfiler.lap(TickProfiler.Stage.ALARM, t);
             }
         }
     }
@@ -262,10 +349,22 @@ public class MurderHelperMod {
             bowDropRenderHandler.clear();
         }
 
+        if (nametagDecisions != null) {
+            nametagDecisions.clear();
+        }
+
         if (alarmSystem != null) {
             alarmSystem.reset();
         }
 
+        if (entityRegistry != null) {
+            entityRegistry.clearEntities();
+        }
+
+        if (playerSnapshot != null) {
+            playerSnapshot.clear();
+        }
+
         logger.info("Game data cleared!");
     }
 
@@ -304,17 +403,7 @@ public class MurderHelperMod {
      * 根据玩家名获取玩家实体
      */
     private EntityPlayer getPlayerByName(String playerName) {
-        if (mc.theWorld == null) {
-            return null;
-        }
-
-        for (EntityPlayer player : mc.theWorld.playerEntities) {
-            if (player != null && player.getName().equals(playerName)) {
-                return player;
-            }
-        }
-
-        return null;
+        return entityRegistry.getPlayerByName(playerName);
     }
 
     /**
@@ -22,12 +22,25 @@ public class ModConfig {
     public boolean murderAlarm = false;
     public boolean enhancedHitboxes = true;   // 增强hitbox渲染（加粗蓝色边框）
     public boolean suspectDetection = true;   // 嫌疑人检测
+    public boolean batchedNametags = true;    // 合批渲染所有名牌（背景一次绘制，GL状态每帧只切换一次）
+    public int nametagMarkerDistance = 48;    // 超过该距离（格）的名牌只显示彩色标记
+    public int nametagMaxDistance = 128;      // 超过该距离（格）不渲染名牌，0为不限
 
     // ==================== HUD配置 ====================
     public int hudWindowX = 10;
     public int hudWindowY = 10;
     public int hudBgAlpha = 192; // 背景透明度 (0-255)
 
+    // ==================== 数据包队列配置 ====================
+    public int packetQueueCapacity = 512; // 数据包环形缓冲区容量
+    public boolean packetCapture = false; // 录制数据包到config/murderhelper/captures（排查检测器误判用）
+    public boolean packetMetricsOverlay = false; // 屏幕右上角显示数据包排队延迟、监听器耗时和tick阶段耗时
+    public int tickBudgetMicros = 2000; // 单个tick阶段的耗时预算（微秒），超出时在覆盖层标红并输出警告，0为关闭
+
+    // ==================== 检测器日志配置 ====================
+    public int detectorLogMode = 1; // 0=Off, 1=Text (latest.log), 2=Compact (config/murderhelper/logs)
+    public int detectorLogRateLimit = 20; // 每个分类每秒最多输出的检测器事件数，0为不限
+
     // ==================== Murderer喊话配置 ====================
     public boolean shoutEnabled = false;
     public String shoutMessage = "%Murderer% committed a perfect murder using %Item% at location X:%X%, Y:%Y%, Z:%Z%";
@@ -65,6 +78,12 @@ public class ModConfig {
                 "Enhanced hitbox rendering (bold blue outline instead of vanilla white)");
         suspectDetection = config.getBoolean("suspectDetection", "general", true,
                 "Enable suspect detection near corpses");
+        batchedNametags = config.getBoolean("batchedNametags", "general", true,
+                "Render all nametags in one batched pass instead of one draw per player");
+        nametagMarkerDistance = config.getInt("nametagMarkerDistance", "general", 48, 0, 1024,
+                "Beyond this distance (blocks) nametags are reduced to a colored marker");
+        nametagMaxDistance = config.getInt("nametagMaxDistance", "general", 128, 0, 1024,
+                "Nametags beyond this distance (blocks) are not rendered (0 = unlimited)");
 
         // 加载HUD配置
         hudWindowX = config.getInt("hudWindowX", "general", 10, 0, 10000,
@@ -74,6 +93,22 @@ public class ModConfig {
         hudBgAlpha = config.getInt("hudBgAlpha", "general", 192, 0, 255,
                 "HUD background transparency (0-255)");
 
+        // 加载数据包队列配置
+        packetQueueCapacity = config.getInt("packetQueueCapacity", "general", 512, 64, 16384,
+                "Packet queue capacity, rounded up to a power of two (takes effect after restart)");
+        packetCapture = config.getBoolean("packetCapture", "general", false,
+                "Record detector-relevant packets to the captures folder (takes effect on next connect)");
+        packetMetricsOverlay = config.getBoolean("packetMetricsOverlay", "general", false,
+                "Show packet queue delay, listener timings and tick stage timings in the top-right corner");
+        tickBudgetMicros = config.getInt("tickBudgetMicros", "general", 2000, 0, 50000,
+                "Per-stage client tick budget in microseconds; slower stages are flagged (0 = off)");
+
+        // 加载检测器日志配置
+        detectorLogMode = config.getInt("detectorLogMode", "general", 1, 0, 2,
+                "Detector event log mode (0=Off, 1=Text in latest.log, 2=Compact file in config/murderhelper/logs)");
+        detectorLogRateLimit = config.getInt("detectorLogRateLimit", "general", 20, 0, 10000,
+                "Max detector events logged per category per second (0 = unlimited)");
+
         // 加载Murderer喊话配置
         shoutEnabled = config.getBoolean("shoutEnabled", "general", false,
                 "Auto shout when detecting murderer");
@@ -119,12 +154,23 @@ public class ModConfig {
         config.get("general", "Alarm", false).set(murderAlarm);
         config.get("general", "enhancedHitboxes", true).set(enhancedHitboxes);
         config.get("general", "suspectDetection", true).set(suspectDetection);
+        config.get("general", "batchedNametags", true).set(batchedNametags);
+        config.get("general", "nametagMarkerDistance", 48).set(nametagMarkerDistance);
+        config.get("general", "nametagMaxDistance", 128).set(nametagMaxDistance);
 
         // 保存HUD配置
         config.get("general", "hudWindowX", 10).set(hudWindowX);
         config.get("general", "hudWindowY", 10).set(hudWindowY);
         config.get("general", "hudBgAlpha", 192).set(hudBgAlpha);
 
+        // 保存数据包队列配置
+        config.get("general", "packetQueueCapacity", 512).set(packetQueueCapacity);
+        config.get("general", "packetCapture", false).set(packetCapture);
+        config.get("general", "packetMetricsOverlay", false).set(packetMetricsOverlay);
+        config.get("general", "tickBudgetMicros", 2000).set(tickBudgetMicros);
+        config.get("general", "detectorLogMode", 1).set(detectorLogMode);
+        config.get("general", "detectorLogRateLimit", 20).set(detectorLogRateLimit);
+
         // 保存Murderer喊话配置
         config.get("general", "shoutEnabled", false).set(shoutEnabled);
         config.get("general", "shoutMessage", "").set(shoutMessage);
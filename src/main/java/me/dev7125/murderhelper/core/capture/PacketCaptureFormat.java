@@ -0,0 +1,31 @@
+package me.dev7125.murderhelper.core.capture;
+
+/**
+ * 数据包录制文件格式
+ *
+ * 文件头: int MAGIC | short VERSION | long 录制开始时间（毫秒时间戳） | short 长度 + UTF-8 本地玩家名
+ * 记录:   int 长度（不含自身） | byte 记录类型 | int 相对开始时间（毫秒） | 负载
+ *   RECORD_PACKET: byte 数据包ID（PLAY/CLIENTBOUND） | 数据包原始字节（writePacketData格式）
+ *   RECORD_TICK:   double x | double y | double z（本地玩家位置，无玩家时为NaN）
+ *
+ * 版本3起额外录制没有监听器的S16/S17（回放时世界镜像用于更新玩家位置）；版本2的文件仍可读取
+ */
+public final class PacketCaptureFormat {
+
+    public static final int MAGIC = 0x4D484350; // "MHCP"
+    public static final short VERSION = 3;
+
+    // 第一个包含S16/S17的版本
+    public static final short VERSION_WITH_LOOK_MOVES = 3;
+
+    // 仍可读取的最低版本
+    public static final short MIN_READABLE_VERSION = 2;
+
+    public static final byte RECORD_PACKET = 0;
+    public static final byte RECORD_TICK = 1;
+
+    public static final String FILE_EXTENSION = ".mhcap";
+
+    private PacketCaptureFormat() {
+    }
+}
@@ -0,0 +1,167 @@
+package me.dev7125.murderhelper.core.capture;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.EnumConnectionState;
+import net.minecraft.network.EnumPacketDirection;
+import net.minecraft.network.Packet;
+import net.minecraft.network.PacketBuffer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 数据包录制文件读取器
+ * 按顺序读取 PacketCaptureRecorder 写出的记录，数据包记录会按PLAY/CLIENTBOUND的ID重新解码为数据包对象
+ *
+ * 用法: while (reader.next()) { 根据 getRecordType() 读取 getPacket() 或 getTickX/Y/Z() }
+ */
+public class PacketCaptureReader implements Closeable {
+
+    private final DataInputStream in;
+
+    private final short version;
+    private final long startTime;
+    private final String localPlayerName;
+
+    // 当前记录
+    private byte recordType;
+    private int relativeTime;
+    private Packet<?> packet;
+    private double tickX;
+    private double tickY;
+    private double tickZ;
+
+    private byte[] payload = new byte[256];
+
+    public PacketCaptureReader(File file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+
+        try {
+            if (in.readInt() != PacketCaptureFormat.MAGIC) {
+                throw new IOException("Not a packet capture file: " + file);
+            }
+            short version = in.readShort();
+            if (version < PacketCaptureFormat.MIN_READABLE_VERSION || version > PacketCaptureFormat.VERSION) {
+                throw new IOException("Unsupported capture version " + version + " in " + file);
+            }
+
+            this.version = version;
+            this.startTime = in.readLong();
+            byte[] name = new byte[in.readUnsignedShort()];
+            in.readFully(name);
+            this.localPlayerName = new String(name, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 读取下一条记录
+     * @return 文件结束（或最后一条记录不完整）时返回false
+     */
+    public boolean next() throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return false;
+        }
+
+        try {
+            recordType = in.readByte();
+            relativeTime = in.readInt();
+            packet = null;
+
+            if (recordType == PacketCaptureFormat.RECORD_TICK) {
+                tickX = in.readDouble();
+                tickY = in.readDouble();
+                tickZ = in.readDouble();
+                return true;
+            }
+
+            int packetId = in.readUnsignedByte();
+            int size = length - 6;
+            if (payload.length < size) {
+                payload = new byte[Math.max(size, payload.length * 2)];
+            }
+            in.readFully(payload, 0, size);
+
+            packet = decode(packetId, size);
+            return true;
+        } catch (EOFException e) {
+            // 录制被中断时最后一条记录可能只写了一半
+            return false;
+        }
+    }
+
+    private Packet<?> decode(int packetId, int size) throws IOException {
+        Packet<?> decoded;
+        try {
+            decoded = EnumConnectionState.PLAY.getPacket(EnumPacketDirection.CLIENTBOUND, packetId);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IOException("Cannot instantiate packet " + packetId, e);
+        }
+        if (decoded == null) {
+            throw new IOException("Unknown packet id " + packetId);
+        }
+
+        // 每条记录复制一份字节，解码出的数据包可能持有缓冲区内容的引用
+        byte[] bytes = new byte[size];
+        System.arraycopy(payload, 0, bytes, 0, size);
+        decoded.readPacketData(new PacketBuffer(Unpooled.wrappedBuffer(bytes)));
+        return decoded;
+    }
+
+    // ==================== 当前记录 ====================
+
+    public byte getRecordType() {
+        return recordType;
+    }
+
+    public boolean isTick() {
+        return recordType == PacketCaptureFormat.RECORD_TICK;
+    }
+
+    /**
+     * 相对录制开始的时间（毫秒）
+     */
+    public int getRelativeTime() {
+        return relativeTime;
+    }
+
+    public Packet<?> getPacket() {
+        return packet;
+    }
+
+    public double getTickX() {
+        return tickX;
+    }
+
+    public double getTickY() {
+        return tickY;
+    }
+
+    public double getTickZ() {
+        return tickZ;
+    }
+
+    // ==================== 文件头 ====================
+
+    public short getVersion() {
+        return version;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public String getLocalPlayerName() {
+        return localPlayerName;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,348 @@
+package me.dev7125.murderhelper.core.capture;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.core.listener.PacketListenerRegistry;
+import net.minecraft.entity.DataWatcher;
+import net.minecraft.entity.Entity;
+import net.minecraft.network.EnumConnectionState;
+import net.minecraft.network.EnumPacketDirection;
+import net.minecraft.network.Packet;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.network.play.server.S0CPacketSpawnPlayer;
+import net.minecraft.network.play.server.S14PacketEntity;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 数据包录制器（默认关闭，由配置 packetCapture 开启）
+ * Netty线程在 PacketInterceptor.channelRead 中登记监听器关注的数据包，主线程在tick开始时登记tick边界和本地玩家位置，
+ * 两者只把引用写入预分配的记录环；序列化由后台写入线程通过预分配的直接缓冲区完成，录制不会在Netty线程上分配或阻塞IO
+ *
+ * 记录环写满时丢弃新记录并计数，不会阻塞Netty线程
+ */
+public final class PacketCaptureRecorder {
+
+    private static final int RING_CAPACITY = 8192;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // 写入线程空闲时的等待时间
+    private static final long IDLE_PARK_NANOS = 5_000_000L;
+
+    private static File outputDirectory;
+
+    // 当前录制会话（未录制时为null）
+    private static volatile PacketCaptureRecorder active;
+
+    // ==================== 会话状态 ====================
+
+    private final File file;
+    private final long startTime;
+    private final String localPlayerName;
+
+    // 记录环（两个生产者：Netty线程和主线程，用锁保护，锁内只做数组赋值）
+    private final Object lock = new Object();
+    private final Packet<?>[] packets = new Packet<?>[RING_CAPACITY];
+    private final long[] times = new long[RING_CAPACITY];
+    private final double[] tickX = new double[RING_CAPACITY];
+    private final double[] tickY = new double[RING_CAPACITY];
+    private final double[] tickZ = new double[RING_CAPACITY];
+    private long head = 0;
+    private long tail = 0;
+
+    // 写入线程的本地批次（只在写入线程访问）
+    private final Packet<?>[] batchPackets = new Packet<?>[RING_CAPACITY];
+    private final long[] batchTimes = new long[RING_CAPACITY];
+    private final double[] batchX = new double[RING_CAPACITY];
+    private final double[] batchY = new double[RING_CAPACITY];
+    private final double[] batchZ = new double[RING_CAPACITY];
+
+    // 预分配的直接缓冲区及其ByteBuf视图
+    private final ByteBuffer directBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuf out = Unpooled.wrappedBuffer(directBuffer);
+    private final PacketBuffer packetOut = new PacketBuffer(out);
+
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private final AtomicLong recordedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private PacketCaptureRecorder(File file) {
+        this.file = file;
+        this.startTime = System.currentTimeMillis();
+        String name = MurderHelperMod.getLocalPlayerName();
+        this.localPlayerName = name != null ? name : "";
+        this.writerThread = new Thread(this::runWriter, "MurderHelper-PacketCapture");
+        this.writerThread.setDaemon(true);
+    }
+
+    // ==================== 公共接口 ====================
+
+    /**
+     * 设置录制文件目录（preInit时调用）
+     */
+    public static void setOutputDirectory(File directory) {
+        outputDirectory = directory;
+    }
+
+    /**
+     * 开始新的录制会话（已在录制时先结束旧会话）
+     */
+    public static synchronized void start() {
+        stop();
+
+        if (outputDirectory == null) {
+            return;
+        }
+        if (!outputDirectory.exists() && !outputDirectory.mkdirs()) {
+            MurderHelperMod.logger.error("[PacketCapture] Cannot create capture directory {}", outputDirectory);
+            return;
+        }
+
+        String name = "capture-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())
+                + PacketCaptureFormat.FILE_EXTENSION;
+        PacketCaptureRecorder recorder = new PacketCaptureRecorder(new File(outputDirectory, name));
+        recorder.writerThread.start();
+        active = recorder;
+
+        MurderHelperMod.logger.info("[PacketCapture] Recording to {}", recorder.file);
+    }
+
+    /**
+     * 结束当前录制会话（写入线程写完剩余记录后自行退出）
+     */
+    public static synchronized void stop() {
+        PacketCaptureRecorder recorder = active;
+        if (recorder == null) {
+            return;
+        }
+
+        active = null;
+        recorder.running = false;
+        LockSupport.unpark(recorder.writerThread);
+
+        MurderHelperMod.logger.info("[PacketCapture] Stopped: {} records, {} dropped",
+                recorder.recordedCount.get(), recorder.droppedCount.get());
+    }
+
+    public static boolean isRecording() {
+        return active != null;
+    }
+
+    /**
+     * 登记数据包（Netty线程调用）
+     * 只录制有监听器的数据包类型，以及回放时世界镜像需要的移动数据包
+     */
+    public static void recordPacket(Packet<?> packet) {
+        PacketCaptureRecorder recorder = active;
+        if (recorder == null || !isCaptured(packet.getClass())) {
+            return;
+        }
+        recorder.offer(packet, 0, 0, 0);
+    }
+
+    /**
+     * S16/S17没有监听器，但移动中的玩家主要靠S17更新位置，不录制时回放的玩家位置会偏离录制时的世界
+     */
+    private static boolean isCaptured(Class<?> packetClass) {
+        return PacketListenerRegistry.isListened(packetClass)
+                || packetClass == S14PacketEntity.S17PacketEntityLookMove.class
+                || packetClass == S14PacketEntity.S16PacketEntityLook.class;
+    }
+
+    /**
+     * 登记tick边界和本地玩家位置（主线程在tick开始时调用）
+     */
+    public static void recordTick(Entity player) {
+        PacketCaptureRecorder recorder = active;
+        if (recorder == null) {
+            return;
+        }
+        if (player != null) {
+            recorder.offer(null, player.posX, player.posY, player.posZ);
+        } else {
+            recorder.offer(null, Double.NaN, Double.NaN, Double.NaN);
+        }
+    }
+
+    // ==================== 记录环 ====================
+
+    /**
+     * @param packet 数据包，为null时表示tick记录
+     */
+    private void offer(Packet<?> packet, double x, double y, double z) {
+        synchronized (lock) {
+            if (tail - head >= RING_CAPACITY) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+
+            int index = (int) (tail & (RING_CAPACITY - 1));
+            packets[index] = packet;
+            times[index] = System.currentTimeMillis();
+            tickX[index] = x;
+            tickY[index] = y;
+            tickZ[index] = z;
+            tail++;
+        }
+    }
+
+    /**
+     * 把记录环中的全部记录移到写入线程的本地批次
+     */
+    private int drain() {
+        synchronized (lock) {
+            int count = (int) (tail - head);
+            for (int i = 0; i < count; i++) {
+                int index = (int) ((head + i) & (RING_CAPACITY - 1));
+                batchPackets[i] = packets[index];
+                batchTimes[i] = times[index];
+                batchX[i] = tickX[index];
+                batchY[i] = tickY[index];
+                batchZ[i] = tickZ[index];
+                packets[index] = null;
+            }
+            head = tail;
+            return count;
+        }
+    }
+
+    // ==================== 写入线程 ====================
+
+    private void runWriter() {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            out.clear();
+            out.writeInt(PacketCaptureFormat.MAGIC);
+            out.writeShort(PacketCaptureFormat.VERSION);
+            out.writeLong(startTime);
+            byte[] localName = localPlayerName.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(localName.length);
+            out.writeBytes(localName);
+
+            while (true) {
+                // 先读running再排空，保证停止前登记的记录都能写出
+                boolean stillRunning = running;
+                int count = drain();
+
+                for (int i = 0; i < count; i++) {
+                    Packet<?> packet = batchPackets[i];
+                    batchPackets[i] = null;
+                    int relativeTime = (int) (batchTimes[i] - startTime);
+
+                    if (packet == null) {
+                        writeTick(channel, relativeTime, batchX[i], batchY[i], batchZ[i]);
+                    } else {
+                        writePacket(channel, relativeTime, packet);
+                    }
+                }
+
+                if (count == 0) {
+                    if (!stillRunning) {
+                        break;
+                    }
+                    flush(channel);
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+
+            flush(channel);
+        } catch (IOException e) {
+            MurderHelperMod.logger.error("[PacketCapture] Failed to write {}", file, e);
+        }
+    }
+
+    private void writeTick(FileChannel channel, int relativeTime, double x, double y, double z) throws IOException {
+        // 长度(4) + 类型(1) + 时间(4) + 坐标(24)
+        if (out.writableBytes() < 33) {
+            flush(channel);
+        }
+
+        out.writeInt(29);
+        out.writeByte(PacketCaptureFormat.RECORD_TICK);
+        out.writeInt(relativeTime);
+        out.writeDouble(x);
+        out.writeDouble(y);
+        out.writeDouble(z);
+        recordedCount.incrementAndGet();
+    }
+
+    private void writePacket(FileChannel channel, int relativeTime, Packet<?> packet) throws IOException {
+        Integer packetId = EnumConnectionState.PLAY.getPacketId(EnumPacketDirection.CLIENTBOUND, packet);
+        if (packetId == null) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+
+        // 缓冲区剩余空间不足时先写出再重试一次；空缓冲区仍放不下则丢弃
+        for (int attempt = 0; attempt < 2; attempt++) {
+            int start = out.writerIndex();
+            try {
+                out.writeInt(0);
+                out.writeByte(PacketCaptureFormat.RECORD_PACKET);
+                out.writeInt(relativeTime);
+                out.writeByte(packetId);
+                encodePacket(packet);
+                out.setInt(start, out.writerIndex() - start - 4);
+                recordedCount.incrementAndGet();
+                return;
+            } catch (IndexOutOfBoundsException e) {
+                out.writerIndex(start);
+                if (start == 0) {
+                    break;
+                }
+                flush(channel);
+            } catch (Exception e) {
+                out.writerIndex(start);
+                MurderHelperMod.logger.warn("[PacketCapture] Failed to encode {}: {}",
+                        packet.getClass().getSimpleName(), e.toString());
+                break;
+            }
+        }
+        droppedCount.incrementAndGet();
+    }
+
+    private void encodePacket(Packet<?> packet) throws IOException {
+        // 客户端解码的S0C没有DataWatcher对象（只有解码出的列表），writePacketData会失败，这里按协议格式手动写出
+        if (packet instanceof S0CPacketSpawnPlayer) {
+            S0CPacketSpawnPlayer spawn = (S0CPacketSpawnPlayer) packet;
+            packetOut.writeVarIntToBuffer(spawn.getEntityID());
+            packetOut.writeUuid(spawn.getPlayer());
+            packetOut.writeInt(spawn.getX());
+            packetOut.writeInt(spawn.getY());
+            packetOut.writeInt(spawn.getZ());
+            packetOut.writeByte(spawn.getYaw());
+            packetOut.writeByte(spawn.getPitch());
+            packetOut.writeShort(spawn.getCurrentItemID());
+            DataWatcher.writeWatchedListToPacketBuffer(spawn.func_148944_c(), packetOut);
+            return;
+        }
+
+        packet.writePacketData(packetOut);
+    }
+
+    private void flush(FileChannel channel) throws IOException {
+        int length = out.writerIndex();
+        if (length == 0) {
+            return;
+        }
+
+        directBuffer.clear();
+        directBuffer.limit(length);
+        while (directBuffer.hasRemaining()) {
+            channel.write(directBuffer);
+        }
+        out.clear();
+    }
+}
@@ -0,0 +1,37 @@
+package me.dev7125.murderhelper.core.event;
+
+/**
+ * 盔甲架生成（S0EPacketSpawnObject，类型78）
+ * 飞刀投掷物、尸体和掉落的侦探弓都以盔甲架的形式出现
+ */
+public final class ArmorStandSpawned {
+
+    private int entityId;
+    private double x;
+    private double y;
+    private double z;
+
+    public ArmorStandSpawned set(int entityId, double x, double y, double z) {
+        this.entityId = entityId;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+}
@@ -0,0 +1,69 @@
+package me.dev7125.murderhelper.core.event;
+
+/**
+ * 箭矢生成（S0EPacketSpawnObject，类型60）
+ * 射手实体ID来自生成包的附加数据，射手不是玩家时玩家名为null
+ */
+public final class ArrowSpawned {
+
+    private int entityId;
+    private int shooterEntityId;
+    private String shooterName;
+    private double x;
+    private double y;
+    private double z;
+    private double motionX;
+    private double motionY;
+    private double motionZ;
+
+    public ArrowSpawned set(int entityId, int shooterEntityId, String shooterName,
+                            double x, double y, double z,
+                            double motionX, double motionY, double motionZ) {
+        this.entityId = entityId;
+        this.shooterEntityId = shooterEntityId;
+        this.shooterName = shooterName;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.motionX = motionX;
+        this.motionY = motionY;
+        this.motionZ = motionZ;
+        return this;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public int getShooterEntityId() {
+        return shooterEntityId;
+    }
+
+    public String getShooterName() {
+        return shooterName;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public double getMotionX() {
+        return motionX;
+    }
+
+    public double getMotionY() {
+        return motionY;
+    }
+
+    public double getMotionZ() {
+        return motionZ;
+    }
+}
@@ -0,0 +1,26 @@
+package me.dev7125.murderhelper.core.event;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 领域事件总线
+ * MurderMysteryGameListener 把原始数据包解码一次，转换为带类型的领域事件（实体装备变化、盔甲架生成、实体移动等），
+ * 检测器只订阅自己需要的事件，不再各自重复解析同一个数据包（查玩家名、判断实体类型、分类物品、换算坐标）
+ *
+ * 事件对象由发布方复用（每种事件一个实例），分发是同步的；订阅者不能在回调之外保留事件引用
+ * 只在客户端主线程发布
+ */
+public class DomainEventBus {
+
+    private final Map<Class<?>, EventChannel<?>> channels = new IdentityHashMap<>();
+
+    /**
+     * 获取事件类型对应的通道（不存在时创建）
+     * 发布方应在初始化时取得通道并保存，避免每次发布都查表
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <E> EventChannel<E> channel(Class<E> type) {
+        return (EventChannel<E>) channels.computeIfAbsent(type, EventChannel::new);
+    }
+}
@@ -0,0 +1,19 @@
+package me.dev7125.murderhelper.core.event;
+
+/**
+ * 实体销毁（S13PacketDestroyEntities 中的每个实体各发布一次）
+ * 发布时实体注册表尚未注销该实体，订阅者仍可查到玩家名
+ */
+public final class EntityDestroyed {
+
+    private int entityId;
+
+    public EntityDestroyed set(int entityId) {
+        this.entityId = entityId;
+        return this;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+}
@@ -0,0 +1,46 @@
+package me.dev7125.murderhelper.core.event;
+
+/**
+ * 实体移动（S15相对移动或S18传送）
+ * 坐标统一换算为格；相对移动只有位移，订阅者用 resolveX/Y/Z 从自己记录的旧位置得到新位置
+ */
+public final class EntityMoved {
+
+    private int entityId;
+    private boolean relative;
+    private double x;
+    private double y;
+    private double z;
+
+    /**
+     * @param relative true时 x/y/z 为位移，false时为绝对坐标
+     */
+    public EntityMoved set(int entityId, boolean relative, double x, double y, double z) {
+        this.entityId = entityId;
+        this.relative = relative;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public boolean isRelative() {
+        return relative;
+    }
+
+    public double resolveX(double previousX) {
+        return relative ? previousX + x : x;
+    }
+
+    public double resolveY(double previousY) {
+        return relative ? previousY + y : y;
+    }
+
+    public double resolveZ(double previousZ) {
+        return relative ? previousZ + z : z;
+    }
+}
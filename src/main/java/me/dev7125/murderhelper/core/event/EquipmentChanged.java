@@ -0,0 +1,97 @@
+package me.dev7125.murderhelper.core.event;
+
+import me.dev7125.murderhelper.util.ItemClassifier;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ResourceLocation;
+
+/**
+ * 实体装备变化（S04PacketEntityEquipment）
+ * 玩家名和物品分类在解码时各算一次；分类只针对主手（其他槽位为 false / NONE）
+ */
+public final class EquipmentChanged {
+
+    public static final int SLOT_MAIN_HAND = 0;
+    public static final int SLOT_HELMET = 4;
+
+    private int entityId;
+    private int slot;
+    private ItemStack item;
+    private String playerName;
+    private String registryName;
+    private boolean murderWeapon;
+    private ItemClassifier.BowCategory bowCategory;
+
+    /**
+     * 由发布方填充（复用实例）
+     */
+    public EquipmentChanged set(int entityId, int slot, ItemStack item, String playerName) {
+        this.entityId = entityId;
+        this.slot = slot;
+        this.item = item;
+        this.playerName = playerName;
+        this.registryName = getRegistryName(item);
+
+        if (slot == SLOT_MAIN_HAND) {
+            this.murderWeapon = ItemClassifier.isMurderWeapon(item);
+            this.bowCategory = ItemClassifier.getBowCategory(item);
+        } else {
+            this.murderWeapon = false;
+            this.bowCategory = ItemClassifier.BowCategory.NONE;
+        }
+        return this;
+    }
+
+    private static String getRegistryName(ItemStack item) {
+        if (item == null || item.getItem() == null) {
+            return null;
+        }
+        ResourceLocation name = Item.itemRegistry.getNameForObject(item.getItem());
+        return name != null ? name.toString() : null;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public boolean isMainHand() {
+        return slot == SLOT_MAIN_HAND;
+    }
+
+    /**
+     * 装备的物品，卸下时为null
+     */
+    public ItemStack getItem() {
+        return item;
+    }
+
+    /**
+     * 装备者的玩家名，不是玩家实体（盔甲架等）时为null
+     */
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public boolean isPlayer() {
+        return playerName != null;
+    }
+
+    /**
+     * 物品注册名（含命名空间），没有物品时为null
+     */
+    public String getRegistryName() {
+        return registryName;
+    }
+
+    public boolean isMurderWeapon() {
+        return murderWeapon;
+    }
+
+    public ItemClassifier.BowCategory getBowCategory() {
+        return bowCategory;
+    }
+}
@@ -0,0 +1,51 @@
+package me.dev7125.murderhelper.core.event;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * 单一类型领域事件的分发通道
+ * 订阅在初始化阶段完成（写时复制数组），发布时直接遍历数组同步调用订阅者
+ * 只在客户端主线程发布
+ */
+public final class EventChannel<E> {
+
+    private final Class<E> type;
+
+    @SuppressWarnings("unchecked")
+    private volatile Consumer<? super E>[] subscribers = new Consumer[0];
+
+    EventChannel(Class<E> type) {
+        this.type = type;
+    }
+
+    /**
+     * 订阅事件
+     */
+    public synchronized void subscribe(Consumer<? super E> subscriber) {
+        Consumer<? super E>[] current = subscribers;
+        Consumer<? super E>[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = subscriber;
+        subscribers = updated;
+    }
+
+    /**
+     * 同步分发给所有订阅者
+     */
+    public void publish(E event) {
+        for (Consumer<? super E> subscriber : subscribers) {
+            subscriber.accept(event);
+        }
+    }
+
+    /**
+     * 是否有订阅者（没有时发布方可以跳过解码）
+     */
+    public boolean hasSubscribers() {
+        return subscribers.length > 0;
+    }
+
+    public Class<E> getType() {
+        return type;
+    }
+}
@@ -0,0 +1,37 @@
+package me.dev7125.murderhelper.core.event;
+
+/**
+ * 掉落物生成（S0EPacketSpawnObject，类型2）
+ * 物品内容要等后续元数据才知道
+ */
+public final class ItemSpawned {
+
+    private int entityId;
+    private double x;
+    private double y;
+    private double z;
+
+    public ItemSpawned set(int entityId, double x, double y, double z) {
+        this.entityId = entityId;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+}
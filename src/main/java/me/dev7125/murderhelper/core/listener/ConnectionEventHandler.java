@@ -1,5 +1,7 @@
 package me.dev7125.murderhelper.core.listener;
 
+import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.core.capture.PacketCaptureRecorder;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.network.FMLNetworkEvent;
 
@@ -13,5 +15,10 @@ public class ConnectionEventHandler {
         // 在packet_handler之前插入我们的拦截器
         event.manager.channel().pipeline()
             .addBefore("packet_handler", "packet_listener_interceptor", new PacketInterceptor());
+
+        // 开启录制时每次连接创建一个新的录制文件
+        if (MurderHelperMod.config.packetCapture) {
+            PacketCaptureRecorder.start();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package me.dev7125.murderhelper.core.listener;
+
+import me.dev7125.murderhelper.util.ConcurrentIntSet;
+import net.minecraft.network.Packet;
+import net.minecraft.network.play.server.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 实体关注过滤器（在Netty线程执行）
+ * 检测器把关心的实体ID登记到各自的集合中，移动(S15/S18)和元数据(S1C)数据包只有属于被关注的实体时才会进入队列
+ * 数据包本身仍会继续传给原版处理，这里只决定是否交给本模组的监听器
+ */
+public class EntityInterestFilter {
+
+    // 可能被检测器关注的生成对象类型：掉落物、箭矢、盔甲架
+    private static final int OBJECT_TYPE_ITEM = 2;
+    private static final int OBJECT_TYPE_ARROW = 60;
+    private static final int OBJECT_TYPE_ARMOR_STAND = 78;
+
+    // 各检测器登记的关注集合
+    private static volatile ConcurrentIntSet[] interests = new ConcurrentIntSet[0];
+
+    // 已收到生成包、但主线程还没处理的候选实体
+    // 避免检测器登记之前到达的移动/元数据数据包被过滤掉
+    private static final ConcurrentIntSet pendingSpawns = new ConcurrentIntSet();
+
+    // 玩家实体（只关注元数据，玩家的移动数据包不进入队列）
+    private static final ConcurrentIntSet players = new ConcurrentIntSet();
+
+    // 被过滤的数据包数量
+    private static final AtomicLong filteredCount = new AtomicLong();
+
+    /**
+     * 为检测器创建一个关注集合
+     */
+    public static synchronized ConcurrentIntSet createInterest() {
+        ConcurrentIntSet interest = new ConcurrentIntSet();
+        ConcurrentIntSet[] current = interests;
+        ConcurrentIntSet[] updated = new ConcurrentIntSet[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = interest;
+        interests = updated;
+        return interest;
+    }
+
+    /**
+     * 判断数据包是否需要交给监听器（Netty线程调用）
+     * 同时根据生成/销毁数据包维护候选实体和玩家集合
+     */
+    public static boolean accept(Packet<?> packet) {
+        Class<?> packetClass = packet.getClass();
+
+        if (packetClass == S14PacketEntity.S15PacketEntityRelMove.class || packetClass == S18PacketEntityTeleport.class) {
+            return countIfFiltered(isInteresting(EntityMoveAccumulator.getEntityId(packet)));
+        }
+
+        if (packetClass == S1CPacketEntityMetadata.class) {
+            int entityId = ((S1CPacketEntityMetadata) packet).getEntityId();
+            return countIfFiltered(players.contains(entityId) || isInteresting(entityId));
+        }
+
+        if (packetClass == S0EPacketSpawnObject.class) {
+            S0EPacketSpawnObject spawn = (S0EPacketSpawnObject) packet;
+            int type = spawn.getType();
+            if (type == OBJECT_TYPE_ARMOR_STAND || type == OBJECT_TYPE_ARROW || type == OBJECT_TYPE_ITEM) {
+                pendingSpawns.add(spawn.getEntityID());
+            }
+        } else if (packetClass == S0CPacketSpawnPlayer.class) {
+            players.add(((S0CPacketSpawnPlayer) packet).getEntityID());
+        } else if (packetClass == S13PacketDestroyEntities.class) {
+            for (int entityId : ((S13PacketDestroyEntities) packet).getEntityIDs()) {
+                players.remove(entityId);
+                pendingSpawns.remove(entityId);
+            }
+        } else if (packetClass == S01PacketJoinGame.class) {
+            // 换世界，之前的实体ID全部失效
+            pendingSpawns.clear();
+            players.clear();
+            players.add(((S01PacketJoinGame) packet).getEntityId());
+        }
+
+        return true;
+    }
+
+    private static boolean isInteresting(int entityId) {
+        if (pendingSpawns.contains(entityId)) {
+            return true;
+        }
+        for (ConcurrentIntSet interest : interests) {
+            if (interest.contains(entityId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean countIfFiltered(boolean accepted) {
+        if (!accepted) {
+            filteredCount.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    /**
+     * 生成包已分发给所有检测器（主线程调用）
+     * 此时需要的检测器都已登记，候选状态可以解除
+     */
+    public static void onSpawnHandled(int entityId) {
+        pendingSpawns.remove(entityId);
+    }
+
+    /**
+     * 实体是否为玩家（Netty线程调用，用于溢出策略）
+     */
+    public static boolean isPlayer(int entityId) {
+        return entityId != -1 && players.contains(entityId);
+    }
+
+    /**
+     * 清空候选和玩家集合（断开连接时调用），检测器的集合由各自的clear负责
+     */
+    public static void reset() {
+        pendingSpawns.clear();
+        players.clear();
+    }
+
+    public static long getFilteredCount() {
+        return filteredCount.get();
+    }
+}
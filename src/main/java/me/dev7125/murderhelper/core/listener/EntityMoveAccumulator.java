@@ -0,0 +1,135 @@
+package me.dev7125.murderhelper.core.listener;
+
+import net.minecraft.network.Packet;
+import net.minecraft.network.play.server.S14PacketEntity;
+import net.minecraft.network.play.server.S18PacketEntityTeleport;
+
+import java.lang.reflect.Field;
+
+/**
+ * 单个实体的移动累加器
+ * 将同一实体的多个相对移动(S15)和传送(S18)合并为一份净位置：
+ * - 出现过传送：传送坐标 + 之后的相对位移（单位都是1/32格，合并无精度损失）
+ * - 只有相对移动：累计位移
+ * 累加器由 PacketListenerRegistry 池化复用，reset 后可用于另一个实体
+ */
+class EntityMoveAccumulator {
+
+    // S14PacketEntity 的实体ID字段（唯一的int字段）
+    private static Field relMoveEntityIdField;
+
+    private int entityId;
+
+    // 是否已得到绝对位置（收到过S18）
+    private boolean absolute;
+
+    // 绝对位置或累计位移（1/32格）
+    private int x;
+    private int y;
+    private int z;
+
+    // 合并的数据包数量（为0时没有待发布的移动）
+    private int mergedCount;
+
+    EntityMoveAccumulator(int entityId) {
+        reset(entityId);
+    }
+
+    /**
+     * 清空并绑定到新的实体
+     */
+    void reset(int entityId) {
+        this.entityId = entityId;
+        absolute = false;
+        x = 0;
+        y = 0;
+        z = 0;
+        mergedCount = 0;
+    }
+
+    int getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * 合并一个移动数据包
+     */
+    void add(Packet<?> packet) {
+        if (packet instanceof S18PacketEntityTeleport) {
+            S18PacketEntityTeleport teleport = (S18PacketEntityTeleport) packet;
+            absolute = true;
+            x = teleport.getX();
+            y = teleport.getY();
+            z = teleport.getZ();
+        } else if (packet instanceof S14PacketEntity) {
+            S14PacketEntity move = (S14PacketEntity) packet;
+            x += move.func_149062_c();
+            y += move.func_149061_d();
+            z += move.func_149064_e();
+        }
+        mergedCount++;
+    }
+
+    /**
+     * 合并另一个累加器（other 中的移动发生在本累加器之后）
+     */
+    void merge(EntityMoveAccumulator other) {
+        if (other.absolute) {
+            absolute = true;
+            x = other.x;
+            y = other.y;
+            z = other.z;
+        } else {
+            x += other.x;
+            y += other.y;
+            z += other.z;
+        }
+        mergedCount += other.mergedCount;
+    }
+
+    int getMergedCount() {
+        return mergedCount;
+    }
+
+    /**
+     * 把净位置交给接收方并清空（没有待发布的移动时不调用）
+     */
+    void publishTo(EntityMoveSink sink) {
+        if (mergedCount == 0) {
+            return;
+        }
+        mergedCount = 0;
+        sink.onEntityMove(entityId, !absolute, x, y, z);
+    }
+
+    /**
+     * 获取移动数据包的实体ID
+     * S14PacketEntity 没有公开实体ID的方法，通过反射读取（与 CorpseDetector.getUseBedEntityId 相同的方式）
+     */
+    static int getEntityId(Packet<?> packet) {
+        if (packet instanceof S18PacketEntityTeleport) {
+            return ((S18PacketEntityTeleport) packet).getEntityId();
+        }
+
+        if (packet instanceof S14PacketEntity) {
+            Field field = relMoveEntityIdField;
+            if (field == null) {
+                for (Field candidate : S14PacketEntity.class.getDeclaredFields()) {
+                    if (candidate.getType() == int.class) {
+                        candidate.setAccessible(true);
+                        relMoveEntityIdField = field = candidate;
+                        break;
+                    }
+                }
+            }
+
+            if (field != null) {
+                try {
+                    return field.getInt(packet);
+                } catch (IllegalAccessException ignored) {}
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,15 @@
+package me.dev7125.murderhelper.core.listener;
+
+/**
+ * 合并后移动的接收方
+ * 注册到 PacketListenerRegistry 的监听器实现此接口时，本tick按实体合并的移动直接以数值交给它，
+ * 不再构造合成的 S15/S18 数据包；没有接收方时移动数据包按原样逐个分发
+ * 只在客户端主线程调用
+ */
+public interface EntityMoveSink {
+
+    /**
+     * @param relative true时 x/y/z 为累计位移，false时为绝对坐标（单位都是1/32格）
+     */
+    void onEntityMove(int entityId, boolean relative, int x, int y, int z);
+}
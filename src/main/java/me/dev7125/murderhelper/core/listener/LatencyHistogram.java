@@ -0,0 +1,98 @@
+package me.dev7125.murderhelper.core.listener;
+
+/**
+ * 对数分桶的延迟直方图（纳秒）
+ * 第i个桶记录 [2^i, 2^(i+1)) 纳秒的样本，最后一个桶收纳所有更大的值；记录只做数组自增，不分配对象
+ * 只在客户端主线程记录和读取
+ */
+public class LatencyHistogram {
+
+    // 2^39 纳秒约9分钟，更大的值都算进最后一个桶
+    public static final int BUCKET_COUNT = 40;
+
+    private final String name;
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 记录一个样本
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int bucket = 63 - Long.numberOfLeadingZeros(nanos | 1);
+        buckets[Math.min(bucket, BUCKET_COUNT - 1)]++;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    /**
+     * 估算分位数（返回所在桶的上界，不超过最大值）
+     * @param quantile 0~1
+     */
+    public long getPercentileNanos(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperNanos(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * 第i个桶的上界（不含）
+     */
+    public static long getBucketUpperNanos(int bucket) {
+        return 1L << (bucket + 1);
+    }
+
+    public long getBucket(int bucket) {
+        return buckets[bucket];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = 0;
+        }
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+}
@@ -2,18 +2,23 @@ package me.dev7125.murderhelper.core.listener;
 
 import me.dev7125.murderhelper.MurderHelperMod;
 import me.dev7125.murderhelper.core.annotation.PacketListener;
+import me.dev7125.murderhelper.core.event.*;
 import me.dev7125.murderhelper.game.*;
 import net.minecraft.network.play.server.*;
 
-import java.util.*;
-import java.util.stream.Collectors;
-
 /**
  * 数据包监听器 - 直接通过数据包判断游戏状态和飞刀/弓箭/尸体/嫌疑人/角色状态
+ * 实体装备、对象生成、移动和销毁数据包在这里解码一次，作为领域事件发布给订阅的检测器
+ * 同时作为移动接收方：PacketListenerRegistry 按实体合并的移动直接发布为 EntityMoved，不经过合成数据包
  */
-public class MurderMysteryGameListener {
-    private final Map<String, Set<String>> teams = new HashMap<>();
-    private final Set<String> teamName = new HashSet<>();
+public class MurderMysteryGameListener implements EntityMoveSink {
+    // 计分板队伍索引（按动作增量维护）
+    private final TeamIndex teams = new TeamIndex();
+
+    // 对象生成数据包的实体类型
+    private static final int OBJECT_TYPE_ITEM = 2;
+    private static final int OBJECT_TYPE_ARROW = 60;
+    private static final int OBJECT_TYPE_ARMOR_STAND = 78;
 
     // 飞刀检测器实例
     private final KnifeThrownDetector weaponDetector;
@@ -33,42 +38,52 @@ public class MurderMysteryGameListener {
     // 侦探弓掉落检测器实例
     private final BowDropDetector bowDropDetector;
 
+    // ==================== 领域事件通道和复用的事件实例 ====================
+
+    private final EventChannel<EquipmentChanged> equipmentChannel;
+    private final EventChannel<ArmorStandSpawned> armorStandChannel;
+    private final EventChannel<ItemSpawned> itemChannel;
+    private final EventChannel<ArrowSpawned> arrowChannel;
+    private final EventChannel<EntityMoved> moveChannel;
+    private final EventChannel<EntityDestroyed> destroyChannel;
+
+    private final EquipmentChanged equipmentChanged = new EquipmentChanged();
+    private final ArmorStandSpawned armorStandSpawned = new ArmorStandSpawned();
+    private final ItemSpawned itemSpawned = new ItemSpawned();
+    private final ArrowSpawned arrowSpawned = new ArrowSpawned();
+    private final EntityMoved entityMoved = new EntityMoved();
+    private final EntityDestroyed entityDestroyed = new EntityDestroyed();
+
     public MurderMysteryGameListener(
             KnifeThrownDetector weaponDetector,
             BowShotDetector bowDetector,
             CorpseDetector corpseDetector,
             SuspectTracker suspectTracker,
             RoleDetector roleDetector,
-            BowDropDetector bowDropDetector) {
+            BowDropDetector bowDropDetector,
+            DomainEventBus eventBus) {
         this.weaponDetector = weaponDetector;
         this.bowDetector = bowDetector;
         this.corpseDetector = corpseDetector;
         this.suspectTracker = suspectTracker;
         this.roleDetector = roleDetector;
         this.bowDropDetector = bowDropDetector;
+
+        this.equipmentChannel = eventBus.channel(EquipmentChanged.class);
+        this.armorStandChannel = eventBus.channel(ArmorStandSpawned.class);
+        this.itemChannel = eventBus.channel(ItemSpawned.class);
+        this.arrowChannel = eventBus.channel(ArrowSpawned.class);
+        this.moveChannel = eventBus.channel(EntityMoved.class);
+        this.destroyChannel = eventBus.channel(EntityDestroyed.class);
     }
 
     // ==================== 游戏状态检测 ====================
 
     @PacketListener(S3EPacketTeams.class)
     public void listenS3EPacketTeams(S3EPacketTeams packet) {
-        String name = packet.getName();
-        int action = packet.getAction();
-        String displayName = packet.getDisplayName();
-        Collection<String> players = packet.getPlayers();
-        String nameTagVisibility = packet.getNameTagVisibility();
-
-        teams.computeIfAbsent(name, k -> new HashSet<>()).addAll(players);
-        if ("never".equals(nameTagVisibility)) {
-            teamName.add(name);
-        }
-
-        Set<String> hideNamePlayers = teams.entrySet().stream()
-                .filter(entry -> teamName.contains(entry.getKey()))
-                .flatMap(entry -> entry.getValue().stream())
-                .collect(Collectors.toSet());
+        teams.apply(packet);
 
-        if (hideNamePlayers.contains(MurderHelperMod.getLocalPlayerName())) {
+        if (teams.isNameTagHidden(MurderHelperMod.getLocalPlayerName())) {
             // 名字被隐藏 = 游戏开始
             MurderHelperMod.gameState.onGameStart();
         } else {
@@ -83,9 +98,8 @@ public class MurderMysteryGameListener {
         // 1. 刚进入服务器 -> 应该进入 PREPARING 状态
         // 2. 被传送到新的游戏世界(上一局游戏已结束) -> 应该进入 PREPARING 状态
 
-        MurderHelperMod.logger.info("teamName:{}", teamName);
+        MurderHelperMod.logger.info("teamName:{}", teams.getHiddenTeamNames());
         teams.clear();
-        teamName.clear();
 
         // 重置游戏数据,但设置为 PREPARING 状态(而不是 IDLE)
         MurderHelperMod.gameState.onGamePreparing();
@@ -103,21 +117,14 @@ public class MurderMysteryGameListener {
      */
     @PacketListener(S04PacketEntityEquipment.class)
     public void listenS04PacketEntityEquipment(S04PacketEntityEquipment packet) {
-        // 角色检测器处理(其他玩家)
-        // 通过主手装备(slot 0)检测其他玩家的角色
-        roleDetector.handleEntityEquipment(packet);
-
-        // 武器检测器处理(飞刀检测)
-        weaponDetector.handleEntityEquipment(packet);
-
-        // 弓箭检测器处理
-        bowDetector.handleEntityEquipment(packet);
-
-//        // 掉落弓检测器处理
-        bowDropDetector.handleEntityEquipment(packet);
+        if (!equipmentChannel.hasSubscribers()) {
+            return;
+        }
 
-        // 尸体检测器处理(头部装备)
-        corpseDetector.handleEntityEquipment(packet);
+        // 玩家名和主手物品分类只算一次（角色、飞刀、弓箭、掉落弓、尸体检测器共用）
+        int entityId = packet.getEntityID();
+        equipmentChannel.publish(equipmentChanged.set(entityId, packet.getEquipmentSlot(),
+                packet.getItemStack(), MurderHelperMod.entityRegistry.getPlayerName(entityId)));
     }
 
     /**
@@ -155,10 +162,34 @@ public class MurderMysteryGameListener {
      */
     @PacketListener(S0EPacketSpawnObject.class)
     public void listenS0EPacketSpawnObject(S0EPacketSpawnObject packet) {
-        weaponDetector.handleSpawnObject(packet);
-        bowDetector.handleSpawnObject(packet);
-        bowDropDetector.handleSpawnObject(packet);
-        corpseDetector.handleSpawnObject(packet);
+        int entityId = packet.getEntityID();
+        double x = packet.getX() / 32.0;
+        double y = packet.getY() / 32.0;
+        double z = packet.getZ() / 32.0;
+
+        switch (packet.getType()) {
+            case OBJECT_TYPE_ARMOR_STAND:
+                armorStandChannel.publish(armorStandSpawned.set(entityId, x, y, z));
+                break;
+            case OBJECT_TYPE_ITEM:
+                itemChannel.publish(itemSpawned.set(entityId, x, y, z));
+                break;
+            case OBJECT_TYPE_ARROW: {
+                // 附加数据为射手实体ID（为0时没有射手）
+                int shooterEntityId = packet.func_149009_m();
+                if (shooterEntityId != 0) {
+                    arrowChannel.publish(arrowSpawned.set(entityId, shooterEntityId,
+                            MurderHelperMod.entityRegistry.getPlayerName(shooterEntityId), x, y, z,
+                            packet.getSpeedX() / 8000.0, packet.getSpeedY() / 8000.0, packet.getSpeedZ() / 8000.0));
+                }
+                break;
+            }
+            default:
+                break;
+        }
+
+        // 检测器已完成登记，解除Netty线程上的候选状态
+        EntityInterestFilter.onSpawnHandled(entityId);
     }
 
     /**
@@ -179,9 +210,9 @@ public class MurderMysteryGameListener {
      */
     @PacketListener(S14PacketEntity.S15PacketEntityRelMove.class)
     public void listenS15PacketEntityRelMove(S14PacketEntity.S15PacketEntityRelMove packet) {
-        weaponDetector.handleEntityRelMove(packet);
-        bowDetector.handleEntityRelMove(packet);
-        bowDropDetector.handleEntityRelMove(packet);
+        // 实体ID直接从数据包读取，不经过世界查询
+        onEntityMove(EntityMoveAccumulator.getEntityId(packet), true,
+                packet.func_149062_c(), packet.func_149061_d(), packet.func_149064_e());
     }
 
     /**
@@ -190,9 +221,16 @@ public class MurderMysteryGameListener {
      */
     @PacketListener(S18PacketEntityTeleport.class)
     public void listenS18PacketEntityTeleport(S18PacketEntityTeleport packet) {
-        weaponDetector.handleEntityTeleport(packet);
-        bowDetector.handleEntityTeleport(packet);
-        bowDropDetector.handleEntityTeleport(packet);
+        onEntityMove(packet.getEntityId(), false, packet.getX(), packet.getY(), packet.getZ());
+    }
+
+    /**
+     * 发布实体移动（单个数据包或 PacketListenerRegistry 合并后的净位置）
+     * 坐标和位移单位为1/32格
+     */
+    @Override
+    public void onEntityMove(int entityId, boolean relative, int x, int y, int z) {
+        moveChannel.publish(entityMoved.set(entityId, relative, x / 32.0, y / 32.0, z / 32.0));
     }
 
     /**
@@ -201,10 +239,12 @@ public class MurderMysteryGameListener {
      */
     @PacketListener(S13PacketDestroyEntities.class)
     public void listenS13PacketDestroyEntities(S13PacketDestroyEntities packet) {
-        weaponDetector.handleDestroyEntities(packet);
-        bowDetector.handleDestroyEntities(packet);
-        bowDropDetector.handleDestroyEntities(packet);
-        corpseDetector.handleDestroyEntities(packet);
+        for (int entityId : packet.getEntityIDs()) {
+            destroyChannel.publish(entityDestroyed.set(entityId));
+        }
+
+        // 检测器处理完后再注销实体，销毁处理中仍可查到玩家名
+        MurderHelperMod.entityRegistry.handleDestroyEntities(packet);
     }
 
     /**
@@ -224,9 +264,20 @@ public class MurderMysteryGameListener {
      */
     @PacketListener(S0CPacketSpawnPlayer.class)
     public void listenS0CPacketSpawnPlayer(S0CPacketSpawnPlayer packet) {
+        // 先登记实体，检测器中即可通过实体ID查到玩家名
+        MurderHelperMod.entityRegistry.handleSpawnPlayer(packet);
         corpseDetector.handleSpawnPlayer(packet);
     }
 
+    /**
+     * 监听Tab列表数据包
+     * 维护实体注册表中的UUID -> 玩家名映射
+     */
+    @PacketListener(S38PacketPlayerListItem.class)
+    public void listenS38PacketPlayerListItem(S38PacketPlayerListItem packet) {
+        MurderHelperMod.entityRegistry.handlePlayerListItem(packet);
+    }
+
     /**
      * 监听玩家使用床数据包
      * 确认玩家实体尸体
@@ -2,6 +2,7 @@ package me.dev7125.murderhelper.core.listener;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import me.dev7125.murderhelper.core.capture.PacketCaptureRecorder;
 import net.minecraft.network.Packet;
 
 /**
@@ -12,8 +13,14 @@ public class PacketInterceptor extends ChannelInboundHandlerAdapter {
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         if (msg instanceof Packet) {
-            // 异步处理数据包监听
-            PacketListenerRegistry.handlePacket((Packet<?>) msg);
+            Packet<?> packet = (Packet<?>) msg;
+            // 录制在实体过滤之前进行，回放时可以完整复现过滤器状态
+            PacketCaptureRecorder.recordPacket(packet);
+            // 不属于被关注实体的移动/元数据数据包不进入队列
+            if (EntityInterestFilter.accept(packet)) {
+                // 异步处理数据包监听
+                PacketListenerRegistry.handlePacket(packet);
+            }
         }
         // 继续传递给下一个handler
         super.channelRead(ctx, msg);
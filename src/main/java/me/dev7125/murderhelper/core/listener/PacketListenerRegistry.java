@@ -1,29 +1,131 @@
 package me.dev7125.murderhelper.core.listener;
 
+import me.dev7125.murderhelper.MurderHelperMod;
 import me.dev7125.murderhelper.core.annotation.PacketListener;
+import me.dev7125.murderhelper.util.IntObjectMap;
 import net.minecraft.client.Minecraft;
 import net.minecraft.network.Packet;
+import net.minecraft.network.play.server.*;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class PacketListenerRegistry {
 
-    // 待处理的数据包队列
-    private static final Queue<Packet<?>> packetQueue = new ConcurrentLinkedQueue<>();
+    // 默认队列容量
+    public static final int DEFAULT_QUEUE_CAPACITY = 512;
 
-    // 监听器映射
+    // 每tick最多处理的数据包数量，防止卡顿
+    private static final int MAX_PER_TICK = 50;
+
+    // 溢出队列容量，超过后 NEVER_DROP 的数据包也会被丢弃（计入丢弃数量），积压不再无限增长
+    private static final int OVERFLOW_QUEUE_CAPACITY = 2048;
+
+    // 丢弃报告的最小间隔
+    private static final long DROP_REPORT_INTERVAL_NANOS = 1_000_000_000L;
+
+    // 待处理的数据包队列（有界环形缓冲区）
+    private static volatile PacketRingBuffer packetQueue = new PacketRingBuffer(DEFAULT_QUEUE_CAPACITY);
+
+    // 溢出队列：缓冲区满时存放 NEVER_DROP 类型的数据包和溢出合并的移动累加器，顺序排在缓冲区之后
+    // 累加器在实体第一次溢出移动时入队，之后的移动合并进去，因此它不会越过同一实体更早的数据包
+    private static final Queue<Object> overflowQueue = new ConcurrentLinkedQueue<>();
+    // 溢出队列长度（ConcurrentLinkedQueue.size 需要遍历）
+    private static final AtomicInteger overflowSize = new AtomicInteger();
+
+    // 溢出队列中尚未处理的合并移动（实体ID -> 累加器），主线程从溢出队列取出累加器时移除
+    // Netty线程写、主线程取，访问时锁住该表；overflowMoveCount 供无锁判断是否为空
+    private static final IntObjectMap<EntityMoveAccumulator> overflowMoves = new IntObjectMap<>();
+    private static volatile int overflowMoveCount = 0;
+
+    // 本tick合并中的移动（实体ID -> 累加器，仅主线程访问）
+    private static final IntObjectMap<EntityMoveAccumulator> tickMoves = new IntObjectMap<>(64);
+
+    // 本tick的累加器，按首次出现顺序发布（单个实体提前发布后留在列表中，发布时跳过；仅主线程访问）
+    private static final List<EntityMoveAccumulator> tickMoveOrder = new ArrayList<>();
+
+    // 空闲的累加器（池化复用，稳定后合并移动不再分配对象；仅主线程访问）
+    private static final ArrayDeque<EntityMoveAccumulator> accumulatorPool = new ArrayDeque<>();
+
+    // 合并后移动的接收方（注册了实现 EntityMoveSink 的监听器时设置），为null时移动数据包不合并
+    private static volatile EntityMoveSink moveSink;
+    private static volatile LatencyHistogram moveSinkLatency;
+
+    // S0APacketUseBed 的实体ID字段（唯一的int字段）
+    private static Field useBedEntityIdField;
+
+    // 每种数据包的溢出策略（写时复制，Netty线程只读），未配置的类型使用 NEVER_DROP
+    private static volatile Map<Class<?>, PacketOverflowPolicy> overflowPolicies = new IdentityHashMap<>();
+
+    static {
+        // 移动数据包：同一实体合并为最终位置
+        setOverflowPolicy(S14PacketEntity.S15PacketEntityRelMove.class, PacketOverflowPolicy.COALESCE);
+        setOverflowPolicy(S18PacketEntityTeleport.class, PacketOverflowPolicy.COALESCE);
+        // 玩家元数据是数量最多的类型，只影响瞬时状态（拉弓等），溢出时丢弃；盔甲架等实体的元数据仍不丢弃
+        setOverflowPolicy(S1CPacketEntityMetadata.class, PacketOverflowPolicy.DROP_PLAYERS);
+        // 其余类型都有检测器依赖（S29用于陷阱击杀、S20用于飞刀检测），保持 NEVER_DROP，只受溢出队列容量限制
+        // DROP 只用于没有任何检测器依赖的类型
+    }
+
+    // ==================== 队列统计 ====================
+    private static final AtomicLong droppedCount = new AtomicLong();
+    private static final AtomicLong coalescedCount = new AtomicLong();
+    private static final AtomicLong spilledCount = new AtomicLong();
+    // 最近一次丢弃的数据包类型（用于报告）
+    private static volatile Class<?> lastDroppedType;
+    // 上次报告时的丢弃数量和时间（仅主线程访问）
+    private static long reportedDroppedCount = 0;
+    private static long lastDropReportNanos = 0;
+    // 最大排队延迟（毫秒，仅主线程写）
+    private static volatile long maxLagMs = 0;
+    // 上一tick处理后的积压数量（仅主线程写）
+    private static volatile int lastBacklog = 0;
+
+    // Netty线程入队到主线程出队的延迟（只统计经过环形缓冲区的数据包，仅主线程访问）
+    private static final LatencyHistogram queueDelay = new LatencyHistogram("queue-delay");
+
+    // 各监听方法的执行耗时，随分发表一起重建
+    private static volatile LatencyHistogram[] handlerLatencies = new LatencyHistogram[0];
+
+    // 监听器映射（注册阶段使用）
     private static final Map<Class<? extends Packet>, List<ListenerMethod>> listeners = new HashMap<>();
 
+    // 冻结后的只读分发表（数据包类 -> 监听方法数组），Netty线程和主线程只读这份快照
+    private static volatile Map<Class<?>, ListenerMethod[]> dispatchTable = Collections.emptyMap();
+
+    // 是否已冻结
+    private static volatile boolean frozen = false;
+
+    /**
+     * 数据包处理器
+     * 注册时为每个 @PacketListener 方法生成，直接调用监听方法而不经过反射
+     */
+    @FunctionalInterface
+    interface PacketHandler {
+        void handle(Packet<?> packet);
+    }
+
     private static class ListenerMethod {
         final Object instance;
         final Method method;
+        final PacketHandler handler;
+        final LatencyHistogram latency;
 
         ListenerMethod(Object instance, Method method) {
             this.instance = instance;
             this.method = method;
-            this.method.setAccessible(true);
+            this.handler = createHandler(instance, method);
+            this.latency = new LatencyHistogram(instance.getClass().getSimpleName() + "." + method.getName());
         }
     }
 
@@ -45,6 +147,45 @@ public class PacketListenerRegistry {
                         .add(new ListenerMethod(instance, method));
             }
         }
+
+        if (instance instanceof EntityMoveSink) {
+            moveSink = (EntityMoveSink) instance;
+            moveSinkLatency = new LatencyHistogram(instance.getClass().getSimpleName() + ".onEntityMove");
+        }
+
+        if (frozen) {
+            // 冻结后仍有注册（不常见），重建快照
+            rebuildDispatchTable();
+        }
+    }
+
+    /**
+     * 冻结注册表（在所有监听器注册完成后调用）
+     * 将监听器映射固化为只读的 IdentityHashMap 快照，之后的分发不再访问可变的注册映射
+     */
+    public static synchronized void freeze() {
+        rebuildDispatchTable();
+        frozen = true;
+    }
+
+    private static synchronized void rebuildDispatchTable() {
+        // 数据包按具体类分发，Class 对象唯一，直接按引用比较即可
+        Map<Class<?>, ListenerMethod[]> table = new IdentityHashMap<>();
+        List<LatencyHistogram> latencies = new ArrayList<>();
+        for (Map.Entry<Class<? extends Packet>, List<ListenerMethod>> entry : listeners.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                table.put(entry.getKey(), entry.getValue().toArray(new ListenerMethod[0]));
+                for (ListenerMethod lm : entry.getValue()) {
+                    latencies.add(lm.latency);
+                }
+            }
+        }
+        if (moveSinkLatency != null) {
+            latencies.add(moveSinkLatency);
+        }
+        latencies.sort(Comparator.comparing(LatencyHistogram::getName));
+        dispatchTable = table;
+        handlerLatencies = latencies.toArray(new LatencyHistogram[0]);
     }
 
     private static boolean validateMethod(Method method, Class<? extends Packet> packetClass) {
@@ -52,10 +193,69 @@ public class PacketListenerRegistry {
         return params.length == 1 && params[0].isAssignableFrom(packetClass);
     }
 
+    /**
+     * 为监听方法生成直接调用的处理器
+     * 公开方法通过 LambdaMetafactory 绑定到监听器实例，效果等同于手写的 packet -> instance.listenXxx(packet)；
+     * 非公开方法或生成失败时回退到反射调用
+     */
+    static PacketHandler createHandler(Object instance, Method method) {
+        if (Modifier.isPublic(method.getModifiers())
+                && Modifier.isPublic(method.getDeclaringClass().getModifiers())
+                && !Modifier.isStatic(method.getModifiers())) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle target = lookup.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(
+                        lookup,
+                        "handle",
+                        MethodType.methodType(PacketHandler.class, method.getDeclaringClass()),
+                        MethodType.methodType(void.class, Packet.class),
+                        target,
+                        MethodType.methodType(void.class, method.getParameterTypes()[0]));
+                return (PacketHandler) site.getTarget().invoke(instance);
+            } catch (Throwable t) {
+                System.err.println("Failed to generate packet handler for " + method.getName()
+                        + ", falling back to reflection: " + t);
+            }
+        }
+
+        return createReflectiveHandler(instance, method);
+    }
+
+    /**
+     * 反射调用的处理器（回退方案）
+     */
+    static PacketHandler createReflectiveHandler(Object instance, Method method) {
+        method.setAccessible(true);
+        return packet -> {
+            try {
+                method.invoke(instance, packet);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException(e.getCause() != null ? e.getCause() : e);
+            }
+        };
+    }
+
     public static void unregister(Object instance) {
         listeners.values().forEach(list ->
                 list.removeIf(lm -> lm.instance == instance)
         );
+
+        if (moveSink == instance) {
+            moveSink = null;
+            moveSinkLatency = null;
+        }
+
+        if (frozen) {
+            rebuildDispatchTable();
+        }
+    }
+
+    /**
+     * 该数据包类型是否有监听器（可在Netty线程调用）
+     */
+    public static boolean isListened(Class<?> packetClass) {
+        return dispatchTable.get(packetClass) != null;
     }
 
     /**
@@ -63,15 +263,95 @@ public class PacketListenerRegistry {
      * 将数据包加入队列，等待主线程处理
      */
     public static void handlePacket(Packet<?> packet) {
-        List<ListenerMethod> methods = listeners.get(packet.getClass());
-        // 只有当该数据包类型有监听器时才加入队列
-        if (methods != null && !methods.isEmpty()) {
-            packetQueue.offer(packet);
+        // 只有当该数据包类型有监听器时才加入队列（快照中不存在空数组）
+        if (dispatchTable.get(packet.getClass()) == null) {
+            return;
+        }
+
+        PacketOverflowPolicy policy = getOverflowPolicy(packet.getClass());
+        // 没有接收方时合并后的移动无处发布，不能合并
+        if (policy == PacketOverflowPolicy.COALESCE && moveSink == null) {
+            policy = PacketOverflowPolicy.NEVER_DROP;
+        }
+
+        // 该实体已有溢出合并中的移动，继续合并以保证同一实体的移动顺序
+        if (policy == PacketOverflowPolicy.COALESCE && overflowMoveCount > 0
+                && coalesceOverflowMove(packet, false)) {
+            return;
+        }
+
+        // 溢出队列非空时（包括有合并中的移动时）不能再写入缓冲区，否则会越过溢出队列中更早的数据包
+        if (overflowQueue.isEmpty() && packetQueue.offer(packet)) {
+            return;
+        }
+
+        if (policy == PacketOverflowPolicy.DROP_PLAYERS) {
+            policy = EntityInterestFilter.isPlayer(getPacketEntityId(packet.getClass(), packet))
+                    ? PacketOverflowPolicy.DROP : PacketOverflowPolicy.NEVER_DROP;
+        }
+
+        switch (policy) {
+            case COALESCE:
+                if (overflowSize.get() < OVERFLOW_QUEUE_CAPACITY) {
+                    coalesceOverflowMove(packet, true);
+                } else {
+                    drop(packet);
+                }
+                break;
+            case NEVER_DROP:
+                if (overflowSize.get() < OVERFLOW_QUEUE_CAPACITY) {
+                    overflowQueue.offer(packet);
+                    overflowSize.incrementAndGet();
+                    spilledCount.incrementAndGet();
+                } else {
+                    drop(packet);
+                }
+                break;
+            case DROP:
+            default:
+                drop(packet);
+                break;
+        }
+    }
+
+    private static void drop(Packet<?> packet) {
+        droppedCount.incrementAndGet();
+        lastDroppedType = packet.getClass();
+    }
+
+    /**
+     * 把移动合并到溢出表（Netty线程）
+     * 新建的累加器同时放入溢出队列，排在该实体之后到达的所有数据包之前
+     * @param create 该实体没有溢出合并中的移动时是否新建
+     * @return 是否已合并
+     */
+    private static boolean coalesceOverflowMove(Packet<?> packet, boolean create) {
+        int entityId = EntityMoveAccumulator.getEntityId(packet);
+        synchronized (overflowMoves) {
+            EntityMoveAccumulator acc = overflowMoves.get(entityId);
+            if (acc == null) {
+                if (!create) {
+                    return false;
+                }
+                // 溢出是突发情况，累加器直接新建（池只在主线程使用）
+                acc = new EntityMoveAccumulator(entityId);
+                overflowMoves.put(entityId, acc);
+                overflowMoveCount = overflowMoves.size();
+                overflowQueue.offer(acc);
+                overflowSize.incrementAndGet();
+            } else {
+                coalescedCount.incrementAndGet();
+            }
+            acc.add(packet);
+            return true;
         }
     }
 
     /**
      * 处理队列中的数据包（由主线程每tick调用）
+     * 顺序：环形缓冲区 -> 溢出队列（溢出合并的移动按该实体第一次溢出的位置排在其中）
+     * 有移动接收方时，移动数据包(S15/S18)不逐个分发，而是按实体合并后在本tick末尾统一发布净位置；
+     * 携带同一实体ID的其他数据包分发前会先发布该实体的移动，保证同一实体的事件顺序不变
      */
     public static void processQueue() {
         // 确保在主线程中执行
@@ -79,25 +359,216 @@ public class PacketListenerRegistry {
             return;
         }
 
+        PacketRingBuffer queue = packetQueue;
+        long now = System.nanoTime();
         Packet<?> packet;
         int processed = 0;
-        final int MAX_PER_TICK = 50; // 每tick最多处理50个数据包，防止卡顿
 
-        while ((packet = packetQueue.poll()) != null && processed < MAX_PER_TICK) {
-            processPacket(packet);
-            processed++;
+        // 先检查数量再出队，避免多取出一个数据包后被丢弃
+        // 合并的移动只是累加，不计入每tick处理数量
+        while (processed < MAX_PER_TICK && (packet = queue.poll()) != null) {
+            long lagNanos = now - queue.getLastPolledEnqueueTime();
+            queueDelay.record(lagNanos);
+            long lag = lagNanos / 1_000_000L;
+            if (lag > maxLagMs) {
+                maxLagMs = lag;
+            }
+            if (dispatch(packet)) {
+                processed++;
+            }
+        }
+
+        // 缓冲区排空后再处理溢出队列
+        Object entry;
+        while (processed < MAX_PER_TICK && queue.isEmpty() && (entry = overflowQueue.poll()) != null) {
+            overflowSize.decrementAndGet();
+            if (entry instanceof EntityMoveAccumulator) {
+                // 溢出合并的移动并入本tick的合并结果
+                mergeOverflowMove((EntityMoveAccumulator) entry);
+            } else if (dispatch((Packet<?>) entry)) {
+                processed++;
+            }
+        }
+
+        flushTickMoves();
+
+        // 溢出合并的移动累加器也在溢出队列中计数
+        lastBacklog = queue.size() + overflowSize.get();
+        reportDropped(now);
+    }
+
+    /**
+     * 报告新丢弃的数据包（主线程，最多每秒一次）
+     */
+    private static void reportDropped(long now) {
+        long dropped = droppedCount.get();
+        if (dropped == reportedDroppedCount || now - lastDropReportNanos < DROP_REPORT_INTERVAL_NANOS) {
+            return;
+        }
+        Class<?> type = lastDroppedType;
+        MurderHelperMod.logger.warn("[PacketQueue] Dropped {} packets (queue full), total: {}, last: {}",
+                dropped - reportedDroppedCount, dropped, type != null ? type.getSimpleName() : "?");
+        reportedDroppedCount = dropped;
+        lastDropReportNanos = now;
+    }
+
+    /**
+     * 分发一个出队的数据包
+     * @return 是否立即分发（移动数据包被合并时返回false）
+     */
+    private static boolean dispatch(Packet<?> packet) {
+        Class<?> packetClass = packet.getClass();
+
+        if (packetClass == S14PacketEntity.S15PacketEntityRelMove.class || packetClass == S18PacketEntityTeleport.class) {
+            if (moveSink == null) {
+                processPacket(packet);
+                return true;
+            }
+
+            EntityMoveAccumulator acc = pendingMove(EntityMoveAccumulator.getEntityId(packet));
+            if (acc.getMergedCount() > 0) {
+                coalescedCount.incrementAndGet();
+            }
+            acc.add(packet);
+            return false;
+        }
+
+        if (!tickMoves.isEmpty()) {
+            if (packetClass == S0EPacketSpawnObject.class || packetClass == S0CPacketSpawnPlayer.class
+                    || packetClass == S13PacketDestroyEntities.class || packetClass == S01PacketJoinGame.class) {
+                // 实体生成/销毁/换世界前先发布全部合并的移动，保证移动不会越过实体的生命周期边界
+                flushTickMoves();
+            } else {
+                // 携带实体ID的数据包（装备、元数据、属性、睡床）先发布该实体的移动
+                int entityId = getPacketEntityId(packetClass, packet);
+                if (entityId != -1) {
+                    flushEntityMove(entityId);
+                }
+            }
+        }
+
+        processPacket(packet);
+        return true;
+    }
+
+    /**
+     * 取出溢出合并的移动并入本tick的累加器
+     * 先从溢出表移除（之后Netty线程不会再写入该累加器），该实体之后溢出的移动会新建累加器排在队尾
+     */
+    private static void mergeOverflowMove(EntityMoveAccumulator acc) {
+        synchronized (overflowMoves) {
+            overflowMoves.remove(acc.getEntityId());
+            overflowMoveCount = overflowMoves.size();
+        }
+        pendingMove(acc.getEntityId()).merge(acc);
+    }
+
+    /**
+     * 取得实体本tick的累加器（没有时从池中取出）
+     */
+    private static EntityMoveAccumulator pendingMove(int entityId) {
+        EntityMoveAccumulator acc = tickMoves.get(entityId);
+        if (acc == null) {
+            acc = accumulatorPool.pollFirst();
+            if (acc == null) {
+                acc = new EntityMoveAccumulator(entityId);
+            } else {
+                acc.reset(entityId);
+            }
+            tickMoves.put(entityId, acc);
+            tickMoveOrder.add(acc);
+        }
+        return acc;
+    }
+
+    /**
+     * 提前发布单个实体的合并移动
+     */
+    private static void flushEntityMove(int entityId) {
+        EntityMoveAccumulator acc = tickMoves.remove(entityId);
+        if (acc != null) {
+            publishMove(acc);
+        }
+    }
+
+    /**
+     * 发布本tick合并的移动（每个实体一份净位置），累加器放回池中
+     */
+    private static void flushTickMoves() {
+        if (tickMoveOrder.isEmpty()) {
+            return;
+        }
+
+        tickMoves.clear();
+        for (int i = 0; i < tickMoveOrder.size(); i++) {
+            EntityMoveAccumulator acc = tickMoveOrder.get(i);
+            publishMove(acc);
+            accumulatorPool.addFirst(acc);
+        }
+        tickMoveOrder.clear();
+    }
+
+    private static void publishMove(EntityMoveAccumulator acc) {
+        EntityMoveSink sink = moveSink;
+        if (sink == null || acc.getMergedCount() == 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            acc.publishTo(sink);
+            moveSinkLatency.record(System.nanoTime() - start);
+        } catch (Exception e) {
+            System.err.println("Error publishing merged move for entity " + acc.getEntityId());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 非移动数据包携带的实体ID，不针对单个实体时返回-1
+     */
+    private static int getPacketEntityId(Class<?> packetClass, Packet<?> packet) {
+        if (packetClass == S04PacketEntityEquipment.class) {
+            return ((S04PacketEntityEquipment) packet).getEntityID();
+        }
+        if (packetClass == S1CPacketEntityMetadata.class) {
+            return ((S1CPacketEntityMetadata) packet).getEntityId();
+        }
+        if (packetClass == S20PacketEntityProperties.class) {
+            return ((S20PacketEntityProperties) packet).getEntityId();
+        }
+        if (packetClass == S0APacketUseBed.class) {
+            // S0APacketUseBed 没有公开实体ID的方法，通过反射读取
+            Field field = useBedEntityIdField;
+            if (field == null) {
+                for (Field candidate : S0APacketUseBed.class.getDeclaredFields()) {
+                    if (candidate.getType() == int.class) {
+                        candidate.setAccessible(true);
+                        useBedEntityIdField = field = candidate;
+                        break;
+                    }
+                }
+            }
+            if (field != null) {
+                try {
+                    return field.getInt(packet);
+                } catch (IllegalAccessException ignored) {}
+            }
         }
+        return -1;
     }
 
     /**
      * 处理单个数据包
      */
     private static void processPacket(Packet<?> packet) {
-        List<ListenerMethod> methods = listeners.get(packet.getClass());
+        ListenerMethod[] methods = dispatchTable.get(packet.getClass());
         if (methods != null) {
             for (ListenerMethod lm : methods) {
+                long start = System.nanoTime();
                 try {
-                    lm.method.invoke(lm.instance, packet);
+                    lm.handler.handle(packet);
+                    lm.latency.record(System.nanoTime() - start);
                 } catch (Exception e) {
                     System.err.println("Error invoking packet listener: " + lm.method.getName());
                     e.printStackTrace();
@@ -107,9 +578,97 @@ public class PacketListenerRegistry {
     }
 
     /**
-     * 清空队列
+     * 清空队列（主线程调用，缓冲区和本tick合并的移动只由主线程消费）
      */
     public static void clearQueue() {
         packetQueue.clear();
+        overflowQueue.clear();
+        overflowSize.set(0);
+        synchronized (overflowMoves) {
+            overflowMoves.clear();
+            overflowMoveCount = 0;
+        }
+        tickMoves.clear();
+        accumulatorPool.addAll(tickMoveOrder);
+        tickMoveOrder.clear();
+        lastBacklog = 0;
+    }
+
+    /**
+     * 设置队列容量（在连接服务器之前调用）
+     */
+    public static void setQueueCapacity(int capacity) {
+        packetQueue = new PacketRingBuffer(capacity);
+    }
+
+    /**
+     * 设置数据包类型的溢出策略
+     */
+    public static synchronized void setOverflowPolicy(Class<? extends Packet> packetClass, PacketOverflowPolicy policy) {
+        Map<Class<?>, PacketOverflowPolicy> policies = new IdentityHashMap<>(overflowPolicies);
+        policies.put(packetClass, policy);
+        overflowPolicies = policies;
+    }
+
+    public static PacketOverflowPolicy getOverflowPolicy(Class<?> packetClass) {
+        PacketOverflowPolicy policy = overflowPolicies.get(packetClass);
+        return policy != null ? policy : PacketOverflowPolicy.NEVER_DROP;
+    }
+
+    // ==================== 队列统计 ====================
+
+    public static int getQueueCapacity() {
+        return packetQueue.capacity();
+    }
+
+    /**
+     * 当前积压数量（缓冲区 + 溢出队列 + 合并中的实体）
+     */
+    public static int getBacklog() {
+        return lastBacklog;
+    }
+
+    public static long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public static long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public static long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    public static long getMaxLagMs() {
+        return maxLagMs;
+    }
+
+    public static void resetStats() {
+        droppedCount.set(0);
+        reportedDroppedCount = 0;
+        coalescedCount.set(0);
+        spilledCount.set(0);
+        maxLagMs = 0;
+        queueDelay.reset();
+        for (LatencyHistogram latency : handlerLatencies) {
+            latency.reset();
+        }
+    }
+
+    // ==================== 延迟统计（仅主线程访问） ====================
+
+    /**
+     * 入队到出队的排队延迟
+     */
+    public static LatencyHistogram getQueueDelay() {
+        return queueDelay;
+    }
+
+    /**
+     * 各监听方法的执行耗时（按名字排序）
+     */
+    public static LatencyHistogram[] getHandlerLatencies() {
+        return handlerLatencies;
     }
-}
\ No newline at end of file
+}
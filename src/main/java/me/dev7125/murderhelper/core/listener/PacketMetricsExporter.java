@@ -0,0 +1,77 @@
+package me.dev7125.murderhelper.core.listener;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * 数据包管线延迟统计导出
+ * 把排队延迟和各监听方法的耗时直方图写成CSV（每行一个直方图，时间单位微秒，分桶列为各桶样本数）
+ */
+public final class PacketMetricsExporter {
+
+    private static File outputDirectory;
+
+    private PacketMetricsExporter() {
+    }
+
+    /**
+     * 设置导出目录（preInit时调用）
+     */
+    public static void setOutputDirectory(File directory) {
+        outputDirectory = directory;
+    }
+
+    /**
+     * 导出当前统计（主线程调用）
+     * @return 写入的文件
+     */
+    public static File dumpCsv() throws IOException {
+        if (outputDirectory == null) {
+            throw new IOException("Metrics output directory not set");
+        }
+        if (!outputDirectory.exists() && !outputDirectory.mkdirs()) {
+            throw new IOException("Cannot create " + outputDirectory);
+        }
+
+        File file = new File(outputDirectory,
+                "packet-metrics-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv");
+
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            StringBuilder header = new StringBuilder("name,count,mean_us,p50_us,p90_us,p99_us,max_us,total_ms");
+            for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+                header.append(",lt_").append(LatencyHistogram.getBucketUpperNanos(i)).append("ns");
+            }
+            out.println(header);
+
+            writeRow(out, PacketListenerRegistry.getQueueDelay());
+            for (LatencyHistogram latency : PacketListenerRegistry.getHandlerLatencies()) {
+                writeRow(out, latency);
+            }
+        }
+        return file;
+    }
+
+    private static void writeRow(PrintWriter out, LatencyHistogram histogram) {
+        StringBuilder row = new StringBuilder(histogram.getName());
+        row.append(',').append(histogram.getCount());
+        row.append(',').append(formatMicros(histogram.getMeanNanos()));
+        row.append(',').append(formatMicros(histogram.getPercentileNanos(0.50)));
+        row.append(',').append(formatMicros(histogram.getPercentileNanos(0.90)));
+        row.append(',').append(formatMicros(histogram.getPercentileNanos(0.99)));
+        row.append(',').append(formatMicros(histogram.getMaxNanos()));
+        row.append(',').append(String.format(Locale.ROOT, "%.3f", histogram.getTotalNanos() / 1_000_000.0));
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            row.append(',').append(histogram.getBucket(i));
+        }
+        out.println(row);
+    }
+
+    private static String formatMicros(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1000.0);
+    }
+}
@@ -0,0 +1,27 @@
+package me.dev7125.murderhelper.core.listener;
+
+/**
+ * 数据包队列溢出策略
+ * 环形缓冲区已满时，按数据包类型决定如何处理新到达的数据包
+ */
+public enum PacketOverflowPolicy {
+    /**
+     * 直接丢弃（只计数），用于丢失也不影响检测的数据包
+     */
+    DROP,
+
+    /**
+     * 属于玩家实体的数据包直接丢弃（高频且只影响瞬时状态），其他实体的数据包按 NEVER_DROP 处理
+     */
+    DROP_PLAYERS,
+
+    /**
+     * 按实体合并移动（相对移动累加，传送覆盖），同一实体只保留一份合并后的位置
+     */
+    COALESCE,
+
+    /**
+     * 放入溢出队列等待处理（生成/销毁等不可丢失的数据包），只在溢出队列也满时丢弃
+     */
+    NEVER_DROP
+}
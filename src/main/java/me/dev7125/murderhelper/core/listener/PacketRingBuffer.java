@@ -0,0 +1,102 @@
+package me.dev7125.murderhelper.core.listener;
+
+import net.minecraft.network.Packet;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有界单生产者/单消费者环形缓冲区
+ * 生产者为Netty线程（offer），消费者为客户端主线程（poll/clear），不支持多个生产者同时写入
+ */
+public class PacketRingBuffer {
+
+    private final Packet<?>[] buffer;
+
+    // 每个槽位的入队时间（System.nanoTime），用于统计排队延迟
+    private final long[] enqueueTimes;
+
+    private final int mask;
+
+    // 消费者读取位置
+    private final AtomicLong head = new AtomicLong();
+
+    // 生产者写入位置
+    private final AtomicLong tail = new AtomicLong();
+
+    // 最近一次poll出的数据包的入队时间（仅消费者线程访问）
+    private long lastPolledEnqueueTime;
+
+    /**
+     * @param capacity 容量，会向上取整为2的幂
+     */
+    public PacketRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.buffer = new Packet<?>[size];
+        this.enqueueTimes = new long[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * 写入数据包（生产者线程）
+     * @return 缓冲区已满时返回false
+     */
+    public boolean offer(Packet<?> packet) {
+        long t = tail.get();
+        if (t - head.get() >= buffer.length) {
+            return false;
+        }
+
+        int index = (int) (t & mask);
+        buffer[index] = packet;
+        enqueueTimes[index] = System.nanoTime();
+        // 发布写入，消费者看到新的tail时槽位内容一定可见
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * 取出数据包（消费者线程）
+     * @return 缓冲区为空时返回null
+     */
+    public Packet<?> poll() {
+        long h = head.get();
+        if (h >= tail.get()) {
+            return null;
+        }
+
+        int index = (int) (h & mask);
+        Packet<?> packet = buffer[index];
+        buffer[index] = null;
+        lastPolledEnqueueTime = enqueueTimes[index];
+        head.lazySet(h + 1);
+        return packet;
+    }
+
+    /**
+     * 最近一次poll出的数据包的入队时间（System.nanoTime，消费者线程）
+     */
+    public long getLastPolledEnqueueTime() {
+        return lastPolledEnqueueTime;
+    }
+
+    /**
+     * 清空缓冲区（消费者线程）
+     */
+    public void clear() {
+        while (poll() != null) {
+            // 逐个出队以保持生产者视角的一致性
+        }
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+}
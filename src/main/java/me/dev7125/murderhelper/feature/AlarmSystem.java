@@ -1,6 +1,7 @@
 package me.dev7125.murderhelper.feature;
 
 import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.game.PlayerSnapshot;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.ChatComponentText;
@@ -61,28 +62,14 @@ public class AlarmSystem {
             return null;
         }
         
-        EntityPlayer closestEnemy = null;
-        double closestDistance = Double.MAX_VALUE;
-        
-        for (EntityPlayer player : mc.theWorld.playerEntities) {
-            if (player == mc.thePlayer) continue;
-            
-            // 只检查在Tab列表中的玩家
-            if (!MurderHelperMod.gameState.isRealPlayer(player)) continue;
-            
-            // 检查是否是敌人
-            if (MurderHelperMod.isEnemy(player.getName())) {
-                double distance = mc.thePlayer.getDistanceToEntity(player);
-                
-                // 在警报范围内且比当前最近的敌人更近
-                if (distance < ALARM_RANGE && distance < closestDistance) {
-                    closestDistance = distance;
-                    closestEnemy = player;
-                }
-            }
+        // 从本tick的玩家快照中查找（已包含真实玩家和敌人标记）
+        PlayerSnapshot snapshot = MurderHelperMod.playerSnapshot;
+        if (!snapshot.isValidFor(mc.theWorld)) {
+            return null;
         }
-        
-        return closestEnemy;
+
+        int index = snapshot.findClosestEnemy(ALARM_RANGE);
+        return index < 0 ? null : snapshot.getPlayer(index);
     }
     
     /**
@@ -1,7 +1,11 @@
 package me.dev7125.murderhelper.game;
 
 import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.core.event.*;
+import me.dev7125.murderhelper.core.listener.EntityInterestFilter;
 import me.dev7125.murderhelper.feature.ShoutMessageBuilder;
+import me.dev7125.murderhelper.util.ConcurrentIntSet;
+import me.dev7125.murderhelper.util.IntObjectMap;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.DataWatcher;
 import net.minecraft.entity.Entity;
@@ -27,18 +31,21 @@ public class BowDropDetector {
 
     // 追踪盔甲架弓掉落物（持弓的盔甲架）
     // Key: 实体ID, Value: BowDropInfo
-    private final Map<Integer, BowDropInfo> armorStandBows = new ConcurrentHashMap<>();
+    private final IntObjectMap<BowDropInfo> armorStandBows = new IntObjectMap<>();
 
     // 追踪掉落物形式的弓（EntityItem，地上的弓）
     // Key: 实体ID, Value: BowDropInfo
-    private final Map<Integer, BowDropInfo> itemBows = new ConcurrentHashMap<>();
+    private final IntObjectMap<BowDropInfo> itemBows = new IntObjectMap<>();
+
+    // 追踪中的盔甲架/掉落物ID，供Netty线程过滤移动和元数据数据包
+    private final ConcurrentIntSet trackedEntityIds = EntityInterestFilter.createInterest();
 
     // 记录已经喊过话的弓位置（使用字符串格式 "x,y,z"），避免重复发送
     private final Set<String> shoutedBowPositions = new HashSet<>();
 
     // 追踪玩家靠近弓掉落的记录（用于识别捡弓者）
     // Key: 实体ID (盔甲架), Value: Map<玩家名, PlayerProximityInfo>
-    private final Map<Integer, Map<String, PlayerProximityInfo>> playerProximityTracking = new ConcurrentHashMap<>();
+    private final IntObjectMap<Map<String, PlayerProximityInfo>> playerProximityTracking = new IntObjectMap<>();
 
     // 位置判定的容差范围（格）
     private static final double POSITION_TOLERANCE = 2.0;
@@ -49,6 +56,12 @@ public class BowDropDetector {
     // 拾取弓的距离阈值（格）- 适当放大以确保能捕捉到拾取者
     private static final double PICKUP_DISTANCE_THRESHOLD = 3.0;
 
+    private final GameClock clock;
+
+    public BowDropDetector(GameClock clock) {
+        this.clock = clock;
+    }
+
     /**
      * 玩家接近度信息
      */
@@ -94,13 +107,13 @@ public class BowDropDetector {
             ITEM          // 掉落物（弓）
         }
 
-        BowDropInfo(int entityId, EntityType type, double x, double y, double z) {
+        BowDropInfo(int entityId, EntityType type, double x, double y, double z, long detectTime) {
             this.entityId = entityId;
             this.type = type;
             this.x = x;
             this.y = y;
             this.z = z;
-            this.detectTime = System.currentTimeMillis();
+            this.detectTime = detectTime;
             this.confirmed = false;
         }
 
@@ -113,52 +126,67 @@ public class BowDropDetector {
         }
     }
 
-    // ==================== 数据包处理方法 ====================
+    // ==================== 事件订阅 ====================
 
     /**
-     * 处理生成对象数据包
-     * 检测盔甲架和掉落物的创建
+     * 订阅需要的领域事件
      */
-    public void handleSpawnObject(S0EPacketSpawnObject packet) {
+    public void registerEvents(DomainEventBus bus) {
+        bus.channel(ArmorStandSpawned.class).subscribe(this::onArmorStandSpawned);
+        bus.channel(ItemSpawned.class).subscribe(this::onItemSpawned);
+        bus.channel(EquipmentChanged.class).subscribe(this::onEquipmentChanged);
+        bus.channel(EntityMoved.class).subscribe(this::onEntityMoved);
+        bus.channel(EntityDestroyed.class).subscribe(this::onEntityDestroyed);
+    }
+
+    // ==================== 事件和数据包处理 ====================
+
+    /**
+     * 盔甲架生成 - 创建待确认记录（需要等待装备弓才确认）
+     */
+    private void onArmorStandSpawned(ArmorStandSpawned event) {
         if (!MurderHelperMod.isGameActuallyStarted()) {
             return;
         }
 
-        int type = packet.getType();
-        int entityId = packet.getEntityID();
-        double x = packet.getX() / 32.0;
-        double y = packet.getY() / 32.0;
-        double z = packet.getZ() / 32.0;
+        int entityId = event.getEntityId();
+        BowDropInfo info = new BowDropInfo(entityId, BowDropInfo.EntityType.ARMOR_STAND,
+                event.getX(), event.getY(), event.getZ(), clock.now());
+        armorStandBows.put(entityId, info);
+        trackedEntityIds.add(entityId);
+        // 为这个盔甲架创建玩家接近度追踪
+        playerProximityTracking.put(entityId, new ConcurrentHashMap<>());
+    }
 
-        // 类型78 = 盔甲架 - 创建待确认记录（需要等待装备弓才确认）
-        if (type == 78) {
-            BowDropInfo info = new BowDropInfo(entityId, BowDropInfo.EntityType.ARMOR_STAND, x, y, z);
-            armorStandBows.put(entityId, info);
-            // 为这个盔甲架创建玩家接近度追踪
-            playerProximityTracking.put(entityId, new ConcurrentHashMap<>());
-        }
-        // 类型2 = 掉落物 - 创建待确认记录（需要通过元数据确认是弓）
-        else if (type == 2) {
-            BowDropInfo info = new BowDropInfo(entityId, BowDropInfo.EntityType.ITEM, x, y, z);
-            itemBows.put(entityId, info);
+    /**
+     * 掉落物生成 - 创建待确认记录（需要通过元数据确认是弓）
+     */
+    private void onItemSpawned(ItemSpawned event) {
+        if (!MurderHelperMod.isGameActuallyStarted()) {
+            return;
         }
+
+        int entityId = event.getEntityId();
+        BowDropInfo info = new BowDropInfo(entityId, BowDropInfo.EntityType.ITEM,
+                event.getX(), event.getY(), event.getZ(), clock.now());
+        itemBows.put(entityId, info);
+        trackedEntityIds.add(entityId);
     }
 
     /**
-     * 处理实体装备数据包
+     * 实体装备变化
      * 检测盔甲架是否装备了弓，但不直接确认（需要等待元数据验证）
      */
-    public void handleEntityEquipment(S04PacketEntityEquipment packet) {
+    private void onEquipmentChanged(EquipmentChanged event) {
         if (!MurderHelperMod.isGameActuallyStarted()) {
             return;
         }
 
-        int entityId = packet.getEntityID();
-        int slot = packet.getEquipmentSlot();
-        ItemStack itemStack = packet.getItemStack();
+        int entityId = event.getEntityId();
+        ItemStack itemStack = event.getItem();
 
         // 检查是否是主手槽位（slot 0）
-        if (slot != 0) {
+        if (!event.isMainHand()) {
             return;
         }
 
@@ -169,8 +197,8 @@ public class BowDropDetector {
                 // 标记已装备弓，但不直接确认（需要等待元数据验证属性）
                 if (!armorInfo.hasEquippedBow) {
                     armorInfo.hasEquippedBow = true;
-                    MurderHelperMod.logger.info("[BowDropDetector] Bow equipped on armor stand: ID={}, pos=({}, {}, {}), awaiting metadata validation",
-                            entityId, String.format("%.1f", armorInfo.x), String.format("%.1f", armorInfo.y), String.format("%.1f", armorInfo.z));
+                    MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "Bow equipped on armor stand: ID={}, pos=({}, {}, {}), awaiting metadata validation",
+                            entityId, armorInfo.x, armorInfo.y, armorInfo.z);
 
                     // 尝试确认（如果元数据已经到达且验证通过）
                     tryConfirmArmorStandBow(armorInfo);
@@ -179,13 +207,14 @@ public class BowDropDetector {
                 // 盔甲架卸下了弓（可能是bug或特殊情况）
                 if (armorInfo.hasEquippedBow) {
                     armorInfo.hasEquippedBow = false;
-                    MurderHelperMod.logger.info("[BowDropDetector] Bow unequipped from armor stand: ID={}", entityId);
+                    MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "Bow unequipped from armor stand: ID={}", entityId);
                 }
             } else {
                 // 盔甲架装备了其他物品（不是弓），移除追踪
                 armorStandBows.remove(entityId);
+                trackedEntityIds.remove(entityId);
                 playerProximityTracking.remove(entityId);
-                MurderHelperMod.logger.info("[BowDropDetector] Armor stand equipped non-bow item, removed from tracking: ID={}", entityId);
+                MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "Armor stand equipped non-bow item, removed from tracking: ID={}", entityId);
             }
         }
     }
@@ -201,10 +230,9 @@ public class BowDropDetector {
 
         if (validateArmorStandBowDrop(armorInfo)) {
             armorInfo.confirmed = true;
-            MurderHelperMod.logger.info("[BowDropDetector] ✓ Bow armor stand CONFIRMED: ID={}, pos=({}, {}, {})",
-                    armorInfo.entityId, String.format("%.1f", armorInfo.x),
-                    String.format("%.1f", armorInfo.y), String.format("%.1f", armorInfo.z));
-            MurderHelperMod.logger.info("  Properties: invisible={}, noGravity={}, noBasePlate={}, marker={}",
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "✓ Bow armor stand CONFIRMED: ID={}, pos=({}, {}, {})",
+                    armorInfo.entityId, armorInfo.x, armorInfo.y, armorInfo.z);
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "Properties: invisible={}, noGravity={}, noBasePlate={}, marker={}",
                     armorInfo.isInvisible, armorInfo.hasNoGravity,
                     armorInfo.hasNoBasePlate, armorInfo.hasMarker);
             onBowDropConfirmed(armorInfo);
@@ -235,12 +263,12 @@ public class BowDropDetector {
                     ItemStack itemStack = (ItemStack) obj.getObject();
                     if (itemStack.getItem() == Items.bow) {
                         itemInfo.confirmed = true;
-                        MurderHelperMod.logger.info("[BowDropDetector] ✓ Bow item confirmed: ID={}, pos=({}, {}, {})",
-                                entityId, String.format("%.1f", itemInfo.x),
-                                String.format("%.1f", itemInfo.y), String.format("%.1f", itemInfo.z));
+                        MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "✓ Bow item confirmed: ID={}, pos=({}, {}, {})",
+                                entityId, itemInfo.x, itemInfo.y, itemInfo.z);
                         onBowDropConfirmed(itemInfo);
                     } else {
                         itemBows.remove(entityId);
+                        trackedEntityIds.remove(entityId);
                     }
                     break;
                 }
@@ -332,115 +360,76 @@ public class BowDropDetector {
     }
 
     /**
-     * 处理实体相对移动数据包
-     * 更新弓掉落位置
+     * 实体移动，更新弓掉落位置
      */
-    public void handleEntityRelMove(S14PacketEntity.S15PacketEntityRelMove packet) {
-        if (!MurderHelperMod.isGameActuallyStarted() || mc.theWorld == null) {
-            return;
-        }
-
-        // 获取实体，可能为null（实体尚未加载或已被移除）
-        Entity entity = packet.getEntity(mc.theWorld);
-        if (entity == null) {
-            return;
-        }
-
-        int entityId = entity.getEntityId();
-
-        // 更新盔甲架位置
-        BowDropInfo armorInfo = armorStandBows.get(entityId);
-        if (armorInfo != null) {
-            armorInfo.x += packet.func_149062_c() / 32.0;
-            armorInfo.y += packet.func_149061_d() / 32.0;
-            armorInfo.z += packet.func_149064_e() / 32.0;
-        }
-
-        // 更新掉落物位置
-        BowDropInfo itemInfo = itemBows.get(entityId);
-        if (itemInfo != null) {
-            itemInfo.x += packet.func_149062_c() / 32.0;
-            itemInfo.y += packet.func_149061_d() / 32.0;
-            itemInfo.z += packet.func_149064_e() / 32.0;
-        }
-    }
-
-    /**
-     * 处理实体传送数据包
-     * 更新弓掉落位置
-     */
-    public void handleEntityTeleport(S18PacketEntityTeleport packet) {
+    private void onEntityMoved(EntityMoved event) {
         if (!MurderHelperMod.isGameActuallyStarted()) {
             return;
         }
 
-        int entityId = packet.getEntityId();
-        double x = packet.getX() / 32.0;
-        double y = packet.getY() / 32.0;
-        double z = packet.getZ() / 32.0;
+        int entityId = event.getEntityId();
 
         // 更新盔甲架位置
         BowDropInfo armorInfo = armorStandBows.get(entityId);
         if (armorInfo != null) {
-            armorInfo.x = x;
-            armorInfo.y = y;
-            armorInfo.z = z;
+            armorInfo.x = event.resolveX(armorInfo.x);
+            armorInfo.y = event.resolveY(armorInfo.y);
+            armorInfo.z = event.resolveZ(armorInfo.z);
         }
 
         // 更新掉落物位置
         BowDropInfo itemInfo = itemBows.get(entityId);
         if (itemInfo != null) {
-            itemInfo.x = x;
-            itemInfo.y = y;
-            itemInfo.z = z;
+            itemInfo.x = event.resolveX(itemInfo.x);
+            itemInfo.y = event.resolveY(itemInfo.y);
+            itemInfo.z = event.resolveZ(itemInfo.z);
         }
     }
 
     /**
-     * 处理实体销毁数据包
+     * 实体销毁
      * 检测弓被拾取（盔甲架或掉落物消失）并识别新侦探
      */
-    public void handleDestroyEntities(S13PacketDestroyEntities packet) {
+    private void onEntityDestroyed(EntityDestroyed event) {
         if (!MurderHelperMod.isGameActuallyStarted()) {
             return;
         }
 
-        int[] entityIds = packet.getEntityIDs();
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.now();
+        int entityId = event.getEntityId();
+        trackedEntityIds.remove(entityId);
 
-        for (int entityId : entityIds) {
-            // 检查盔甲架弓
-            BowDropInfo armorInfo = armorStandBows.remove(entityId);
-            if (armorInfo != null && armorInfo.confirmed) {
-                MurderHelperMod.logger.info("[BowDropDetector] ✓ Bow armor stand destroyed: ID={} (bow picked up)", entityId);
+        // 检查盔甲架弓
+        BowDropInfo armorInfo = armorStandBows.remove(entityId);
+        if (armorInfo != null && armorInfo.confirmed) {
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "✓ Bow armor stand destroyed: ID={} (bow picked up)", entityId);
 
-                // 识别捡起弓的新侦探
-                String newDetective = identifyNewDetective(entityId, armorInfo, currentTime);
-                if (newDetective != null) {
-                    MurderHelperMod.logger.info("[BowDropDetector] ✓ Identified new detective: {}", newDetective);
-                }
-
-                // 清理该盔甲架的接近度追踪
-                playerProximityTracking.remove(entityId);
-
-                // 通知BowDropTracker移除渲染
-                onBowPickedUp(armorInfo);
+            // 识别捡起弓的新侦探
+            String newDetective = identifyNewDetective(entityId, armorInfo, currentTime);
+            if (newDetective != null) {
+                MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "✓ Identified new detective: {}", newDetective);
             }
 
-            // 检查掉落物弓
-            BowDropInfo itemInfo = itemBows.remove(entityId);
-            if (itemInfo != null && itemInfo.confirmed) {
-                MurderHelperMod.logger.info("[BowDropDetector] ✓ Bow item destroyed: ID={} (bow picked up)", entityId);
+            // 清理该盔甲架的接近度追踪
+            playerProximityTracking.remove(entityId);
 
-                // 识别捡起弓的新侦探
-                String newDetective = identifyNewDetectiveForItem(itemInfo, currentTime);
-                if (newDetective != null) {
-                    MurderHelperMod.logger.info("[BowDropDetector] ✓ Identified new detective: {}", newDetective);
-                }
+            // 通知BowDropTracker移除渲染
+            onBowPickedUp(armorInfo);
+        }
+
+        // 检查掉落物弓
+        BowDropInfo itemInfo = itemBows.remove(entityId);
+        if (itemInfo != null && itemInfo.confirmed) {
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "✓ Bow item destroyed: ID={} (bow picked up)", entityId);
 
-                // 通知BowDropTracker移除渲染
-                onBowPickedUp(itemInfo);
+            // 识别捡起弓的新侦探
+            String newDetective = identifyNewDetectiveForItem(itemInfo, currentTime);
+            if (newDetective != null) {
+                MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "✓ Identified new detective: {}", newDetective);
             }
+
+            // 通知BowDropTracker移除渲染
+            onBowPickedUp(itemInfo);
         }
     }
 
@@ -453,12 +442,13 @@ public class BowDropDetector {
             return;
         }
 
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.now();
+        PlayerSnapshot snapshot = MurderHelperMod.playerSnapshot;
+        PlayerSpatialGrid grid = snapshot.getGrid();
 
         // 遍历所有确认的盔甲架弓掉落
-        for (Map.Entry<Integer, BowDropInfo> entry : armorStandBows.entrySet()) {
-            int entityId = entry.getKey();
-            BowDropInfo bowInfo = entry.getValue();
+        for (BowDropInfo bowInfo : armorStandBows.values()) {
+            int entityId = bowInfo.entityId;
 
             // 只追踪已确认的弓掉落
             if (!bowInfo.confirmed) {
@@ -470,39 +460,31 @@ public class BowDropDetector {
                 continue;
             }
 
-            // 检查所有玩家与该盔甲架的距离
-            for (EntityPlayer player : mc.theWorld.playerEntities) {
-                if (player == null) {
-                    continue;
-                }
+            // 只检查拾取距离阈值内的玩家（空间索引范围查询）
+            int count = grid.queryRange(bowInfo.x, bowInfo.y, bowInfo.z, PICKUP_DISTANCE_THRESHOLD);
+            for (int k = 0; k < count; k++) {
+                int i = grid.getResult(k);
 
                 // 排除死亡的幽灵玩家
-                if (!isValidPickupCandidate(player)) {
+                if (!snapshot.isHealthy(i)) {
                     continue;
                 }
 
-                String playerName = player.getName();
+                String playerName = snapshot.getName(i);
 
                 // 排除杀手
                 if (MurderHelperMod.playerTracker.isMurdererLocked(playerName)) {
                     continue;
                 }
 
-                // 计算距离
-                double distance = calculateDistance(
-                        player.posX, player.posY, player.posZ,
-                        bowInfo.x, bowInfo.y, bowInfo.z
-                );
+                double distance = Math.sqrt(snapshot.distanceSq(i, bowInfo.x, bowInfo.y, bowInfo.z));
 
-                // 只追踪在拾取距离阈值内的玩家
-                if (distance <= PICKUP_DISTANCE_THRESHOLD) {
-                    PlayerProximityInfo proximityInfo = proximityMap.get(playerName);
-                    if (proximityInfo == null) {
-                        proximityInfo = new PlayerProximityInfo(playerName, distance, currentTime);
-                        proximityMap.put(playerName, proximityInfo);
-                    } else {
-                        proximityInfo.updateIfCloser(distance, currentTime);
-                    }
+                PlayerProximityInfo proximityInfo = proximityMap.get(playerName);
+                if (proximityInfo == null) {
+                    proximityInfo = new PlayerProximityInfo(playerName, distance, currentTime);
+                    proximityMap.put(playerName, proximityInfo);
+                } else {
+                    proximityInfo.updateIfCloser(distance, currentTime);
                 }
             }
 
@@ -560,7 +542,7 @@ public class BowDropDetector {
 
         // 如果追踪数据没有找到，使用备用逻辑：检查当前时刻谁最靠近盔甲架
         if (newDetective == null && mc.theWorld != null) {
-            MurderHelperMod.logger.info("[BowDropDetector] No tracking data, using fallback: checking current player positions");
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "No tracking data, using fallback: checking current player positions");
 
             for (EntityPlayer player : mc.theWorld.playerEntities) {
                 if (player == null) {
@@ -600,10 +582,10 @@ public class BowDropDetector {
         // 如果找到新侦探，锁定其角色
         if (newDetective != null) {
             MurderHelperMod.playerTracker.lockDetective(newDetective);
-            MurderHelperMod.logger.info("[BowDropDetector] ✓ Locked {} as DETECTIVE (picked up bow at distance {:.2f})",
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "✓ Locked {} as DETECTIVE (picked up bow at distance {})",
                     newDetective, closestDistance);
         } else {
-            MurderHelperMod.logger.info("[BowDropDetector] Could not identify new detective for armor stand {}", entityId);
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "Could not identify new detective for armor stand {}", entityId);
         }
 
         return newDetective;
@@ -659,7 +641,7 @@ public class BowDropDetector {
         // 如果找到新侦探，锁定其角色
         if (newDetective != null) {
             MurderHelperMod.playerTracker.lockDetective(newDetective);
-            MurderHelperMod.logger.info("[BowDropDetector] ✓ Locked {} as DETECTIVE (picked up bow item at distance {:.2f})",
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "✓ Locked {} as DETECTIVE (picked up bow item at distance {})",
                     newDetective, closestDistance);
         }
 
@@ -701,7 +683,7 @@ public class BowDropDetector {
     private void onBowDropConfirmed(BowDropInfo info) {
         // 检查是否已经在该位置喊过话
         if (hasShoutedAtPosition(info.x, info.y, info.z)) {
-            MurderHelperMod.logger.info("[BowDropDetector] Position already shouted, skipping");
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "Position already shouted, skipping");
             return;
         }
 
@@ -713,7 +695,7 @@ public class BowDropDetector {
             if (mc.thePlayer != null && !message.trim().isEmpty()) {
                 mc.thePlayer.sendChatMessage(message);
                 markPositionAsShouted(info.x, info.y, info.z);
-                MurderHelperMod.logger.info("[BowDropDetector] Auto shout: " + message);
+                MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "Auto shout: {}", message);
             }
         }
 
@@ -739,8 +721,8 @@ public class BowDropDetector {
             }
         }
 
-        MurderHelperMod.logger.info("[BowDropDetector] Bow picked up at ({}, {}, {})",
-                String.format("%.1f", info.x), String.format("%.1f", info.y), String.format("%.1f", info.z));
+        MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "Bow picked up at ({}, {}, {})",
+                info.x, info.y, info.z);
     }
 
     /**
@@ -769,7 +751,7 @@ public class BowDropDetector {
         // 找出缺失的侦探（在锁定列表中但不在当前Tab栏中）
         for (String lockedDetective : lockedDetectives) {
             if (!currentDetectives.contains(lockedDetective)) {
-                MurderHelperMod.logger.info("[BowDropDetector] Found missing detective: " + lockedDetective);
+                MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "Found missing detective: {}", lockedDetective);
                 return lockedDetective;
             }
         }
@@ -793,7 +775,7 @@ public class BowDropDetector {
                 }
             }
 
-            MurderHelperMod.logger.info("[BowDropDetector] No missing detective, using nearest: " + nearestDetective);
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "No missing detective, using nearest: {}", nearestDetective);
             return nearestDetective;
         }
 
@@ -841,7 +823,7 @@ public class BowDropDetector {
     private void markPositionAsShouted(double x, double y, double z) {
         String posKey = String.format("%.1f,%.1f,%.1f", x, y, z);
         shoutedBowPositions.add(posKey);
-        MurderHelperMod.logger.info("[BowDropDetector] Marked position as shouted: " + posKey);
+        MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW_DROP, "Marked position as shouted: {}", posKey);
     }
 
     /**
@@ -883,6 +865,7 @@ public class BowDropDetector {
     public void clear() {
         armorStandBows.clear();
         itemBows.clear();
+        trackedEntityIds.clear();
         shoutedBowPositions.clear();
         playerProximityTracking.clear();
         MurderHelperMod.logger.info("[BowDropDetector] Cleared all bow tracking data");
@@ -1,16 +1,18 @@
 package me.dev7125.murderhelper.game;
 
 import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.core.event.*;
+import me.dev7125.murderhelper.core.listener.EntityInterestFilter;
+import me.dev7125.murderhelper.util.ConcurrentIntSet;
 import me.dev7125.murderhelper.util.ItemClassifier;
+import me.dev7125.murderhelper.util.IntObjectMap;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.DataWatcher;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.item.Item;
 import net.minecraft.item.ItemBow;
 import net.minecraft.item.ItemStack;
 import net.minecraft.network.play.server.*;
-import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.Vec3;
 
 import java.util.*;
@@ -25,6 +27,8 @@ public class BowShotDetector {
 
     private final Minecraft mc;
 
+    private final GameClock clock;
+
     // PlayerTracker 引用（用于更新角色）
     private final PlayerTracker playerTracker;
 
@@ -32,24 +36,24 @@ public class BowShotDetector {
     private final Map<String, BowInfo> bowByPlayer = new ConcurrentHashMap<>();
 
     // 箭矢追踪 <实体ID, ArrowInfo>
-    private final Map<Integer, ArrowInfo> arrowMap = new ConcurrentHashMap<>();
+    private final IntObjectMap<ArrowInfo> arrowMap = new IntObjectMap<>();
 
     // 玩家到箭矢的映射 <玩家名, List<箭矢ID>>
     private final Map<String, List<Integer>> playerArrows = new ConcurrentHashMap<>();
 
-    // 实体ID -> 玩家名映射（缓存）
-    private final Map<Integer, String> entityIdToPlayerName = new ConcurrentHashMap<>();
+    // 追踪中的箭矢ID，供Netty线程过滤移动数据包
+    private final ConcurrentIntSet trackedArrowIds = EntityInterestFilter.createInterest();
 
     // 常量
-    private static final int ARROW_ENTITY_TYPE = 60;
     private static final long ARROW_TIMEOUT = 5000;
     private static final int CLEANUP_INTERVAL = 20; // 每20帧清理一次
 
     private int cleanupCounter = 0;
 
-    public BowShotDetector(PlayerTracker playerTracker) {
+    public BowShotDetector(PlayerTracker playerTracker, GameClock clock) {
         this.mc = Minecraft.getMinecraft();
         this.playerTracker = playerTracker;
+        this.clock = clock;
     }
 
     /**
@@ -85,7 +89,7 @@ public class BowShotDetector {
             this.holdingState = HoldingState.NOT_HOLDING;
             this.drawState = DrawState.NONE;
             this.shotState = ShotState.READY;
-            this.lastStateChange = System.currentTimeMillis();
+            this.lastStateChange = clock.now();
             this.drawStartTime = 0;
             this.lastShotTime = 0;
         }
@@ -100,7 +104,7 @@ public class BowShotDetector {
             if (this.bowCategory != newCategory) {
                 this.shotState = ShotState.READY;
                 this.lastShotTime = 0;
-                MurderHelperMod.logger.info("[BowDetector] {} bow type changed: {} -> {}",
+                MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW, "{} bow type changed: {} -> {}",
                         playerName, this.bowCategory, newCategory);
             }
 
@@ -115,7 +119,7 @@ public class BowShotDetector {
         public void setHoldingState(HoldingState state) {
             if (this.holdingState != state) {
                 this.holdingState = state;
-                this.lastStateChange = System.currentTimeMillis();
+                this.lastStateChange = clock.now();
 
                 // 如果不再手持，取消拉弓状态
                 if (state == HoldingState.NOT_HOLDING) {
@@ -131,8 +135,8 @@ public class BowShotDetector {
         public void startDrawing() {
             if (drawState == DrawState.NONE) {
                 drawState = DrawState.DRAWING;
-                drawStartTime = System.currentTimeMillis();
-                lastStateChange = System.currentTimeMillis();
+                drawStartTime = clock.now();
+                lastStateChange = drawStartTime;
 
                 // 如果是普通弓，拉弓动作表示还有箭
                 if (bowCategory == ItemClassifier.BowCategory.NORMAL_BOW) {
@@ -141,19 +145,19 @@ public class BowShotDetector {
                     // 如果之前处于SHOT状态，拉弓表示还有箭
                     if (shotState == ShotState.SHOT) {
                         shotState = ShotState.READY;
-                        MurderHelperMod.logger.info("[BowDetector] {} normal bow recovered (started drawing)",
+                        MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW, "{} normal bow recovered (started drawing)",
                                 playerName);
                     }
 
                     // 如果当前是INNOCENT，恢复成SHOOTER（因为能拉弓说明还有箭）
                     if (currentRole == MurderHelperMod.PlayerRole.INNOCENT) {
                         playerTracker.updatePlayerRole(playerName, MurderHelperMod.PlayerRole.SHOOTER);
-                        MurderHelperMod.logger.info("[BowDetector] {} recovered to SHOOTER (has arrows)",
+                        MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW, "{} recovered to SHOOTER (has arrows)",
                                 playerName);
                     }
                 }
 
-                MurderHelperMod.logger.debug("[BowDetector] {} started drawing bow", playerName);
+                MurderHelperMod.detectorLog.debug(DetectorEventLog.Category.BOW, "{} started drawing bow", playerName);
             }
         }
 
@@ -164,8 +168,8 @@ public class BowShotDetector {
             if (drawState != DrawState.NONE) {
                 drawState = DrawState.NONE;
                 drawStartTime = 0;
-                lastStateChange = System.currentTimeMillis();
-                MurderHelperMod.logger.debug("[BowDetector] {} stopped drawing bow", playerName);
+                lastStateChange = clock.now();
+                MurderHelperMod.detectorLog.debug(DetectorEventLog.Category.BOW, "{} stopped drawing bow", playerName);
             }
         }
 
@@ -173,10 +177,10 @@ public class BowShotDetector {
          * 记录射击
          */
         public void recordShot() {
-            this.lastShotTime = System.currentTimeMillis();
+            this.lastShotTime = clock.now();
             this.drawState = DrawState.NONE;
             this.drawStartTime = 0;
-            this.lastStateChange = System.currentTimeMillis();
+            this.lastStateChange = lastShotTime;
 
             // 根据弓类型设置射击状态
             ShotState oldState = this.shotState;
@@ -198,7 +202,7 @@ public class BowShotDetector {
                     MurderHelperMod.PlayerRole currentRole = playerTracker.getPlayerRole(playerName);
                     if (currentRole == MurderHelperMod.PlayerRole.SHOOTER) {
                         playerTracker.updatePlayerRole(playerName, MurderHelperMod.PlayerRole.INNOCENT);
-                        MurderHelperMod.logger.info("[BowDetector] {} changed from SHOOTER to INNOCENT (shot arrow)",
+                        MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW, "{} changed from SHOOTER to INNOCENT (shot arrow)",
                                 playerName);
                     }
                     break;
@@ -210,7 +214,7 @@ public class BowShotDetector {
                     break;
             }
 
-            MurderHelperMod.logger.info("[BowDetector] {} shot arrow: {} -> {} (bow type: {})",
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW, "{} shot arrow: {} -> {} (bow type: {})",
                     playerName, oldState, this.shotState, bowCategory);
         }
 
@@ -218,7 +222,7 @@ public class BowShotDetector {
          * 更新状态（每帧调用）
          */
         public void update() {
-            long currentTime = System.currentTimeMillis();
+            long currentTime = clock.now();
 
             // 更新拉弓状态（从DRAWING到READY_TO_SHOOT）
             if (drawState == DrawState.DRAWING && drawStartTime > 0) {
@@ -231,7 +235,7 @@ public class BowShotDetector {
             if (shotState == ShotState.COOLDOWN && bowCategory == ItemClassifier.BowCategory.DETECTIVE_BOW) {
                 if (currentTime - lastShotTime >= DETECTIVE_BOW_COOLDOWN_MS) {
                     shotState = ShotState.READY;
-                    MurderHelperMod.logger.info("[BowDetector] {} detective bow cooldown finished",
+                    MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW, "{} detective bow cooldown finished",
                             playerName);
                 }
             }
@@ -253,13 +257,13 @@ public class BowShotDetector {
 
         public double getCooldownRemainingSeconds() {
             if (shotState != ShotState.COOLDOWN) return 0.0;
-            long currentTime = System.currentTimeMillis();
+            long currentTime = clock.now();
             long remaining = DETECTIVE_BOW_COOLDOWN_MS - (currentTime - lastShotTime);
             return Math.max(0, remaining / 1000.0);
         }
 
         public long getTimeSinceLastChange() {
-            return System.currentTimeMillis() - lastStateChange;
+            return clock.now() - lastStateChange;
         }
     }
 
@@ -274,13 +278,16 @@ public class BowShotDetector {
         public Vec3 motion;
         public long spawnTime;
 
-        public ArrowInfo(int entityId, int shooterEntityId, String shooterName, Vec3 position) {
+        private final GameClock clock;
+
+        public ArrowInfo(int entityId, int shooterEntityId, String shooterName, Vec3 position, GameClock clock) {
+            this.clock = clock;
             this.entityId = entityId;
             this.shooterEntityId = shooterEntityId;
             this.shooterName = shooterName;
             this.position = position;
             this.motion = new Vec3(0, 0, 0);
-            this.spawnTime = System.currentTimeMillis();
+            this.spawnTime = clock.now();
         }
 
         /**
@@ -307,7 +314,7 @@ public class BowShotDetector {
          * 获取存活时间（毫秒）
          */
         public long getAge() {
-            return System.currentTimeMillis() - spawnTime;
+            return clock.now() - spawnTime;
         }
     }
 
@@ -428,17 +435,17 @@ public class BowShotDetector {
      * 清理过期的箭矢
      */
     private void cleanupExpiredArrows() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.now();
 
         // 清理过期箭矢
-        arrowMap.entrySet().removeIf(entry -> {
-            boolean expired = currentTime - entry.getValue().spawnTime > ARROW_TIMEOUT;
+        arrowMap.removeIf((arrowId, arrow) -> {
+            boolean expired = currentTime - arrow.spawnTime > ARROW_TIMEOUT;
             if (expired) {
+                trackedArrowIds.remove(arrowId);
                 // 从玩家箭矢列表中移除
-                String shooterName = entry.getValue().shooterName;
-                List<Integer> arrows = playerArrows.get(shooterName);
+                List<Integer> arrows = playerArrows.get(arrow.shooterName);
                 if (arrows != null) {
-                    arrows.remove((Integer) entry.getKey());
+                    arrows.remove((Integer) arrowId);
                 }
             }
             return expired;
@@ -455,50 +462,50 @@ public class BowShotDetector {
         bowByPlayer.clear();
         arrowMap.clear();
         playerArrows.clear();
-        entityIdToPlayerName.clear();
+        trackedArrowIds.clear();
         cleanupCounter = 0;
         MurderHelperMod.logger.info("[BowDetector] Cleared all data");
     }
 
+    // ==================== 事件订阅 ====================
+
     /**
-     * 注册玩家（用于缓存实体ID）
+     * 订阅需要的领域事件
      */
-    public void registerPlayer(String playerName, int entityId) {
-        entityIdToPlayerName.put(entityId, playerName);
+    public void registerEvents(DomainEventBus bus) {
+        bus.channel(EquipmentChanged.class).subscribe(this::onEquipmentChanged);
+        bus.channel(ArrowSpawned.class).subscribe(this::onArrowSpawned);
+        bus.channel(EntityMoved.class).subscribe(this::onEntityMoved);
+        bus.channel(EntityDestroyed.class).subscribe(this::onEntityDestroyed);
     }
 
-    // ==================== 数据包处理 ====================
+    // ==================== 事件和数据包处理 ====================
 
     /**
-     * 处理实体装备数据包
+     * 实体装备变化
      */
-    public void handleEntityEquipment(S04PacketEntityEquipment packet) {
+    private void onEquipmentChanged(EquipmentChanged event) {
         if (!MurderHelperMod.isGameActuallyStarted()) {
             return;
         }
 
         try {
-            int entityId = packet.getEntityID();
-            int equipmentSlot = packet.getEquipmentSlot();
-            ItemStack itemStack = packet.getItemStack();
+            // 只处理玩家的主手装备（slot 0）
+            if (!event.isMainHand() || !event.isPlayer()) return;
 
-            // 只处理主手装备（slot 0）
-            if (equipmentSlot != 0) return;
-
-            String playerName = getPlayerNameByEntityId(entityId);
-            if (playerName == null) return;
+            int entityId = event.getEntityId();
+            String playerName = event.getPlayerName();
 
             BowInfo info = bowByPlayer.computeIfAbsent(playerName,
                     name -> new BowInfo(name, entityId));
             info.playerEntityId = entityId;
 
             // 检查是否是弓
-            ItemClassifier.BowCategory category = ItemClassifier.getBowCategory(itemStack);
-            String registryName = getItemRegistryName(itemStack);
+            ItemClassifier.BowCategory category = event.getBowCategory();
 
             if (category != ItemClassifier.BowCategory.NONE) {
                 // 装备了弓
-                info.updateBow(itemStack, registryName);
+                info.updateBow(event.getItem(), event.getRegistryName());
                 info.setHoldingState(HoldingState.HOLDING);
 
                 //将平民更新为弓箭手
@@ -517,7 +524,7 @@ public class BowShotDetector {
             }
 
         } catch (Exception e) {
-            MurderHelperMod.logger.error("[BowDetector] Error handling EntityEquipment", e);
+            MurderHelperMod.logger.error("[BowDetector] Error handling EquipmentChanged", e);
         }
     }
 
@@ -578,26 +585,15 @@ public class BowShotDetector {
     }
 
     /**
-     * 处理生成对象数据包
-     * 检测箭矢实体生成，记录箭矢位置
+     * 箭矢生成，记录射击和箭矢位置
      */
-    public void handleSpawnObject(S0EPacketSpawnObject packet) {
+    private void onArrowSpawned(ArrowSpawned event) {
         if (!MurderHelperMod.isGameActuallyStarted()) {
             return;
         }
 
         try {
-            int objectType = packet.getType();
-
-            // 60 = 箭矢实体
-            if (objectType != ARROW_ENTITY_TYPE) return;
-
-            int entityId = packet.getEntityID();
-            int shooterEntityId = packet.func_149009_m(); // field_149020_k
-
-            if (shooterEntityId == 0) return;
-
-            String playerName = getPlayerNameByEntityId(shooterEntityId);
+            String playerName = event.getShooterName();
             if (playerName == null) return;
 
             BowInfo info = bowByPlayer.get(playerName);
@@ -607,116 +603,71 @@ public class BowShotDetector {
             info.recordShot();
 
             // 记录箭矢
-            Vec3 position = new Vec3(
-                    packet.getX() / 32.0,
-                    packet.getY() / 32.0,
-                    packet.getZ() / 32.0
-            );
+            int entityId = event.getEntityId();
+            Vec3 position = new Vec3(event.getX(), event.getY(), event.getZ());
 
-            ArrowInfo arrow = new ArrowInfo(entityId, shooterEntityId, playerName, position);
+            ArrowInfo arrow = new ArrowInfo(entityId, event.getShooterEntityId(), playerName, position, clock);
 
             // 保存初始速度
-            arrow.motion = new Vec3(
-                    packet.getSpeedX() / 8000.0,
-                    packet.getSpeedY() / 8000.0,
-                    packet.getSpeedZ() / 8000.0
-            );
+            arrow.motion = new Vec3(event.getMotionX(), event.getMotionY(), event.getMotionZ());
 
             arrowMap.put(entityId, arrow);
+            trackedArrowIds.add(entityId);
 
             // 添加到玩家的箭矢列表
             playerArrows.computeIfAbsent(playerName, k -> new ArrayList<>()).add(entityId);
 
-            MurderHelperMod.logger.info("[BowDetector] {} shot arrow #{} at {}",
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.BOW, "{} shot arrow #{} at {}",
                     playerName, entityId, position);
 
         } catch (Exception e) {
-            MurderHelperMod.logger.error("[BowDetector] Error handling SpawnObject", e);
+            MurderHelperMod.logger.error("[BowDetector] Error handling ArrowSpawned", e);
         }
     }
 
     /**
-     * 处理实体相对移动数据包
-     * 更新箭矢位置
+     * 实体移动，更新箭矢位置
      */
-    public void handleEntityRelMove(S14PacketEntity.S15PacketEntityRelMove packet) {
+    private void onEntityMoved(EntityMoved event) {
         if (!MurderHelperMod.isGameActuallyStarted()) {
             return;
         }
 
-        try {
-            Entity entity = packet.getEntity(mc.theWorld);
-            if (entity == null) return;
-
-            int entityId = entity.getEntityId();
-            ArrowInfo arrow = arrowMap.get(entityId);
-
-            if (arrow != null && arrow.position != null) {
-                // 更新箭矢位置（相对移动，除以4096）
-                arrow.position = arrow.position.addVector(
-                        packet.func_149062_c() / 4096.0,
-                        packet.func_149061_d() / 4096.0,
-                        packet.func_149064_e() / 4096.0
-                );
-            }
-        } catch (Exception e) {
-            MurderHelperMod.logger.error("[BowDetector] Error handling EntityRelMove", e);
-        }
-    }
-
-    /**
-     * 处理实体传送数据包
-     * 更新箭矢位置
-     */
-    public void handleEntityTeleport(S18PacketEntityTeleport packet) {
-        if (!MurderHelperMod.isGameActuallyStarted()) {
+        ArrowInfo arrow = arrowMap.get(event.getEntityId());
+        if (arrow == null || arrow.position == null) {
             return;
         }
 
-        try {
-            int entityId = packet.getEntityId();
-            ArrowInfo arrow = arrowMap.get(entityId);
-
-            if (arrow != null) {
-                Vec3 newPos = new Vec3(
-                        packet.getX() / 32.0,
-                        packet.getY() / 32.0,
-                        packet.getZ() / 32.0
-                );
-                arrow.position = newPos;
-                MurderHelperMod.logger.debug("[BowDetector] Arrow {} teleported to {}",
-                        entityId, newPos);
-            }
-        } catch (Exception e) {
-            MurderHelperMod.logger.error("[BowDetector] Error handling EntityTeleport", e);
+        Vec3 position = arrow.position;
+        arrow.position = new Vec3(
+                event.resolveX(position.xCoord),
+                event.resolveY(position.yCoord),
+                event.resolveZ(position.zCoord)
+        );
+        if (!event.isRelative()) {
+            MurderHelperMod.detectorLog.debug(DetectorEventLog.Category.ARROW, "Arrow {} teleported to {}",
+                    event.getEntityId(), arrow.position);
         }
     }
 
     /**
-     * 处理实体销毁数据包
+     * 实体销毁，移除箭矢
      */
-    public void handleDestroyEntities(S13PacketDestroyEntities packet) {
+    private void onEntityDestroyed(EntityDestroyed event) {
         if (!MurderHelperMod.isGameActuallyStarted()) {
             return;
         }
 
-        try {
-            int[] entityIds = packet.getEntityIDs();
-            if (entityIds != null) {
-                for (int entityId : entityIds) {
-                    ArrowInfo removed = arrowMap.remove(entityId);
-                    if (removed != null) {
-                        // 从玩家箭矢列表中移除
-                        List<Integer> arrows = playerArrows.get(removed.shooterName);
-                        if (arrows != null) {
-                            arrows.remove((Integer) entityId);
-                        }
-                        MurderHelperMod.logger.debug("[BowDetector] Arrow {} destroyed", entityId);
-                    }
-                }
+        int entityId = event.getEntityId();
+        ArrowInfo removed = arrowMap.remove(entityId);
+        trackedArrowIds.remove(entityId);
+        if (removed != null) {
+            // 从玩家箭矢列表中移除
+            List<Integer> arrows = playerArrows.get(removed.shooterName);
+            if (arrows != null) {
+                arrows.remove((Integer) entityId);
             }
-        } catch (Exception e) {
-            MurderHelperMod.logger.error("[BowDetector] Error handling DestroyEntities", e);
+            MurderHelperMod.detectorLog.debug(DetectorEventLog.Category.ARROW, "Arrow {} destroyed", entityId);
         }
     }
 
@@ -726,19 +677,7 @@ public class BowShotDetector {
      * 通过实体ID获取玩家名（带缓存）
      */
     private String getPlayerNameByEntityId(int entityId) {
-        String cached = entityIdToPlayerName.get(entityId);
-        if (cached != null) {
-            return cached;
-        }
-
-        EntityPlayer player = getPlayerByEntityId(entityId);
-        if (player != null) {
-            String name = player.getName();
-            entityIdToPlayerName.put(entityId, name);
-            return name;
-        }
-
-        return null;
+        return MurderHelperMod.entityRegistry.getPlayerName(entityId);
     }
 
     /**
@@ -748,24 +687,11 @@ public class BowShotDetector {
         if (mc == null || mc.theWorld == null) return null;
 
         try {
-            Entity entity = mc.theWorld.getEntityByID(entityId);
-            return entity instanceof EntityPlayer ? (EntityPlayer) entity : null;
+            return MurderHelperMod.entityRegistry.getPlayerEntity(entityId);
         } catch (Exception e) {
             MurderHelperMod.logger.error("[BowDetector] Error getting player by entity ID", e);
             return null;
         }
     }
 
-    /**
-     * 获取物品的注册名
-     */
-    private String getItemRegistryName(ItemStack itemStack) {
-        if (itemStack == null || itemStack.getItem() == null) {
-            return null;
-        }
-
-        Item item = itemStack.getItem();
-        ResourceLocation registryName = Item.itemRegistry.getNameForObject(item);
-        return registryName != null ? registryName.toString() : null;
-    }
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package me.dev7125.murderhelper.game;
 
 import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.core.event.*;
+import me.dev7125.murderhelper.core.listener.EntityInterestFilter;
+import me.dev7125.murderhelper.util.ConcurrentIntSet;
+import me.dev7125.murderhelper.util.IntObjectMap;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.DataWatcher;
 import net.minecraft.entity.player.EntityPlayer;
@@ -21,6 +25,7 @@ import java.util.*;
 public class CorpseDetector {
 
     private final Logger logger;
+    private final GameClock clock;
 
     // 尸体信息
     public static class CorpseInfo {
@@ -30,10 +35,10 @@ public class CorpseDetector {
         public final CorpseType type;
         public final String playerName; // 添加玩家名字
 
-        public CorpseInfo(int entityId, Vec3 position, CorpseType type, String playerName) {
+        public CorpseInfo(int entityId, Vec3 position, CorpseType type, String playerName, long timestamp) {
             this.entityId = entityId;
             this.position = position;
-            this.timestamp = System.currentTimeMillis();
+            this.timestamp = timestamp;
             this.type = type;
             this.playerName = playerName;
         }
@@ -58,16 +63,29 @@ public class CorpseDetector {
     }
 
     // 已检测到的尸体（entityId -> CorpseInfo）
-    private final Map<Integer, CorpseInfo> detectedCorpses = new HashMap<>();
+    private final IntObjectMap<CorpseInfo> detectedCorpses = new IntObjectMap<>();
 
     // 等待确认的盔甲架（entityId -> PendingArmorStand）
-    private final Map<Integer, PendingArmorStand> pendingArmorStands = new HashMap<>();
+    private final IntObjectMap<PendingArmorStand> pendingArmorStands = new IntObjectMap<>();
+
+    // 待确认的实体ID，供Netty线程过滤元数据数据包
+    private final ConcurrentIntSet pendingEntityIds = EntityInterestFilter.createInterest();
 
     // 已确认的飞刀盔甲架ID（用于排除）
     private final Set<Integer> confirmedKnifeStands = new HashSet<>();
 
-    public CorpseDetector(Logger logger) {
+    public CorpseDetector(Logger logger, GameClock clock) {
         this.logger = logger;
+        this.clock = clock;
+    }
+
+    /**
+     * 订阅需要的领域事件（玩家生成、躺床和元数据仍按数据包处理）
+     */
+    public void registerEvents(DomainEventBus bus) {
+        bus.channel(ArmorStandSpawned.class).subscribe(this::onArmorStandSpawned);
+        bus.channel(EquipmentChanged.class).subscribe(this::onEquipmentChanged);
+        bus.channel(EntityDestroyed.class).subscribe(this::onEntityDestroyed);
     }
 
     // ==================== 玩家实体尸体检测 ====================
@@ -90,6 +108,7 @@ public class CorpseDetector {
         PendingArmorStand pending = new PendingArmorStand();
         pending.position = position;
         pendingArmorStands.put(entityId, pending);
+        pendingEntityIds.add(entityId);
     }
 
     /**
@@ -101,6 +120,7 @@ public class CorpseDetector {
 
         // 从临时记录中获取玩家位置
         PendingArmorStand pending = pendingArmorStands.remove(entityId);
+        pendingEntityIds.remove(entityId);
         if (pending == null || pending.position == null) {
             return;
         }
@@ -116,7 +136,7 @@ public class CorpseDetector {
         }
 
         // 确认为玩家实体尸体
-        CorpseInfo corpse = new CorpseInfo(entityId, pending.position, CorpseType.PLAYER_ENTITY, playerName);
+        CorpseInfo corpse = new CorpseInfo(entityId, pending.position, CorpseType.PLAYER_ENTITY, playerName, clock.now());
         detectedCorpses.put(entityId, corpse);
 
         // 从真实玩家列表中移除该玩家（如果有名字）
@@ -132,36 +152,26 @@ public class CorpseDetector {
     // ==================== 盔甲架尸体检测 ====================
 
     /**
-     * 监听生成对象数据包（盔甲架）
+     * 盔甲架生成
      */
-    public void handleSpawnObject(S0EPacketSpawnObject packet) {
-        int type = packet.getType();
-
-        // 只处理盔甲架（type=78）
-        if (type != 78) {
-            return;
-        }
-
-        int entityId = packet.getEntityID();
+    private void onArmorStandSpawned(ArmorStandSpawned event) {
+        int entityId = event.getEntityId();
 
         // 记录盔甲架位置
-        double x = packet.getX() / 32.0;
-        double y = packet.getY() / 32.0;
-        double z = packet.getZ() / 32.0;
-
         PendingArmorStand pending = new PendingArmorStand();
-        pending.position = new Vec3(x, y, z);
+        pending.position = new Vec3(event.getX(), event.getY(), event.getZ());
 
         pendingArmorStands.put(entityId, pending);
+        pendingEntityIds.add(entityId);
     }
 
     /**
-     * 监听实体装备数据包
+     * 实体装备变化
      */
-    public void handleEntityEquipment(S04PacketEntityEquipment packet) {
-        int entityId = packet.getEntityID();
-        int slot = packet.getEquipmentSlot();
-        ItemStack itemStack = packet.getItemStack();
+    private void onEquipmentChanged(EquipmentChanged event) {
+        int entityId = event.getEntityId();
+        int slot = event.getSlot();
+        ItemStack itemStack = event.getItem();
 
         PendingArmorStand pending = pendingArmorStands.get(entityId);
         if (pending == null) {
@@ -169,7 +179,7 @@ public class CorpseDetector {
         }
 
         // 槽位4 = 头盔 → 可能是尸体
-        if (slot == 4) {
+        if (slot == EquipmentChanged.SLOT_HELMET) {
             pending.hasHeadSlot = true;
 
             // 尝试从玩家头颅中提取玩家名字
@@ -184,9 +194,10 @@ public class CorpseDetector {
         }
 
         // 槽位0 = 主手 → 是飞刀，排除
-        if (slot == 0) {
+        if (slot == EquipmentChanged.SLOT_MAIN_HAND) {
             confirmedKnifeStands.add(entityId);
             pendingArmorStands.remove(entityId);
+            pendingEntityIds.remove(entityId);
         }
     }
 
@@ -275,9 +286,11 @@ public class CorpseDetector {
 
         // 检查是否满足尸体条件
         if (pending.isCorpse()) {
-            CorpseInfo corpse = new CorpseInfo(entityId, pending.position, CorpseType.ARMOR_STAND, pending.playerName);
+            CorpseInfo corpse = new CorpseInfo(entityId, pending.position, CorpseType.ARMOR_STAND, pending.playerName,
+                    clock.now());
             detectedCorpses.put(entityId, corpse);
             pendingArmorStands.remove(entityId);
+            pendingEntityIds.remove(entityId);
 
             // 从真实玩家列表中移除该玩家（如果有名字）
             if (pending.playerName != null) {
@@ -291,17 +304,18 @@ public class CorpseDetector {
     }
 
     /**
-     * 监听实体销毁数据包
+     * 实体销毁
      */
-    public void handleDestroyEntities(S13PacketDestroyEntities packet) {
-        for (int entityId : packet.getEntityIDs()) {
-            // 移除尸体记录
-            detectedCorpses.remove(entityId);
+    private void onEntityDestroyed(EntityDestroyed event) {
+        int entityId = event.getEntityId();
 
-            // 移除临时记录
-            pendingArmorStands.remove(entityId);
-            confirmedKnifeStands.remove(entityId);
-        }
+        // 移除尸体记录
+        detectedCorpses.remove(entityId);
+
+        // 移除临时记录
+        pendingArmorStands.remove(entityId);
+        pendingEntityIds.remove(entityId);
+        confirmedKnifeStands.remove(entityId);
     }
 
     // ==================== 查询接口 ====================
@@ -317,7 +331,7 @@ public class CorpseDetector {
      * 获取最近的尸体（5秒内）
      */
     public Collection<CorpseInfo> getRecentCorpses(long timeWindowMs) {
-        long now = System.currentTimeMillis();
+        long now = clock.now();
         List<CorpseInfo> recent = new ArrayList<>();
 
         for (CorpseInfo corpse : detectedCorpses.values()) {
@@ -333,9 +347,9 @@ public class CorpseDetector {
      * 清理过期的尸体记录（超过指定时间）
      */
     public void cleanupOldCorpses(long maxAgeMs) {
-        long now = System.currentTimeMillis();
-        detectedCorpses.entrySet().removeIf(entry ->
-                now - entry.getValue().timestamp > maxAgeMs
+        long now = clock.now();
+        detectedCorpses.removeIf((entityId, corpse) ->
+                now - corpse.timestamp > maxAgeMs
         );
     }
 
@@ -345,6 +359,7 @@ public class CorpseDetector {
     public void reset() {
         detectedCorpses.clear();
         pendingArmorStands.clear();
+        pendingEntityIds.clear();
         confirmedKnifeStands.clear();
     }
 
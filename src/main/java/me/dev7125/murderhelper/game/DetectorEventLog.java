@@ -0,0 +1,411 @@
+package me.dev7125.murderhelper.game;
+
+import me.dev7125.murderhelper.MurderHelperMod;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 检测器事件日志
+ * 检测器在数据包处理热路径上的逐事件日志（持刀、飞刀、射箭、弓掉落等）不再直接调用log4j：
+ * 客户端线程只做采样和限流判断，再把格式串和参数引用写入预分配的单生产者/单消费者无锁环，
+ * 格式化和输出由后台线程完成（Double/Float 参数由后台线程按一位小数格式化，调用方直接传原始数值）。
+ * 每个分类每秒最多输出 detectorLogRateLimit 条，被限流的条数由每tick调用的 tick() 在下一秒开始时汇总为一条，
+ * 日志量不再随数据包速率增长
+ *
+ * 输出模式（配置 detectorLogMode）：0=关闭，1=文本（写入log4j），2=紧凑（单独写入 logs/detector-*.log，每条一行，不进入latest.log）
+ * 生产者只能是客户端主线程；环写满时丢弃新事件并计数，不会阻塞主线程
+ */
+public class DetectorEventLog {
+
+    /**
+     * 事件分类（sampleEvery: 每N条记录一条）
+     */
+    public enum Category {
+        WEAPON("WeaponDetector", 'W', 1),
+        BOW("BowDetector", 'B', 1),
+        ARROW("BowDetector", 'A', 4),
+        BOW_DROP("BowDropDetector", 'D', 1);
+
+        private final String prefix;
+        private final char code;
+        private final int sampleEvery;
+
+        Category(String name, char code, int sampleEvery) {
+            this.prefix = "[" + name + "] ";
+            this.code = code;
+            this.sampleEvery = sampleEvery;
+        }
+    }
+
+    public static final int MODE_OFF = 0;
+    public static final int MODE_TEXT = 1;
+    public static final int MODE_COMPACT = 2;
+
+    private static final int RING_CAPACITY = 4096;
+    private static final int MAX_ARGS = 4;
+
+    // 输出线程空闲时的等待时间
+    private static final long IDLE_PARK_NANOS = 10_000_000L;
+
+    private static final String SUPPRESSED_FORMAT = "{} events rate-limited in the last second";
+
+    private final Logger logger;
+    private final GameClock clock;
+
+    // ==================== 事件环 ====================
+
+    private final long[] times = new long[RING_CAPACITY];
+    private final Category[] categories = new Category[RING_CAPACITY];
+    private final boolean[] debugLevels = new boolean[RING_CAPACITY];
+    private final String[] formats = new String[RING_CAPACITY];
+    private final Object[] args = new Object[RING_CAPACITY * MAX_ARGS];
+
+    // head由输出线程推进，tail由主线程推进（lazySet发布）
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    // ==================== 采样和限流（只在主线程访问） ====================
+
+    private final long[] sampleCounters = new long[Category.values().length];
+    private final int[] windowCounts = new int[Category.values().length];
+    private final int[] suppressedCounts = new int[Category.values().length];
+    private long windowSecond = Long.MIN_VALUE;
+
+    // ==================== 输出线程 ====================
+
+    private File outputDirectory;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    // 紧凑模式的输出文件（只在输出线程访问）
+    private Writer compactWriter;
+    private final StringBuilder line = new StringBuilder(256);
+
+    public DetectorEventLog(Logger logger, GameClock clock) {
+        this.logger = logger;
+        this.clock = clock;
+    }
+
+    /**
+     * 启动输出线程
+     * @param outputDirectory 紧凑模式的日志目录，为null时紧凑模式退化为文本模式
+     */
+    public synchronized void start(File outputDirectory) {
+        if (running) {
+            return;
+        }
+
+        this.outputDirectory = outputDirectory;
+        running = true;
+        writerThread = new Thread(this::runWriter, "MurderHelper-DetectorLog");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 停止输出线程（输出剩余事件后退出）
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    // ==================== 记录（主线程） ====================
+
+    public void info(Category category, String format) {
+        log(category, false, format, null, null, null, null);
+    }
+
+    public void info(Category category, String format, Object arg0) {
+        log(category, false, format, arg0, null, null, null);
+    }
+
+    public void info(Category category, String format, Object arg0, Object arg1) {
+        log(category, false, format, arg0, arg1, null, null);
+    }
+
+    public void info(Category category, String format, Object arg0, Object arg1, Object arg2) {
+        log(category, false, format, arg0, arg1, arg2, null);
+    }
+
+    public void info(Category category, String format, Object arg0, Object arg1, Object arg2, Object arg3) {
+        log(category, false, format, arg0, arg1, arg2, arg3);
+    }
+
+    public void debug(Category category, String format, Object arg0) {
+        if (logger.isDebugEnabled()) {
+            log(category, true, format, arg0, null, null, null);
+        }
+    }
+
+    public void debug(Category category, String format, Object arg0, Object arg1) {
+        if (logger.isDebugEnabled()) {
+            log(category, true, format, arg0, arg1, null, null);
+        }
+    }
+
+    public void debug(Category category, String format, Object arg0, Object arg1, Object arg2) {
+        if (logger.isDebugEnabled()) {
+            log(category, true, format, arg0, arg1, arg2, null);
+        }
+    }
+
+    private void log(Category category, boolean debug, String format,
+                     Object arg0, Object arg1, Object arg2, Object arg3) {
+        if (MurderHelperMod.config.detectorLogMode == MODE_OFF) {
+            return;
+        }
+
+        int index = category.ordinal();
+        if (sampleCounters[index]++ % category.sampleEvery != 0) {
+            return;
+        }
+
+        long now = clock.now();
+        rollWindow(now);
+
+        int limit = MurderHelperMod.config.detectorLogRateLimit;
+        if (limit > 0 && windowCounts[index] >= limit) {
+            suppressedCounts[index]++;
+            return;
+        }
+        windowCounts[index]++;
+
+        offer(now, category, debug, format, arg0, arg1, arg2, arg3);
+    }
+
+    /**
+     * 每tick调用（主线程），没有新事件时也能及时输出上一秒的限流汇总
+     */
+    public void tick() {
+        if (MurderHelperMod.config.detectorLogMode == MODE_OFF) {
+            return;
+        }
+        rollWindow(clock.now());
+    }
+
+    /**
+     * 进入新的一秒时清零计数，并把上一秒被限流的条数作为汇总事件写入
+     */
+    private void rollWindow(long now) {
+        long second = now / 1000;
+        if (second == windowSecond) {
+            return;
+        }
+        windowSecond = second;
+
+        for (Category category : Category.values()) {
+            int index = category.ordinal();
+            windowCounts[index] = 0;
+            if (suppressedCounts[index] > 0) {
+                offer(now, category, false, SUPPRESSED_FORMAT, suppressedCounts[index], null, null, null);
+                suppressedCounts[index] = 0;
+            }
+        }
+    }
+
+    private void offer(long now, Category category, boolean debug, String format,
+                       Object arg0, Object arg1, Object arg2, Object arg3) {
+        long position = tail.get();
+        if (position - head.get() >= RING_CAPACITY) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+
+        int index = (int) (position & (RING_CAPACITY - 1));
+        times[index] = now;
+        categories[index] = category;
+        debugLevels[index] = debug;
+        formats[index] = format;
+        int base = index * MAX_ARGS;
+        args[base] = arg0;
+        args[base + 1] = arg1;
+        args[base + 2] = arg2;
+        args[base + 3] = arg3;
+
+        // 发布：上面的写入对读到新tail的输出线程可见
+        tail.lazySet(position + 1);
+    }
+
+    // ==================== 输出线程 ====================
+
+    private void runWriter() {
+        long lastDropped = 0;
+
+        while (true) {
+            // 先读running再排空，保证停止前记录的事件都能输出
+            boolean stillRunning = running;
+            int count = drain();
+
+            long dropped = droppedCount.get();
+            if (dropped != lastDropped) {
+                logger.warn("[DetectorLog] Event ring full, {} events dropped", dropped - lastDropped);
+                lastDropped = dropped;
+            }
+
+            if (count == 0) {
+                flushCompact();
+                if (!stillRunning) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+
+        closeCompact();
+    }
+
+    /**
+     * 输出环中的全部事件
+     */
+    private int drain() {
+        long position = head.get();
+        long end = tail.get();
+        int mode = MurderHelperMod.config.detectorLogMode;
+
+        for (long i = position; i < end; i++) {
+            int index = (int) (i & (RING_CAPACITY - 1));
+            int base = index * MAX_ARGS;
+            formatDecimals(base);
+
+            if (mode == MODE_COMPACT && openCompact()) {
+                writeCompact(times[index], categories[index], formats[index], base);
+            } else if (mode != MODE_OFF) {
+                String format = categories[index].prefix + formats[index];
+                if (debugLevels[index]) {
+                    logger.debug(format, args[base], args[base + 1], args[base + 2], args[base + 3]);
+                } else {
+                    logger.info(format, args[base], args[base + 1], args[base + 2], args[base + 3]);
+                }
+            }
+
+            categories[index] = null;
+            formats[index] = null;
+            args[base] = null;
+            args[base + 1] = null;
+            args[base + 2] = null;
+            args[base + 3] = null;
+        }
+
+        head.lazySet(end);
+        return (int) (end - position);
+    }
+
+    /**
+     * 把小数参数格式化为一位小数（输出线程）
+     */
+    private void formatDecimals(int argBase) {
+        for (int j = 0; j < MAX_ARGS; j++) {
+            Object arg = args[argBase + j];
+            if (arg instanceof Double || arg instanceof Float) {
+                args[argBase + j] = String.format("%.1f", ((Number) arg).doubleValue());
+            }
+        }
+    }
+
+    // ==================== 紧凑模式 ====================
+
+    /**
+     * 打开紧凑模式的输出文件（失败时回退到文本模式）
+     */
+    private boolean openCompact() {
+        if (compactWriter != null) {
+            return true;
+        }
+        if (outputDirectory == null) {
+            return false;
+        }
+
+        if (!outputDirectory.exists() && !outputDirectory.mkdirs()) {
+            logger.error("[DetectorLog] Cannot create log directory {}", outputDirectory);
+            outputDirectory = null;
+            return false;
+        }
+
+        File file = new File(outputDirectory,
+                "detector-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".log");
+        try {
+            compactWriter = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+            logger.info("[DetectorLog] Writing compact detector log to {}", file);
+            return true;
+        } catch (IOException e) {
+            logger.error("[DetectorLog] Failed to open {}", file, e);
+            outputDirectory = null;
+            return false;
+        }
+    }
+
+    /**
+     * 每条一行：时间(毫秒) 分类代码 消息
+     */
+    private void writeCompact(long time, Category category, String format, int argBase) {
+        line.setLength(0);
+        line.append(time).append(' ').append(category.code).append(' ');
+
+        int next = 0;
+        int from = 0;
+        int at;
+        while ((at = format.indexOf("{}", from)) >= 0 && next < MAX_ARGS) {
+            line.append(format, from, at).append(args[argBase + next++]);
+            from = at + 2;
+        }
+        line.append(format, from, format.length()).append('\n');
+
+        try {
+            compactWriter.append(line);
+        } catch (IOException e) {
+            logger.error("[DetectorLog] Failed to write compact log", e);
+            closeCompact();
+            outputDirectory = null;
+        }
+    }
+
+    private void flushCompact() {
+        if (compactWriter == null) {
+            return;
+        }
+        try {
+            compactWriter.flush();
+        } catch (IOException e) {
+            logger.error("[DetectorLog] Failed to flush compact log", e);
+        }
+    }
+
+    private void closeCompact() {
+        if (compactWriter == null) {
+            return;
+        }
+        try {
+            compactWriter.close();
+        } catch (IOException ignored) {
+        }
+        compactWriter = null;
+    }
+}
@@ -0,0 +1,235 @@
+package me.dev7125.murderhelper.game;
+
+import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.util.IntObjectMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.network.play.server.S0CPacketSpawnPlayer;
+import net.minecraft.network.play.server.S13PacketDestroyEntities;
+import net.minecraft.network.play.server.S38PacketPlayerListItem;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * 实体注册表
+ * 统一维护玩家实体ID、UUID和玩家名之间的映射，供各检测器共享，避免各自缓存和遍历世界玩家列表
+ * 数据来源：
+ * - S38 Tab列表：UUID -> 玩家名
+ * - S0C 玩家生成：实体ID -> UUID
+ * - S13 实体销毁：移除实体ID
+ * 只在客户端主线程访问
+ */
+public class EntityRegistry {
+
+    // Tab列表 UUID -> 玩家名
+    private final Map<UUID, String> nameByUuid = new HashMap<>();
+
+    // 实体ID -> UUID（来自玩家生成数据包）
+    private final IntObjectMap<UUID> uuidByEntityId = new IntObjectMap<>();
+
+    // 实体ID -> 玩家名
+    private final IntObjectMap<String> nameByEntityId = new IntObjectMap<>();
+
+    // 玩家名 -> 实体ID
+    private final Map<String, Integer> entityIdByName = new HashMap<>();
+
+    // 玩家离开Tab列表时的回调（参数为玩家名）
+    private Consumer<String> tabRemovalListener;
+
+    // ==================== 数据包处理 ====================
+
+    /**
+     * 处理Tab列表数据包
+     */
+    public void handlePlayerListItem(S38PacketPlayerListItem packet) {
+        S38PacketPlayerListItem.Action action = packet.func_179768_b();
+
+        for (S38PacketPlayerListItem.AddPlayerData data : packet.func_179767_a()) {
+            if (data.getProfile() == null || data.getProfile().getId() == null) {
+                continue;
+            }
+            UUID uuid = data.getProfile().getId();
+
+            if (action == S38PacketPlayerListItem.Action.ADD_PLAYER) {
+                String name = data.getProfile().getName();
+                if (name == null) {
+                    continue;
+                }
+                nameByUuid.put(uuid, name);
+                bindPendingEntity(uuid, name);
+            } else if (action == S38PacketPlayerListItem.Action.REMOVE_PLAYER) {
+                // 只移除Tab名字，实体映射在实体销毁时移除
+                String name = nameByUuid.remove(uuid);
+                if (name != null && tabRemovalListener != null) {
+                    tabRemovalListener.accept(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * 处理玩家生成数据包
+     */
+    public void handleSpawnPlayer(S0CPacketSpawnPlayer packet) {
+        int entityId = packet.getEntityID();
+        UUID uuid = packet.getPlayer();
+        if (uuid == null) {
+            return;
+        }
+
+        uuidByEntityId.put(entityId, uuid);
+        String name = nameByUuid.get(uuid);
+        if (name != null) {
+            bind(entityId, name);
+        }
+    }
+
+    /**
+     * 处理实体销毁数据包
+     */
+    public void handleDestroyEntities(S13PacketDestroyEntities packet) {
+        for (int entityId : packet.getEntityIDs()) {
+            uuidByEntityId.remove(entityId);
+            String name = nameByEntityId.remove(entityId);
+            if (name != null) {
+                Integer boundId = entityIdByName.get(name);
+                if (boundId != null && boundId == entityId) {
+                    entityIdByName.remove(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tab列表晚于玩家生成到达时，补上已生成实体的名字
+     */
+    private void bindPendingEntity(UUID uuid, String name) {
+        if (uuidByEntityId.isEmpty()) {
+            return;
+        }
+        int[] found = {Integer.MIN_VALUE};
+        uuidByEntityId.forEach((entityId, entityUuid) -> {
+            if (uuid.equals(entityUuid)) {
+                found[0] = entityId;
+            }
+        });
+        if (found[0] != Integer.MIN_VALUE) {
+            bind(found[0], name);
+        }
+    }
+
+    private void bind(int entityId, String name) {
+        String previous = nameByEntityId.put(entityId, name);
+        if (previous != null && !previous.equals(name)) {
+            entityIdByName.remove(previous);
+        }
+        entityIdByName.put(name, entityId);
+    }
+
+    // ==================== 查询接口 ====================
+
+    /**
+     * 通过实体ID获取玩家名
+     * 未登记的实体（例如本地玩家、注册表建立前已生成的玩家）回退到世界查询并登记
+     */
+    public String getPlayerName(int entityId) {
+        String name = nameByEntityId.get(entityId);
+        if (name != null) {
+            return name;
+        }
+
+        EntityPlayer player = getPlayerEntity(entityId);
+        if (player != null) {
+            name = player.getName();
+            bind(entityId, name);
+            return name;
+        }
+
+        return null;
+    }
+
+    /**
+     * 通过实体ID获取玩家实体（世界的实体ID索引，O(1)）
+     */
+    public EntityPlayer getPlayerEntity(int entityId) {
+        if (MurderHelperMod.mc == null || MurderHelperMod.mc.theWorld == null) {
+            return null;
+        }
+
+        Entity entity = MurderHelperMod.mc.theWorld.getEntityByID(entityId);
+        return entity instanceof EntityPlayer ? (EntityPlayer) entity : null;
+    }
+
+    /**
+     * 通过玩家名获取玩家实体
+     */
+    public EntityPlayer getPlayerByName(String playerName) {
+        if (playerName == null) {
+            return null;
+        }
+
+        Integer entityId = entityIdByName.get(playerName);
+        if (entityId != null) {
+            EntityPlayer player = getPlayerEntity(entityId);
+            if (player != null && playerName.equals(player.getName())) {
+                return player;
+            }
+        }
+
+        // 未登记或映射已过期，回退到遍历一次并登记
+        if (MurderHelperMod.mc == null || MurderHelperMod.mc.theWorld == null) {
+            return null;
+        }
+        for (EntityPlayer player : MurderHelperMod.mc.theWorld.playerEntities) {
+            if (player != null && playerName.equals(player.getName())) {
+                bind(player.getEntityId(), playerName);
+                return player;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 通过实体ID获取玩家UUID（来自玩家生成数据包）
+     */
+    public UUID getPlayerUuid(int entityId) {
+        return uuidByEntityId.get(entityId);
+    }
+
+    /**
+     * 当前Tab列表中的玩家名（只读视图）
+     */
+    public Collection<String> getTabNames() {
+        return Collections.unmodifiableCollection(nameByUuid.values());
+    }
+
+    /**
+     * 设置玩家离开Tab列表时的回调
+     */
+    public void setTabRemovalListener(Consumer<String> listener) {
+        this.tabRemovalListener = listener;
+    }
+
+    /**
+     * 清除实体映射（换世界时调用，Tab列表由服务器单独维护）
+     */
+    public void clearEntities() {
+        uuidByEntityId.clear();
+        nameByEntityId.clear();
+        entityIdByName.clear();
+    }
+
+    /**
+     * 清除所有数据（断开连接时调用）
+     */
+    public void clear() {
+        clearEntities();
+        nameByUuid.clear();
+    }
+}
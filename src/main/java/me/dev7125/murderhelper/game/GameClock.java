@@ -0,0 +1,42 @@
+package me.dev7125.murderhelper.game;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 游戏时钟
+ * 每tick采样两次时间源：tick开始处理数据包批次之前，tick结束执行检测逻辑之前。
+ * 检测器统一读取采样值，同一批次内的所有判定使用同一时刻，热路径上不再反复调用 System.currentTimeMillis()
+ *
+ * 默认时间源为系统时间；回放和加速模拟时注入录制时间，使检测器的时间窗口与录制时一致
+ * 只在客户端主线程采样和读取
+ */
+public class GameClock {
+
+    private final LongSupplier source;
+
+    // 最近一次采样的时间（毫秒）
+    private long now;
+
+    public GameClock() {
+        this(System::currentTimeMillis);
+    }
+
+    public GameClock(LongSupplier source) {
+        this.source = source;
+        this.now = source.getAsLong();
+    }
+
+    /**
+     * 采样时间源（由MurderHelperMod.onClientTick调用）
+     */
+    public void sample() {
+        now = source.getAsLong();
+    }
+
+    /**
+     * 最近一次采样的时间（毫秒）
+     */
+    public long now() {
+        return now;
+    }
+}
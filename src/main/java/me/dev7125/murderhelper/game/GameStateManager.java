@@ -2,26 +2,30 @@ package me.dev7125.murderhelper.game;
 
 import me.dev7125.murderhelper.MurderHelperMod;
 import me.dev7125.murderhelper.util.GameConstants;
-import net.minecraft.client.network.NetworkPlayerInfo;
 import net.minecraft.entity.player.EntityPlayer;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * 游戏状态管理器（简化版 - 数据包驱动）
+ * 游戏开始时以 EntityRegistry 的Tab列表作为真实玩家集合，游戏中离开Tab列表的玩家（EntityRegistry回调）随即移出；
+ * isRealPlayer 每帧按实体调用，只做一次集合查找
  */
 public class GameStateManager {
 
     private final Logger logger;
+    private final GameClock clock;
+    private final EntityRegistry entityRegistry;
 
-    // 真实玩家列表（从S3EPacketTeams中记录，用于过滤NPC）
+    // 真实玩家列表（游戏开始时的Tab列表，用于过滤NPC）
     private final Set<String> realPlayers = new HashSet<>();
 
+    // 真实玩家列表的版本号，每次变化递增
+    private long realPlayersVersion = 0;
+
     // ========== 游戏状态 ==========
     private GameState currentState = GameState.IDLE;
     private long gameStartTime = 0;
@@ -44,8 +48,11 @@ public class GameStateManager {
         PLAYING         // 游戏进行中
     }
 
-    public GameStateManager(Logger logger) {
+    public GameStateManager(Logger logger, GameClock clock, EntityRegistry entityRegistry) {
         this.logger = logger;
+        this.clock = clock;
+        this.entityRegistry = entityRegistry;
+        entityRegistry.setTabRemovalListener(this::onPlayerLeftTab);
     }
 
     // ==================== 数据包事件回调 ====================
@@ -60,18 +67,15 @@ public class GameStateManager {
             return;
         }
 
-        Collection<NetworkPlayerInfo> playerInfoList = MurderHelperMod.mc.getNetHandler().getPlayerInfoMap();
-        List<String> currentGamePlayers = playerInfoList.stream().map(info -> info.getGameProfile().getName()).distinct().collect(Collectors.toList());
-
-        addRealPlayers(currentGamePlayers);
+        addRealPlayers(entityRegistry.getTabNames());
 
         currentState = GameState.PLAYING;
-        gameStartTime = System.currentTimeMillis();
+        gameStartTime = clock.now();
         roleCheckEnabled = true;
         roleCheckDelayTicks = GameConstants.GAME_START_ROLE_CHECK_DELAY_TICKS;
 
         // 锁定状态，防止后续的 PREPARING 数据包干扰
-        stateLockedUntil = System.currentTimeMillis() + STATE_LOCK_DURATION;
+        stateLockedUntil = gameStartTime + STATE_LOCK_DURATION;
 
         logger.info("=== GAME STARTED ===");
     }
@@ -108,6 +112,18 @@ public class GameStateManager {
         logger.info("=== GAME DATA RESET ===");
     }
 
+    /**
+     * 玩家离开Tab列表（EntityRegistry处理S38时回调）
+     * 游戏开始后新加入Tab的条目不计入真实玩家（服务器生成的NPC），离开Tab的玩家从真实玩家中移除
+     */
+    private void onPlayerLeftTab(String name) {
+        if (currentState == GameState.PLAYING && realPlayers.remove(name)) {
+            realPlayersVersion++;
+            logger.info("[RealPlayers] Removed player: {} (left tab list), remaining: {}",
+                    name, realPlayers.size());
+        }
+    }
+
     /**
      * 清空真实玩家列表
      */
@@ -115,6 +131,7 @@ public class GameStateManager {
         if (!realPlayers.isEmpty()) {
             logger.info("[RealPlayers] Clearing {} players", realPlayers.size());
             realPlayers.clear();
+            realPlayersVersion++;
         }
     }
 
@@ -133,6 +150,7 @@ public class GameStateManager {
         int sizeAfter = realPlayers.size();
 
         if (sizeAfter > sizeBefore) {
+            realPlayersVersion++;
             logger.info("[RealPlayers] Added {} new players, total: {}",
                     sizeAfter - sizeBefore, sizeAfter);
         }
@@ -145,6 +163,7 @@ public class GameStateManager {
      */
     public void removeRealPlayer(String playerName) {
         if (realPlayers.remove(playerName)) {
+            realPlayersVersion++;
             logger.info("[RealPlayers] Removed player: {} (marked as corpse), remaining: {}",
                     playerName, realPlayers.size());
         }
@@ -164,6 +183,13 @@ public class GameStateManager {
         return isRealPlayer(player.getName());
     }
 
+    /**
+     * 真实玩家列表的版本号（列表每次变化时递增，缓存判定结果的调用方据此失效）
+     */
+    public long getRealPlayersVersion() {
+        return realPlayersVersion;
+    }
+
 
     // ==================== 状态查询 ====================
 
@@ -171,7 +197,7 @@ public class GameStateManager {
      * 检查状态是否被锁定
      */
     private boolean isStateLocked() {
-        return System.currentTimeMillis() < stateLockedUntil;
+        return clock.now() < stateLockedUntil;
     }
 
     /**
@@ -209,7 +235,7 @@ public class GameStateManager {
         if (currentState != GameState.PLAYING || gameStartTime == 0) {
             return 0;
         }
-        return System.currentTimeMillis() - gameStartTime;
+        return clock.now() - gameStartTime;
     }
 
     /**
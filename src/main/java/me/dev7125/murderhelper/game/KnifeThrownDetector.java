@@ -1,13 +1,12 @@
 package me.dev7125.murderhelper.game;
 
 import me.dev7125.murderhelper.MurderHelperMod;
-import me.dev7125.murderhelper.util.ItemClassifier;
-import net.minecraft.entity.Entity;
+import me.dev7125.murderhelper.core.event.*;
+import me.dev7125.murderhelper.core.listener.EntityInterestFilter;
+import me.dev7125.murderhelper.util.ConcurrentIntSet;
+import me.dev7125.murderhelper.util.IntObjectMap;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.item.Item;
-import net.minecraft.item.ItemStack;
 import net.minecraft.network.play.server.*;
-import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.Vec3;
 
 import java.util.*;
@@ -45,10 +44,10 @@ public class KnifeThrownDetector {
         public Vec3 position;               // 当前位置
         public long throwTime;              // 投掷时间戳
 
-        public ProjectileInfo(int armorStandEntityId, Vec3 position) {
+        public ProjectileInfo(int armorStandEntityId, Vec3 position, long throwTime) {
             this.armorStandEntityId = armorStandEntityId;
             this.position = position;
-            this.throwTime = System.currentTimeMillis();
+            this.throwTime = throwTime;
         }
     }
 
@@ -56,6 +55,8 @@ public class KnifeThrownDetector {
      * 玩家武器信息
      */
     public static class WeaponInfo {
+        private final GameClock clock;
+
         public String playerName;           // 玩家名字
         public int playerEntityId;          // 玩家实体ID
 
@@ -72,7 +73,8 @@ public class KnifeThrownDetector {
         // 其他
         public long lastStateChange;        // 最后状态改变时间
 
-        public WeaponInfo(String playerName, int playerEntityId) {
+        public WeaponInfo(String playerName, int playerEntityId, GameClock clock) {
+            this.clock = clock;
             this.playerName = playerName;
             this.playerEntityId = playerEntityId;
             this.isHolding = false;
@@ -81,7 +83,7 @@ public class KnifeThrownDetector {
             this.projectile = null;
             this.lastThrowTime = 0;
             this.lastDestroyTime = 0;
-            this.lastStateChange = System.currentTimeMillis();
+            this.lastStateChange = clock.now();
         }
 
         /**
@@ -100,7 +102,7 @@ public class KnifeThrownDetector {
             }
 
             // 检查是否在冷却中（投掷后5秒内）
-            long timeSinceDestroy = System.currentTimeMillis() - lastDestroyTime;
+            long timeSinceDestroy = clock.now() - lastDestroyTime;
             if (lastDestroyTime > 0 && timeSinceDestroy < 5000) {
                 return KnifeState.COOLDOWN;
             }
@@ -115,7 +117,7 @@ public class KnifeThrownDetector {
             if (getKnifeState() != KnifeState.COOLDOWN) {
                 return 0;
             }
-            long elapsed = System.currentTimeMillis() - lastDestroyTime;
+            long elapsed = clock.now() - lastDestroyTime;
             return Math.max(0, 5000 - elapsed);
         }
 
@@ -133,8 +135,8 @@ public class KnifeThrownDetector {
             if (this.isHolding != holding) {
                 this.isHolding = holding;
                 this.weaponRegistryName = holding ? registryName : null;
-                this.lastStateChange = System.currentTimeMillis();
-                MurderHelperMod.logger.info("[WeaponDetector] {} holding: {} (item: {})",
+                this.lastStateChange = clock.now();
+                MurderHelperMod.detectorLog.info(DetectorEventLog.Category.WEAPON, "{} holding: {} (item: {})",
                         playerName, holding, registryName);
             }
         }
@@ -153,16 +155,16 @@ public class KnifeThrownDetector {
             if (projectile != null) {
                 // 开始投掷
                 this.projectile = projectile;
-                this.lastThrowTime = System.currentTimeMillis();
-                this.lastStateChange = System.currentTimeMillis();
-                MurderHelperMod.logger.info("[WeaponDetector] {} threw knife (armorstand: {})",
+                this.lastThrowTime = clock.now();
+                this.lastStateChange = lastThrowTime;
+                MurderHelperMod.detectorLog.info(DetectorEventLog.Category.WEAPON, "{} threw knife (armorstand: {})",
                         playerName, projectile.armorStandEntityId);
             } else if (this.projectile != null) {
                 // 飞刀销毁
-                this.lastDestroyTime = System.currentTimeMillis();
+                this.lastDestroyTime = clock.now();
                 this.projectile = null;
-                this.lastStateChange = System.currentTimeMillis();
-                MurderHelperMod.logger.info("[WeaponDetector] {} knife destroyed, entering cooldown",
+                this.lastStateChange = lastDestroyTime;
+                MurderHelperMod.detectorLog.info(DetectorEventLog.Category.WEAPON, "{} knife destroyed, entering cooldown",
                         playerName);
             }
         }
@@ -171,7 +173,7 @@ public class KnifeThrownDetector {
          * 获取距离上次状态改变的时间
          */
         public long getTimeSinceLastChange() {
-            return System.currentTimeMillis() - lastStateChange;
+            return clock.now() - lastStateChange;
         }
 
         /**
@@ -179,7 +181,7 @@ public class KnifeThrownDetector {
          */
         public long getTimeSinceLastThrow() {
             if (lastThrowTime == 0) return Long.MAX_VALUE;
-            return System.currentTimeMillis() - lastThrowTime;
+            return clock.now() - lastThrowTime;
         }
     }
 
@@ -188,13 +190,13 @@ public class KnifeThrownDetector {
     private final Map<String, WeaponInfo> weaponByPlayer = new ConcurrentHashMap<>();
 
     // 盔甲架实体ID -> 武器信息（用于追踪投掷物）
-    private final Map<Integer, WeaponInfo> weaponByArmorStand = new ConcurrentHashMap<>();
-
-    // 实体ID -> 玩家名映射
-    private final Map<Integer, String> entityIdToPlayerName = new ConcurrentHashMap<>();
+    private final IntObjectMap<WeaponInfo> weaponByArmorStand = new IntObjectMap<>();
 
     // 等待关联的盔甲架（刚创建，还未确定所属玩家）
-    private final Map<Integer, PendingArmorStand> pendingArmorStands = new ConcurrentHashMap<>();
+    private final IntObjectMap<PendingArmorStand> pendingArmorStands = new IntObjectMap<>();
+
+    // 关注的实体ID（待确认盔甲架 + 已关联的投掷物），供Netty线程过滤移动数据包
+    private final ConcurrentIntSet trackedEntityIds = EntityInterestFilter.createInterest();
 
     private static class PendingArmorStand {
         long createTime;
@@ -208,61 +210,64 @@ public class KnifeThrownDetector {
         }
     }
 
-    // 盔甲架对象类型
-    private static final int ARMOR_STAND_OBJECT_TYPE = 78;
     private static final long PROJECTILE_TIMEOUT = 15000;  // 投掷物超时
     private static final long PENDING_TIMEOUT = 1000;  // 待确认盔甲架超时
 
-    // ==================== 数据包处理方法 ====================
+    private final GameClock clock;
+
+    public KnifeThrownDetector(GameClock clock) {
+        this.clock = clock;
+    }
+
+    // ==================== 事件订阅 ====================
 
     /**
-     * 处理实体装备数据包
+     * 订阅需要的领域事件
      */
-    public void handleEntityEquipment(S04PacketEntityEquipment packet) {
+    public void registerEvents(DomainEventBus bus) {
+        bus.channel(EquipmentChanged.class).subscribe(this::onEquipmentChanged);
+        bus.channel(ArmorStandSpawned.class).subscribe(this::onArmorStandSpawned);
+        bus.channel(EntityMoved.class).subscribe(this::onEntityMoved);
+        bus.channel(EntityDestroyed.class).subscribe(this::onEntityDestroyed);
+    }
+
+    // ==================== 事件处理方法 ====================
+
+    /**
+     * 实体装备变化
+     */
+    private void onEquipmentChanged(EquipmentChanged event) {
         if (!MurderHelperMod.isGameActuallyStarted()) {
             return;
         }
 
-        int entityId = packet.getEntityID();
-        int slot = packet.getEquipmentSlot();
-        ItemStack itemStack = packet.getItemStack();
-
-        if (slot != 0) return; // 只关注主手
-
-        String playerName = getPlayerNameByEntityId(entityId);
+        if (!event.isMainHand()) return; // 只关注主手
 
-        if (playerName != null) {
+        int entityId = event.getEntityId();
+        if (event.isPlayer()) {
             // 玩家装备/卸下飞刀 - 使用标准检测
-            boolean isKnife = ItemClassifier.isMurderWeapon(itemStack);
-            String registryName = getItemRegistryName(itemStack);
-            handlePlayerEquipment(playerName, entityId, isKnife, registryName);
+            handlePlayerEquipment(event.getPlayerName(), entityId, event.isMurderWeapon(), event.getRegistryName());
         } else {
             // 盔甲架装备物品 - 只检查是否是待确认的盔甲架
-            if (pendingArmorStands.containsKey(entityId) && itemStack != null) {
-                String registryName = getItemRegistryName(itemStack);
-                handleArmorStandEquipment(entityId, registryName);
+            if (pendingArmorStands.containsKey(entityId) && event.getItem() != null) {
+                handleArmorStandEquipment(entityId, event.getRegistryName());
             }
         }
     }
 
     /**
-     * 处理生成对象数据包
+     * 盔甲架生成
      */
-    public void handleSpawnObject(S0EPacketSpawnObject packet) {
+    private void onArmorStandSpawned(ArmorStandSpawned event) {
         if (!MurderHelperMod.isGameActuallyStarted()) {
             return;
         }
-        if (packet.getType() == ARMOR_STAND_OBJECT_TYPE) {
-            int entityId = packet.getEntityID();
-            Vec3 position = new Vec3(
-                    packet.getX() / 32.0,
-                    packet.getY() / 32.0,
-                    packet.getZ() / 32.0
-            );
+        int entityId = event.getEntityId();
+        Vec3 position = new Vec3(event.getX(), event.getY(), event.getZ());
 
-            pendingArmorStands.put(entityId,
-                    new PendingArmorStand(System.currentTimeMillis(), position));
-        }
+        pendingArmorStands.put(entityId,
+                new PendingArmorStand(clock.now(), position));
+        trackedEntityIds.add(entityId);
     }
 
     /**
@@ -273,65 +278,43 @@ public class KnifeThrownDetector {
     }
 
     /**
-     * 处理实体相对移动数据包
+     * 实体移动，更新投掷物位置
      */
-    public void handleEntityRelMove(S14PacketEntity.S15PacketEntityRelMove packet) {
+    private void onEntityMoved(EntityMoved event) {
         if (!MurderHelperMod.isGameActuallyStarted()) {
             return;
         }
-        Entity entity = packet.getEntity(MurderHelperMod.mc.theWorld);
-        if (entity == null) return;
-
-        int entityId = entity.getEntityId();
-        WeaponInfo info = weaponByArmorStand.get(entityId);
+        WeaponInfo info = weaponByArmorStand.get(event.getEntityId());
 
         if (info != null && info.projectile != null && info.projectile.position != null) {
-            info.projectile.position = info.projectile.position.addVector(
-                    packet.func_149062_c() / 4096.0,
-                    packet.func_149061_d() / 4096.0,
-                    packet.func_149064_e() / 4096.0
+            Vec3 position = info.projectile.position;
+            info.projectile.position = new Vec3(
+                    event.resolveX(position.xCoord),
+                    event.resolveY(position.yCoord),
+                    event.resolveZ(position.zCoord)
             );
             // 注意：此处不加日志，因为移动包非常频繁
         }
     }
 
     /**
-     * 处理实体传送数据包
+     * 实体销毁
      */
-    public void handleEntityTeleport(S18PacketEntityTeleport packet) {
+    private void onEntityDestroyed(EntityDestroyed event) {
         if (!MurderHelperMod.isGameActuallyStarted()) {
             return;
         }
-        int entityId = packet.getEntityId();
-        WeaponInfo info = weaponByArmorStand.get(entityId);
+        int entityId = event.getEntityId();
 
-        if (info != null && info.projectile != null) {
-            Vec3 newPos = new Vec3(
-                    packet.getX() / 32.0,
-                    packet.getY() / 32.0,
-                    packet.getZ() / 32.0
-            );
-            info.projectile.position = newPos;
-        }
-    }
-
-    /**
-     * 处理实体销毁数据包
-     */
-    public void handleDestroyEntities(S13PacketDestroyEntities packet) {
-        if (!MurderHelperMod.isGameActuallyStarted()) {
-            return;
+        // 移除投掷物
+        WeaponInfo info = weaponByArmorStand.remove(entityId);
+        if (info != null) {
+            info.setProjectile(null);
         }
-        for (int entityId : packet.getEntityIDs()) {
-            // 移除投掷物
-            WeaponInfo info = weaponByArmorStand.remove(entityId);
-            if (info != null) {
-                info.setProjectile(null);
-            }
 
-            // 清理待确认盔甲架
-            pendingArmorStands.remove(entityId);
-        }
+        // 清理待确认盔甲架
+        pendingArmorStands.remove(entityId);
+        trackedEntityIds.remove(entityId);
     }
 
     /**
@@ -365,7 +348,7 @@ public class KnifeThrownDetector {
 
             // 检测投掷：减速效果消失，但依然持刀
             if (hadSlowEffect && !hasSlowModifier && info.isHolding) {
-                MurderHelperMod.logger.info("[WeaponDetector] Detected throw by {}: slow effect removed while holding knife",
+                MurderHelperMod.detectorLog.info(DetectorEventLog.Category.WEAPON, "Detected throw by {}: slow effect removed while holding knife",
                         playerName);
                 onPlayerThrowKnife(playerName);
             }
@@ -379,12 +362,12 @@ public class KnifeThrownDetector {
      */
     private void handlePlayerEquipment(String playerName, int entityId, boolean hasKnife, String registryName) {
         WeaponInfo info = weaponByPlayer.computeIfAbsent(playerName,
-                name -> new WeaponInfo(name, entityId));
+                name -> new WeaponInfo(name, entityId, clock));
         info.playerEntityId = entityId;
         info.setHolding(hasKnife, registryName);
 
         if (hasKnife) {
-            MurderHelperMod.logger.info("[WeaponDetector] {} equipped knife ({})", playerName, registryName);
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.WEAPON, "{} equipped knife ({})", playerName, registryName);
         }
     }
 
@@ -392,7 +375,7 @@ public class KnifeThrownDetector {
      * 玩家投掷飞刀（检测到减速效果消失）
      */
     private void onPlayerThrowKnife(String playerName) {
-        MurderHelperMod.logger.info("[WeaponDetector] {} throwing knife (slow effect removed)",
+        MurderHelperMod.detectorLog.info(DetectorEventLog.Category.WEAPON, "{} throwing knife (slow effect removed)",
                 playerName);
         // 标记玩家正在投掷，等待盔甲架装备确认
     }
@@ -404,16 +387,17 @@ public class KnifeThrownDetector {
     private void handleArmorStandEquipment(int armorStandEntityId, String itemRegistryName) {
         PendingArmorStand pending = pendingArmorStands.get(armorStandEntityId);
         if (pending == null) {
-            MurderHelperMod.logger.warn("[WeaponDetector] ArmorStand {} equipped but not in pending list",
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.WEAPON, "ArmorStand {} equipped but not in pending list",
                     armorStandEntityId);
             return;
         }
 
         // 如果盔甲架装备的不是有效物品，忽略
         if (itemRegistryName == null) {
-            MurderHelperMod.logger.debug("[WeaponDetector] ArmorStand {} equipped null item, ignored",
+            MurderHelperMod.detectorLog.debug(DetectorEventLog.Category.WEAPON, "ArmorStand {} equipped null item, ignored",
                     armorStandEntityId);
             pendingArmorStands.remove(armorStandEntityId);
+            trackedEntityIds.remove(armorStandEntityId);
             return;
         }
 
@@ -422,11 +406,10 @@ public class KnifeThrownDetector {
         // 提取基础物品名（去除NBT）
         String baseItemName = extractBaseItemName(itemRegistryName);
 
-        long currentTime = System.currentTimeMillis();
         WeaponInfo bestMatch = null;
         double minDistance = Double.MAX_VALUE;
 
-        MurderHelperMod.logger.debug("[WeaponDetector] Searching for thrower of item: {} (base: {})",
+        MurderHelperMod.detectorLog.debug(DetectorEventLog.Category.WEAPON, "Searching for thrower of item: {} (base: {})",
                 itemRegistryName, baseItemName);
 
         // 查找持有相同基础物品的玩家
@@ -444,7 +427,7 @@ public class KnifeThrownDetector {
             // 条件3：物品基础名称必须匹配
             String playerBaseItem = extractBaseItemName(info.weaponRegistryName);
             if (playerBaseItem == null || !playerBaseItem.equals(baseItemName)) {
-                MurderHelperMod.logger.debug("  - {} item mismatch: {} vs {}",
+                MurderHelperMod.detectorLog.debug(DetectorEventLog.Category.WEAPON, "  - {} item mismatch: {} vs {}",
                         info.playerName, playerBaseItem, baseItemName);
                 continue;
             }
@@ -461,7 +444,7 @@ public class KnifeThrownDetector {
                             Math.pow(player.posZ - pending.position.zCoord, 2)
             );
 
-            MurderHelperMod.logger.debug("  - {} is candidate: distance={:.1f}m",
+            MurderHelperMod.detectorLog.debug(DetectorEventLog.Category.WEAPON, "  - {} is candidate: distance={}m",
                     info.playerName, distance);
 
             // 选择距离最近的玩家（合理范围内：<20格）
@@ -472,14 +455,13 @@ public class KnifeThrownDetector {
         }
 
         if (bestMatch == null) {
-            MurderHelperMod.logger.warn("[WeaponDetector] ArmorStand {} equipped {} but no matching thrower found",
+            MurderHelperMod.detectorLog.info(DetectorEventLog.Category.WEAPON, "ArmorStand {} equipped {} but no matching thrower found",
                     armorStandEntityId, baseItemName);
 
-            // 打印当前所有持刀玩家（调试用）
-            MurderHelperMod.logger.debug("  Current knife holders:");
+            // 打印当前所有持刀玩家（调试用，每行独立采样和限流，不单独输出标题行）
             for (WeaponInfo info : weaponByPlayer.values()) {
                 if (info.isHolding) {
-                    MurderHelperMod.logger.debug("    - {} holding {}, hasProjectile={}",
+                    MurderHelperMod.detectorLog.debug(DetectorEventLog.Category.WEAPON, "  Current knife holder: {} holding {}, hasProjectile={}",
                             info.playerName,
                             extractBaseItemName(info.weaponRegistryName),
                             info.projectile != null);
@@ -487,16 +469,17 @@ public class KnifeThrownDetector {
             }
 
             pendingArmorStands.remove(armorStandEntityId);
+            trackedEntityIds.remove(armorStandEntityId);
             return;
         }
 
         // 关联投掷物
-        ProjectileInfo projectile = new ProjectileInfo(armorStandEntityId, pending.position);
+        ProjectileInfo projectile = new ProjectileInfo(armorStandEntityId, pending.position, clock.now());
         bestMatch.setProjectile(projectile);
         weaponByArmorStand.put(armorStandEntityId, bestMatch);
         pendingArmorStands.remove(armorStandEntityId);
 
-        MurderHelperMod.logger.info("[WeaponDetector] ✓ Matched projectile {} to {} (distance: {:.1f}m, item: {})",
+        MurderHelperMod.detectorLog.info(DetectorEventLog.Category.WEAPON, "✓ Matched projectile {} to {} (distance: {}m, item: {})",
                 armorStandEntityId, bestMatch.playerName, minDistance, baseItemName);
     }
 
@@ -505,19 +488,25 @@ public class KnifeThrownDetector {
      * 定期更新
      */
     public void tick() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.now();
 
         // 清理超时的待确认盔甲架
-        pendingArmorStands.entrySet().removeIf(entry ->
-                currentTime - entry.getValue().createTime > PENDING_TIMEOUT);
+        pendingArmorStands.removeIf((entityId, pending) -> {
+            if (currentTime - pending.createTime > PENDING_TIMEOUT) {
+                trackedEntityIds.remove(entityId);
+                return true;
+            }
+            return false;
+        });
 
         // 检查投掷物超时
         weaponByPlayer.values().forEach(info -> {
             if (info.projectile != null) {
                 if (currentTime - info.projectile.throwTime > PROJECTILE_TIMEOUT) {
-                    MurderHelperMod.logger.warn("[WeaponDetector] {} projectile timeout",
+                    MurderHelperMod.detectorLog.info(DetectorEventLog.Category.WEAPON, "{} projectile timeout",
                             info.playerName);
                     weaponByArmorStand.remove(info.projectile.armorStandEntityId);
+                    trackedEntityIds.remove(info.projectile.armorStandEntityId);
                     info.setProjectile(null);
                 }
             }
@@ -530,8 +519,8 @@ public class KnifeThrownDetector {
     public void clear() {
         weaponByPlayer.clear();
         weaponByArmorStand.clear();
-        entityIdToPlayerName.clear();
         pendingArmorStands.clear();
+        trackedEntityIds.clear();
         MurderHelperMod.logger.info("[WeaponDetector] Cleared all data");
     }
 
@@ -618,54 +607,13 @@ public class KnifeThrownDetector {
      * 通过实体ID获取玩家实体
      */
     private EntityPlayer getPlayerByEntityId(int entityId) {
-        if (MurderHelperMod.mc == null || MurderHelperMod.mc.theWorld == null) {
-            return null;
-        }
-
-        Entity entity = MurderHelperMod.mc.theWorld.getEntityByID(entityId);
-        return entity instanceof EntityPlayer ? (EntityPlayer) entity : null;
+        return MurderHelperMod.entityRegistry.getPlayerEntity(entityId);
     }
 
     /**
      * 通过实体ID获取玩家名
      */
     private String getPlayerNameByEntityId(int entityId) {
-        String cached = entityIdToPlayerName.get(entityId);
-        if (cached != null) {
-            return cached;
-        }
-
-        if (MurderHelperMod.mc == null || MurderHelperMod.mc.theWorld == null) {
-            return null;
-        }
-
-        Entity entity = MurderHelperMod.mc.theWorld.getEntityByID(entityId);
-        if (entity instanceof EntityPlayer) {
-            String name = entity.getName();
-            entityIdToPlayerName.put(entityId, name);
-            return name;
-        }
-
-        return null;
-    }
-
-    /**
-     * 获取物品的注册名
-     */
-    private String getItemRegistryName(ItemStack itemStack) {
-        if (itemStack == null || itemStack.getItem() == null) {
-            return null;
-        }
-
-        Item item = itemStack.getItem();
-        ResourceLocation registryName = Item.itemRegistry.getNameForObject(item);
-        return registryName != null ? registryName.toString() : null;
-    }
-
-    /**
-     * 注册玩家
-     */
-    public void registerPlayer(String playerName, int entityId) {
-        entityIdToPlayerName.put(entityId, playerName);
+        return MurderHelperMod.entityRegistry.getPlayerName(entityId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package me.dev7125.murderhelper.game;
+
+import me.dev7125.murderhelper.MurderHelperMod;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 每tick的名牌决策表
+ * 在客户端tick结束时根据玩家快照决定一次哪些玩家使用自定义名牌，按实体ID保存标记，
+ * MixinRendererLivingEntity 和 NameTagsRenderHandler 每帧只做一次查表，两边的判断条件不会再不一致
+ *
+ * 实体ID稀疏且可能很大，不适合用BitSet按ID下标存储，这里用开放寻址（线性探测）的 实体ID -> 标记 表，
+ * 表跨tick复用，只在玩家数量增长时扩容；只在客户端主线程访问，非线程安全
+ */
+public class NametagDecisions {
+
+    /**
+     * 取消原版名牌（Mixin使用）
+     */
+    public static final int FLAG_CUSTOM_TAG = 1;
+
+    /**
+     * 绘制自定义名牌（同名的重复实体只有第一个带此标记）
+     */
+    public static final int FLAG_RENDER = 2;
+
+    private static final int FREE = Integer.MIN_VALUE;
+
+    private static final int MIN_TABLE_SIZE = 64;
+
+    private int[] keys = newKeys(MIN_TABLE_SIZE);
+    private byte[] flags = new byte[MIN_TABLE_SIZE];
+    private int size = 0;
+
+    // 名字去重用（复用）
+    private final Set<String> seenNames = new HashSet<>();
+
+    // ==================== 构建 ====================
+
+    /**
+     * 根据本tick的玩家快照重建决策（每tick调用一次，在快照更新之后）
+     */
+    public void update(PlayerSnapshot snapshot) {
+        clear();
+
+        // 条件必须和 NameTagsRenderHandler 的渲染前提保持一致
+        if (!MurderHelperMod.config.globalEnabled ||
+                !MurderHelperMod.gameState.isInGame() ||
+                !MurderHelperMod.isGameActuallyStarted()) {
+            return;
+        }
+
+        int mode = MurderHelperMod.config.renderNameTags;
+        ensureCapacity(snapshot.size());
+
+        for (int i = 0; i < snapshot.size(); i++) {
+            // 不处理自己的名字牌；只处理真实玩家（过滤NPC和死亡玩家）
+            if (snapshot.isSelf(i) || !snapshot.isRealPlayer(i)) {
+                continue;
+            }
+
+            boolean custom;
+            switch (mode) {
+                case 0: // All Player - 所有玩家都用自定义命名牌
+                    custom = true;
+                    break;
+                case 1: // Enemy Faction - 只有敌对阵营用自定义命名牌
+                    custom = snapshot.isEnemy(i);
+                    break;
+                default:
+                    custom = false;
+                    break;
+            }
+            if (!custom) {
+                continue;
+            }
+
+            // 防止重复渲染（游戏胜利后会复制多份相同玩家实体），重复实体仍然隐藏原版名牌
+            int value = FLAG_CUSTOM_TAG;
+            if (seenNames.add(snapshot.getName(i))) {
+                value |= FLAG_RENDER;
+            }
+            put(snapshot.getPlayer(i).getEntityId(), value);
+        }
+        seenNames.clear();
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, FREE);
+            size = 0;
+        }
+    }
+
+    // ==================== 查询接口 ====================
+
+    /**
+     * 是否用自定义名牌替换原版名牌
+     */
+    public boolean isCustomTag(int entityId) {
+        return (get(entityId) & FLAG_CUSTOM_TAG) != 0;
+    }
+
+    /**
+     * 是否由 NameTagsRenderHandler 绘制自定义名牌
+     */
+    public boolean shouldRender(int entityId) {
+        return (get(entityId) & FLAG_RENDER) != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // ==================== 哈希表 ====================
+
+    private int get(int entityId) {
+        if (size == 0 || entityId == FREE) {
+            return 0;
+        }
+
+        int mask = keys.length - 1;
+        int index = mix(entityId) & mask;
+        while (true) {
+            int current = keys[index];
+            if (current == entityId) {
+                return flags[index];
+            }
+            if (current == FREE) {
+                return 0;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void put(int entityId, int value) {
+        if (entityId == FREE) {
+            return;
+        }
+
+        int mask = keys.length - 1;
+        int index = mix(entityId) & mask;
+        while (keys[index] != FREE && keys[index] != entityId) {
+            index = (index + 1) & mask;
+        }
+        if (keys[index] == FREE) {
+            keys[index] = entityId;
+            size++;
+        }
+        flags[index] = (byte) value;
+    }
+
+    /**
+     * 保证负载不超过一半（只在表为空时调用，无需重新插入）
+     */
+    private void ensureCapacity(int expectedSize) {
+        if (expectedSize * 2 <= keys.length) {
+            return;
+        }
+        int tableSize = Integer.highestOneBit(expectedSize * 2 - 1) << 1;
+        keys = newKeys(tableSize);
+        flags = new byte[tableSize];
+    }
+
+    private static int[] newKeys(int tableSize) {
+        int[] table = new int[tableSize];
+        Arrays.fill(table, FREE);
+        return table;
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
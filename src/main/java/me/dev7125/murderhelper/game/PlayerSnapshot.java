@@ -0,0 +1,246 @@
+package me.dev7125.murderhelper.game;
+
+import me.dev7125.murderhelper.MurderHelperMod;
+import net.minecraft.client.Minecraft;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.world.World;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 每tick玩家快照
+ * 在客户端tick结束时遍历一次playerEntities，按列（struct-of-arrays）保存位置、名字、角色和真实玩家标记，
+ * 供SuspectTracker、AlarmSystem、BowDropDetector和HUDRenderHandler共享读取
+ * 数组跨tick复用，只在容量不足时扩容；只在主线程访问，非线程安全
+ */
+public class PlayerSnapshot {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    // ==================== 列数据 ====================
+
+    private EntityPlayer[] players = new EntityPlayer[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private double[] posX = new double[INITIAL_CAPACITY];
+    private double[] posY = new double[INITIAL_CAPACITY];
+    private double[] posZ = new double[INITIAL_CAPACITY];
+    private MurderHelperMod.PlayerRole[] roles = new MurderHelperMod.PlayerRole[INITIAL_CAPACITY];
+    private boolean[] realPlayer = new boolean[INITIAL_CAPACITY];
+    private boolean[] enemy = new boolean[INITIAL_CAPACITY];
+    // 存活且可见（排除死亡后的幽灵玩家）
+    private boolean[] visible = new boolean[INITIAL_CAPACITY];
+    // 可见且生命值大于0（可以捡弓的玩家）
+    private boolean[] healthy = new boolean[INITIAL_CAPACITY];
+
+    private int size = 0;
+    private int selfIndex = -1;
+
+    // 快照所属的世界（切换世界后旧快照失效）
+    private World world;
+
+    // 按位置划分的空间索引，随快照一起重建
+    private final PlayerSpatialGrid grid = new PlayerSpatialGrid();
+
+    // ==================== 构建 ====================
+
+    /**
+     * 重建快照（每tick调用一次）
+     */
+    public void update(Minecraft mc) {
+        clear();
+
+        if (mc.theWorld == null || mc.thePlayer == null) {
+            return;
+        }
+
+        world = mc.theWorld;
+
+        List<EntityPlayer> playerEntities = mc.theWorld.playerEntities;
+        ensureCapacity(playerEntities.size());
+
+        MurderHelperMod.PlayerRole myRole = MurderHelperMod.gameState.getMyRole();
+        PlayerTracker playerTracker = MurderHelperMod.playerTracker;
+        GameStateManager gameState = MurderHelperMod.gameState;
+
+        for (EntityPlayer player : playerEntities) {
+            if (player == null) {
+                continue;
+            }
+
+            int i = size++;
+            String name = player.getName();
+
+            players[i] = player;
+            names[i] = name;
+            posX[i] = player.posX;
+            posY[i] = player.posY;
+            posZ[i] = player.posZ;
+            roles[i] = playerTracker.getPlayerRole(name);
+            realPlayer[i] = gameState.isRealPlayer(name);
+            enemy[i] = playerTracker.isEnemy(name, myRole);
+            visible[i] = !player.isDead && !player.isInvisible();
+            healthy[i] = visible[i] && player.getHealth() > 0;
+
+            if (player == mc.thePlayer) {
+                selfIndex = i;
+            }
+        }
+
+        grid.rebuild(this);
+    }
+
+    /**
+     * 清空快照（释放实体引用）
+     */
+    public void clear() {
+        Arrays.fill(players, 0, size, null);
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(roles, 0, size, null);
+        size = 0;
+        selfIndex = -1;
+        world = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= players.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, players.length * 2);
+        players = Arrays.copyOf(players, newCapacity);
+        names = Arrays.copyOf(names, newCapacity);
+        posX = Arrays.copyOf(posX, newCapacity);
+        posY = Arrays.copyOf(posY, newCapacity);
+        posZ = Arrays.copyOf(posZ, newCapacity);
+        roles = Arrays.copyOf(roles, newCapacity);
+        realPlayer = Arrays.copyOf(realPlayer, newCapacity);
+        enemy = Arrays.copyOf(enemy, newCapacity);
+        visible = Arrays.copyOf(visible, newCapacity);
+        healthy = Arrays.copyOf(healthy, newCapacity);
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 快照是否属于当前世界
+     */
+    public boolean isValidFor(World currentWorld) {
+        return world != null && world == currentWorld;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isSelf(int i) {
+        return i == selfIndex;
+    }
+
+    public EntityPlayer getPlayer(int i) {
+        return players[i];
+    }
+
+    public String getName(int i) {
+        return names[i];
+    }
+
+    public double getX(int i) {
+        return posX[i];
+    }
+
+    public double getY(int i) {
+        return posY[i];
+    }
+
+    public double getZ(int i) {
+        return posZ[i];
+    }
+
+    public MurderHelperMod.PlayerRole getRole(int i) {
+        return roles[i];
+    }
+
+    public boolean isRealPlayer(int i) {
+        return realPlayer[i];
+    }
+
+    public boolean isEnemy(int i) {
+        return enemy[i];
+    }
+
+    public boolean isVisible(int i) {
+        return visible[i];
+    }
+
+    public boolean isHealthy(int i) {
+        return healthy[i];
+    }
+
+    /**
+     * 获取空间索引（用于范围查询）
+     */
+    public PlayerSpatialGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * 玩家到指定点的距离平方
+     */
+    public double distanceSq(int i, double x, double y, double z) {
+        double dx = posX[i] - x;
+        double dy = posY[i] - y;
+        double dz = posZ[i] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * 查找距离自己最近的敌人（只包括Tab列表中的真实玩家）
+     * @param maxRange 最大距离（不包含），不限制时传 Double.MAX_VALUE
+     * @return 快照下标，如果没有则返回-1
+     */
+    public int findClosestEnemy(double maxRange) {
+        if (selfIndex < 0) {
+            return -1;
+        }
+
+        double selfX = posX[selfIndex];
+        double selfY = posY[selfIndex];
+        double selfZ = posZ[selfIndex];
+        int closest = -1;
+        double closestDistanceSq = Double.MAX_VALUE;
+
+        // 有限范围走空间索引，不限范围时直接线性扫描
+        if (maxRange != Double.MAX_VALUE) {
+            double maxRangeSq = maxRange * maxRange;
+            int count = grid.queryRange(selfX, selfY, selfZ, maxRange);
+            for (int k = 0; k < count; k++) {
+                int i = grid.getResult(k);
+                if (i == selfIndex || !realPlayer[i] || !enemy[i]) {
+                    continue;
+                }
+
+                double distanceSq = distanceSq(i, selfX, selfY, selfZ);
+                if (distanceSq < maxRangeSq && distanceSq < closestDistanceSq) {
+                    closestDistanceSq = distanceSq;
+                    closest = i;
+                }
+            }
+            return closest;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (i == selfIndex || !realPlayer[i] || !enemy[i]) {
+                continue;
+            }
+
+            double distanceSq = distanceSq(i, selfX, selfY, selfZ);
+            if (distanceSq < closestDistanceSq) {
+                closestDistanceSq = distanceSq;
+                closest = i;
+            }
+        }
+
+        return closest;
+    }
+}
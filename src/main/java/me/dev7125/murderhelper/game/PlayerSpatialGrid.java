@@ -0,0 +1,170 @@
+package me.dev7125.murderhelper.game;
+
+import java.util.Arrays;
+
+/**
+ * 玩家空间哈希网格
+ * 按x/z把PlayerSnapshot中的玩家划分到固定边长的网格列中（y只在距离判定时参与），
+ * 范围查询只访问与查询球相交的网格，并用距离平方判定，避免逐个玩家开方
+ *
+ * 网格表和链表数组跨tick复用，每tick随快照一起重建，重建为O(n)且不分配对象
+ * 只在主线程访问；查询结果保存在内部缓冲区，下一次查询前有效
+ */
+public class PlayerSpatialGrid {
+
+    // 网格边长（方块）
+    static final double CELL_SIZE = 16.0;
+
+    private static final int MIN_TABLE_SIZE = 16;
+    private static final int EMPTY = -1;
+
+    // 网格哈希表（开放寻址）：网格坐标 -> 该网格链表头的快照下标
+    private long[] cellKeys = new long[MIN_TABLE_SIZE];
+    private int[] cellHeads = new int[MIN_TABLE_SIZE];
+    private int mask = MIN_TABLE_SIZE - 1;
+
+    // 同一网格内的下一个玩家下标（-1结尾）
+    private int[] next = new int[32];
+
+    // 查询结果缓冲区
+    private int[] results = new int[32];
+    private int resultCount = 0;
+
+    private PlayerSnapshot snapshot;
+
+    public PlayerSpatialGrid() {
+        Arrays.fill(cellHeads, EMPTY);
+    }
+
+    // ==================== 构建 ====================
+
+    /**
+     * 根据快照重建网格（快照更新后调用）
+     */
+    void rebuild(PlayerSnapshot snapshot) {
+        this.snapshot = snapshot;
+        resultCount = 0;
+
+        int size = snapshot.size();
+        ensureCapacity(size);
+
+        for (int i = 0; i < size; i++) {
+            int slot = findOrInsert(cellKey(cellCoord(snapshot.getX(i)), cellCoord(snapshot.getZ(i))));
+            next[i] = cellHeads[slot];
+            cellHeads[slot] = i;
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (next.length < size) {
+            int newLength = Math.max(size, next.length * 2);
+            next = new int[newLength];
+            results = new int[newLength];
+        }
+
+        // 负载因子不超过0.5
+        int tableSize = MIN_TABLE_SIZE;
+        while (tableSize < size * 2) {
+            tableSize <<= 1;
+        }
+
+        if (tableSize > cellKeys.length) {
+            cellKeys = new long[tableSize];
+            cellHeads = new int[tableSize];
+            mask = tableSize - 1;
+        }
+        Arrays.fill(cellHeads, EMPTY);
+    }
+
+    private int findOrInsert(long key) {
+        int slot = hash(key) & mask;
+        while (cellHeads[slot] != EMPTY) {
+            if (cellKeys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        cellKeys[slot] = key;
+        return slot;
+    }
+
+    private int find(long key) {
+        int slot = hash(key) & mask;
+        while (cellHeads[slot] != EMPTY) {
+            if (cellKeys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 查询与指定点距离不超过range的所有玩家
+     * @return 结果数量，通过 getResult(k) 读取快照下标
+     */
+    public int queryRange(double x, double y, double z, double range) {
+        resultCount = 0;
+        if (snapshot == null || snapshot.size() == 0) {
+            return 0;
+        }
+
+        double rangeSq = range * range;
+        int minCellX = cellCoord(x - range);
+        int maxCellX = cellCoord(x + range);
+        int minCellZ = cellCoord(z - range);
+        int maxCellZ = cellCoord(z + range);
+
+        // 查询范围覆盖的网格比玩家还多时，直接线性扫描更快
+        long cellCount = ((long) maxCellX - minCellX + 1) * ((long) maxCellZ - minCellZ + 1);
+        if (cellCount > snapshot.size()) {
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (snapshot.distanceSq(i, x, y, z) <= rangeSq) {
+                    results[resultCount++] = i;
+                }
+            }
+            return resultCount;
+        }
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                int slot = find(cellKey(cellX, cellZ));
+                if (slot < 0) {
+                    continue;
+                }
+
+                for (int i = cellHeads[slot]; i != EMPTY; i = next[i]) {
+                    if (snapshot.distanceSq(i, x, y, z) <= rangeSq) {
+                        results[resultCount++] = i;
+                    }
+                }
+            }
+        }
+
+        return resultCount;
+    }
+
+    /**
+     * 获取上一次查询的第k个结果（快照下标）
+     */
+    public int getResult(int k) {
+        return results[k];
+    }
+
+    // ==================== 工具方法 ====================
+
+    static int cellCoord(double coord) {
+        return (int) Math.floor(coord / CELL_SIZE);
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -1,11 +1,11 @@
 package me.dev7125.murderhelper.game;
 
 import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.core.event.DomainEventBus;
+import me.dev7125.murderhelper.core.event.EquipmentChanged;
 import me.dev7125.murderhelper.util.ItemClassifier;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.ItemStack;
-import net.minecraft.network.play.server.S04PacketEntityEquipment;
 import net.minecraft.network.play.server.S09PacketHeldItemChange;
 import net.minecraft.network.play.server.S2FPacketSetSlot;
 import net.minecraft.network.play.server.S30PacketWindowItems;
@@ -219,18 +219,24 @@ public class RoleDetector {
     // ==================== 其他玩家角色检测(数据包驱动) ====================
 
     /**
-     * 处理实体装备数据包(S04PacketEntityEquipment)
+     * 订阅实体装备变化事件
+     */
+    public void registerEvents(DomainEventBus bus) {
+        bus.channel(EquipmentChanged.class).subscribe(this::onEquipmentChanged);
+    }
+
+    /**
+     * 实体装备变化(S04PacketEntityEquipment)
      * 用于检测其他玩家的角色变化
      */
-    public void handleEntityEquipment(S04PacketEntityEquipment packet) {
+    private void onEquipmentChanged(EquipmentChanged event) {
         if (!MurderHelperMod.isGameActuallyStarted()) return;
 
-        if (packet.getEquipmentSlot() != 0) return;
+        if (!event.isMainHand() || !event.isPlayer()) return;
 
-        EntityPlayer player = getPlayerByEntityId(packet.getEntityID());
-        if (player == null || isLocalPlayer(player)) return;
+        if (isLocalPlayer(event.getEntityId())) return;
 
-        checkPlayerEquipment(player.getName(), packet.getItemStack());
+        checkPlayerEquipment(event.getPlayerName(), event.getItem());
     }
 
     // ==================== 角色检测核心逻辑 ====================
@@ -504,28 +510,11 @@ public class RoleDetector {
 
     // ==================== 工具方法 ====================
 
-    /**
-     * 通过实体ID获取玩家实体
-     */
-    private EntityPlayer getPlayerByEntityId(int entityId) {
-        if (MurderHelperMod.mc == null || MurderHelperMod.mc.theWorld == null) {
-            return null;
-        }
-
-        try {
-            Entity entity = MurderHelperMod.mc.theWorld.getEntityByID(entityId);
-            return entity instanceof EntityPlayer ? (EntityPlayer) entity : null;
-        } catch (Exception e) {
-            logger.error("[RoleDetector] Error getting player by entity ID", e);
-            return null;
-        }
-    }
-
     /**
      * 判断是否是本地玩家
      */
-    private boolean isLocalPlayer(EntityPlayer player) {
-        return player != null && MurderHelperMod.mc.thePlayer != null
-                && player.getEntityId() == MurderHelperMod.mc.thePlayer.getEntityId();
+    private boolean isLocalPlayer(int entityId) {
+        return MurderHelperMod.mc != null && MurderHelperMod.mc.thePlayer != null
+                && entityId == MurderHelperMod.mc.thePlayer.getEntityId();
     }
-}
\ No newline at end of file
+}
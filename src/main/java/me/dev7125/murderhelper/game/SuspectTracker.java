@@ -2,8 +2,6 @@ package me.dev7125.murderhelper.game;
 
 import me.dev7125.murderhelper.MurderHelperMod;
 import net.minecraft.client.Minecraft;
-import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.util.Vec3;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
@@ -18,6 +16,7 @@ public class SuspectTracker {
     private final Logger logger;
     private final PlayerTracker playerTracker;
     private final CorpseDetector corpseDetector;
+    private final GameClock clock;
 
     // 嫌疑人集合(玩家名 -> 成为嫌疑人的时间戳)
     private final Map<String, Long> suspects = new HashMap<>();
@@ -30,10 +29,11 @@ public class SuspectTracker {
     private long lastAccidentallyKilledTime = 0;
     private static final long ACCIDENTALLY_KILLED_GRACE_PERIOD = 3000; // 陷阱杀死后3秒内不判定嫌疑人
 
-    public SuspectTracker(Logger logger, PlayerTracker playerTracker, CorpseDetector corpseDetector) {
+    public SuspectTracker(Logger logger, PlayerTracker playerTracker, CorpseDetector corpseDetector, GameClock clock) {
         this.logger = logger;
         this.playerTracker = playerTracker;
         this.corpseDetector = corpseDetector;
+        this.clock = clock;
     }
 
     /**
@@ -41,7 +41,7 @@ public class SuspectTracker {
      * 在检测到mob.skeleton.death和mob.villager.death音效时调用
      */
     public void onAccidentallyKilled() {
-        lastAccidentallyKilledTime = System.currentTimeMillis();
+        lastAccidentallyKilledTime = clock.now();
         logger.info("Trap kill detected, suspending suspect marking for {} ms", ACCIDENTALLY_KILLED_GRACE_PERIOD);
     }
 
@@ -49,7 +49,7 @@ public class SuspectTracker {
      * 检查当前是否在陷阱杀死的宽限期内
      */
     private boolean isInTrapKillGracePeriod() {
-        return System.currentTimeMillis() - lastAccidentallyKilledTime < ACCIDENTALLY_KILLED_GRACE_PERIOD;
+        return clock.now() - lastAccidentallyKilledTime < ACCIDENTALLY_KILLED_GRACE_PERIOD;
     }
 
     /**
@@ -101,36 +101,32 @@ public class SuspectTracker {
             return;
         }
 
-        for (EntityPlayer player : mc.theWorld.playerEntities) {
-            if (player == null) {
-                continue;
-            }
-
-            String playerName = player.getName();
+        PlayerSnapshot snapshot = MurderHelperMod.playerSnapshot;
+        PlayerSpatialGrid grid = snapshot.getGrid();
 
-            // 跳过自己
-            if (playerName.equals(mc.thePlayer.getName())) {
-                continue;
-            }
-
-            // 跳过死亡或隐形的玩家实体
-            if (player.isDead || player.isInvisible()) {
-                continue;
-            }
+        // 以尸体为中心做范围查询，只检查附近网格中的玩家
+        for (CorpseDetector.CorpseInfo corpse : recentCorpses) {
+            int count = grid.queryRange(
+                    corpse.position.xCoord, corpse.position.yCoord, corpse.position.zCoord, SUSPECT_RANGE);
 
-            if (!canBeSuspect(playerName)) {
-                continue;
-            }
+            for (int k = 0; k < count; k++) {
+                int i = grid.getResult(k);
 
-            Vec3 playerPos = new Vec3(player.posX, player.posY, player.posZ);
+                // 跳过自己
+                if (snapshot.isSelf(i)) {
+                    continue;
+                }
 
-            for (CorpseDetector.CorpseInfo corpse : recentCorpses) {
-                double distance = playerPos.distanceTo(corpse.position);
+                // 跳过死亡或隐形的玩家实体
+                if (!snapshot.isVisible(i)) {
+                    continue;
+                }
 
-                if (distance <= SUSPECT_RANGE) {
-                    addSuspect(playerName, corpse);
-                    break;
+                if (!canBeSuspect(snapshot.getRole(i))) {
+                    continue;
                 }
+
+                addSuspect(snapshot.getName(i), corpse);
             }
         }
     }
@@ -139,9 +135,7 @@ public class SuspectTracker {
      * 判断玩家是否可以成为嫌疑人
      * 只有 INNOCENT 和 SHOOTER 可以成为嫌疑人
      */
-    private boolean canBeSuspect(String playerName) {
-        MurderHelperMod.PlayerRole role = playerTracker.getPlayerRole(playerName);
-
+    private boolean canBeSuspect(MurderHelperMod.PlayerRole role) {
         // 侦探不能是嫌疑人
         if (role == MurderHelperMod.PlayerRole.DETECTIVE) {
             return false;
@@ -167,7 +161,7 @@ public class SuspectTracker {
      */
     private void addSuspect(String playerName, CorpseDetector.CorpseInfo corpse) {
         if (!suspects.containsKey(playerName)) {
-            suspects.put(playerName, System.currentTimeMillis());
+            suspects.put(playerName, clock.now());
 
             logger.info("Player {} marked as SUSPECT (near corpse at {}, {}, {})",
                     playerName,
@@ -221,7 +215,7 @@ public class SuspectTracker {
      * 清理过期的嫌疑人记录(可选,当前版本保持嫌疑人状态直到游戏结束或找到凶手)
      */
     public void cleanupOldSuspects(long maxAgeMs) {
-        long now = System.currentTimeMillis();
+        long now = clock.now();
         suspects.entrySet().removeIf(entry -> now - entry.getValue() > maxAgeMs);
     }
 
@@ -0,0 +1,165 @@
+package me.dev7125.murderhelper.game;
+
+import net.minecraft.network.play.server.S3EPacketTeams;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 计分板队伍索引
+ * 按 S3EPacketTeams 的动作增量维护队伍及成员，并保留 玩家名 -> 队伍 的反向索引，
+ * 查询某个玩家的名字标签是否被隐藏只需一次哈希查找，不再每个数据包遍历所有队伍和成员
+ *
+ * 动作码（与原版 ScoreboardTeams 处理一致）：
+ * 0=创建队伍（带属性和成员）、1=删除队伍、2=更新属性、3=添加成员、4=移除成员
+ * 原版中一个玩家同时只属于一个队伍，加入新队伍时会离开旧队伍
+ * 只在客户端主线程访问
+ */
+public class TeamIndex {
+
+    public static final int ACTION_CREATE = 0;
+    public static final int ACTION_REMOVE = 1;
+    public static final int ACTION_UPDATE = 2;
+    public static final int ACTION_ADD_PLAYERS = 3;
+    public static final int ACTION_REMOVE_PLAYERS = 4;
+
+    private static final String VISIBILITY_NEVER = "never";
+
+    /**
+     * 队伍
+     */
+    private static class Team {
+        final String name;
+        final Set<String> members = new HashSet<>();
+        boolean nameTagHidden;
+
+        Team(String name) {
+            this.name = name;
+        }
+    }
+
+    // 队伍名 -> 队伍
+    private final Map<String, Team> teamsByName = new HashMap<>();
+
+    // 玩家名 -> 所在队伍
+    private final Map<String, Team> teamByPlayer = new HashMap<>();
+
+    // ==================== 数据包处理 ====================
+
+    /**
+     * 应用队伍数据包
+     */
+    public void apply(S3EPacketTeams packet) {
+        String name = packet.getName();
+        if (name == null) {
+            return;
+        }
+
+        switch (packet.getAction()) {
+            case ACTION_CREATE: {
+                Team team = teamsByName.get(name);
+                if (team == null) {
+                    team = new Team(name);
+                    teamsByName.put(name, team);
+                }
+                team.nameTagHidden = VISIBILITY_NEVER.equals(packet.getNameTagVisibility());
+                addPlayers(team, packet.getPlayers());
+                break;
+            }
+            case ACTION_REMOVE: {
+                Team team = teamsByName.remove(name);
+                if (team != null) {
+                    for (String player : team.members) {
+                        teamByPlayer.remove(player);
+                    }
+                }
+                break;
+            }
+            case ACTION_UPDATE: {
+                Team team = teamsByName.get(name);
+                if (team != null) {
+                    team.nameTagHidden = VISIBILITY_NEVER.equals(packet.getNameTagVisibility());
+                }
+                break;
+            }
+            case ACTION_ADD_PLAYERS: {
+                Team team = teamsByName.get(name);
+                if (team != null) {
+                    addPlayers(team, packet.getPlayers());
+                }
+                break;
+            }
+            case ACTION_REMOVE_PLAYERS: {
+                Team team = teamsByName.get(name);
+                if (team != null) {
+                    removePlayers(team, packet.getPlayers());
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    private void addPlayers(Team team, Collection<String> players) {
+        if (players == null) {
+            return;
+        }
+
+        for (String player : players) {
+            Team previous = teamByPlayer.put(player, team);
+            if (previous != null && previous != team) {
+                previous.members.remove(player);
+            }
+            team.members.add(player);
+        }
+    }
+
+    private void removePlayers(Team team, Collection<String> players) {
+        if (players == null) {
+            return;
+        }
+
+        for (String player : players) {
+            if (team.members.remove(player)) {
+                teamByPlayer.remove(player);
+            }
+        }
+    }
+
+    // ==================== 查询接口 ====================
+
+    /**
+     * 玩家所在队伍是否隐藏名字标签（nameTagVisibility = "never"）
+     */
+    public boolean isNameTagHidden(String playerName) {
+        if (playerName == null) {
+            return false;
+        }
+        Team team = teamByPlayer.get(playerName);
+        return team != null && team.nameTagHidden;
+    }
+
+    /**
+     * 隐藏名字标签的队伍名（调试日志用）
+     */
+    public List<String> getHiddenTeamNames() {
+        List<String> names = new ArrayList<>();
+        for (Team team : teamsByName.values()) {
+            if (team.nameTagHidden) {
+                names.add(team.name);
+            }
+        }
+        return names;
+    }
+
+    public void clear() {
+        teamsByName.clear();
+        teamByPlayer.clear();
+    }
+}
@@ -0,0 +1,168 @@
+package me.dev7125.murderhelper.game;
+
+import me.dev7125.murderhelper.MurderHelperMod;
+
+import java.util.Arrays;
+
+/**
+ * 客户端tick阶段分析器
+ * 每tick记录 MurderHelperMod.onClientTick 各阶段的耗时（System.nanoTime），每个阶段保留最近 WINDOW_TICKS 个样本，
+ * 按需计算滚动窗口内的 p50/p99/最大值；单个样本超过预算（配置 tickBudgetMicros）时计数并限频输出警告
+ *
+ * 用法: long t = TickProfiler.start(); weaponDetector.tick(); t = profiler.lap(Stage.WEAPON, t); ...
+ * 只在客户端主线程访问
+ */
+public class TickProfiler {
+
+    /**
+     * tick阶段（按执行顺序）
+     */
+    public enum Stage {
+        PACKET_QUEUE("packet-queue"),
+        WEAPON("weapon"),
+        BOW_SHOT("bow-shot"),
+        GAME_STATE("game-state"),
+        SNAPSHOT("snapshot"),
+        NAMETAGS("nametags"),
+        SUSPECTS("suspects"),
+        BOW_DROP("bow-drop"),
+        CORPSE_CLEANUP("corpse-cleanup"),
+        ALARM("alarm");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    // 滚动窗口长度（10秒）
+    public static final int WINDOW_TICKS = 200;
+
+    private final StageWindow[] windows = new StageWindow[Stage.values().length];
+
+    // 计算分位数用的排序缓冲区（复用）
+    private final long[] sortBuffer = new long[WINDOW_TICKS];
+
+    // 已结束的tick数（超预算警告限频：每个阶段每个窗口最多警告一次）
+    private long tickCount = 0;
+
+    public TickProfiler() {
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new StageWindow();
+        }
+    }
+
+    /**
+     * 单个阶段的样本环
+     */
+    private static class StageWindow {
+        final long[] samples = new long[WINDOW_TICKS];
+        int next = 0;
+        int size = 0;
+        long overBudgetCount = 0;
+        long lastWarnTick = -WINDOW_TICKS;
+    }
+
+    // ==================== 记录 ====================
+
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 记录从 startNanos 到现在的耗时
+     * @return 当前时间，作为下一阶段的起点
+     */
+    public long lap(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        record(stage, now - startNanos);
+        return now;
+    }
+
+    private void record(Stage stage, long nanos) {
+        StageWindow window = windows[stage.ordinal()];
+        window.samples[window.next] = nanos;
+        window.next = (window.next + 1) % WINDOW_TICKS;
+        if (window.size < WINDOW_TICKS) {
+            window.size++;
+        }
+
+        long budgetNanos = MurderHelperMod.config.tickBudgetMicros * 1000L;
+        if (budgetNanos > 0 && nanos > budgetNanos) {
+            window.overBudgetCount++;
+            if (tickCount - window.lastWarnTick >= WINDOW_TICKS) {
+                window.lastWarnTick = tickCount;
+                MurderHelperMod.logger.warn("[TickProfiler] Stage {} took {} us (budget {} us)",
+                        stage.getLabel(), nanos / 1000, MurderHelperMod.config.tickBudgetMicros);
+            }
+        }
+    }
+
+    /**
+     * tick结束（推进警告限频计数）
+     */
+    public void endTick() {
+        tickCount++;
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 滚动窗口内的分位数（纳秒），无样本时返回0
+     * @param quantile 0~1
+     */
+    public long getPercentileNanos(Stage stage, double quantile) {
+        StageWindow window = windows[stage.ordinal()];
+        if (window.size == 0) {
+            return 0;
+        }
+
+        System.arraycopy(window.samples, 0, sortBuffer, 0, window.size);
+        Arrays.sort(sortBuffer, 0, window.size);
+        int index = (int) Math.ceil(quantile * window.size) - 1;
+        return sortBuffer[Math.max(0, Math.min(index, window.size - 1))];
+    }
+
+    public long getMaxNanos(Stage stage) {
+        StageWindow window = windows[stage.ordinal()];
+        long max = 0;
+        for (int i = 0; i < window.size; i++) {
+            max = Math.max(max, window.samples[i]);
+        }
+        return max;
+    }
+
+    public int getSampleCount(Stage stage) {
+        return windows[stage.ordinal()].size;
+    }
+
+    /**
+     * 累计超过预算的样本数
+     */
+    public long getOverBudgetCount(Stage stage) {
+        return windows[stage.ordinal()].overBudgetCount;
+    }
+
+    /**
+     * 窗口内的p99是否超过预算
+     */
+    public boolean isOverBudget(Stage stage) {
+        long budgetNanos = MurderHelperMod.config.tickBudgetMicros * 1000L;
+        return budgetNanos > 0 && getPercentileNanos(stage, 0.99) > budgetNanos;
+    }
+
+    public void reset() {
+        for (StageWindow window : windows) {
+            window.next = 0;
+            window.size = 0;
+            window.overBudgetCount = 0;
+            window.lastWarnTick = -WINDOW_TICKS;
+        }
+        tickCount = 0;
+    }
+}
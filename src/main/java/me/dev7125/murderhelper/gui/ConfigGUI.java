@@ -1,12 +1,16 @@
 package me.dev7125.murderhelper.gui;
 
 import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.core.listener.EntityInterestFilter;
+import me.dev7125.murderhelper.core.listener.PacketListenerRegistry;
+import me.dev7125.murderhelper.core.listener.PacketMetricsExporter;
 import me.dev7125.murderhelper.handler.BowDropRenderHandler;
 import net.minecraft.client.gui.GuiButton;
 import net.minecraft.client.gui.GuiScreen;
 import net.minecraft.client.gui.GuiTextField;
 import net.minecraft.util.EnumChatFormatting;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
@@ -22,6 +26,8 @@ public class ConfigGUI extends GuiScreen {
     private static final int ALARM = 5;
     private static final int ENHANCED_HITBOXES = 6;
     private static final int SUSPECT_DETECTION = 13;
+    private static final int PACKET_METRICS = 14;
+    private static final int DUMP_METRICS = 15;
     private static final int SHOUT_MURDERER_TOGGLE = 7;
     private static final int EXPAND_MURDERER = 8;
     private static final int SHOUT_DROP_BOW_TOGGLE = 9;
@@ -50,6 +56,11 @@ public class ConfigGUI extends GuiScreen {
     private GuiButton expandMurdererButton;
     private GuiButton shoutDropBowToggleButton;
     private GuiButton expandDropBowButton;
+    private GuiButton packetMetricsButton;
+    private GuiButton dumpMetricsButton;
+
+    // 数据包队列统计的绘制位置
+    private int queueStatsY;
 
     private String[] renderNameTagsOptions = {"All Player", "Enemy Faction"};
 
@@ -186,11 +197,24 @@ public class ConfigGUI extends GuiScreen {
             dropBowReplaceExpanded = false;
         }
 
+        // 7. Packet Metrics | Dump Metrics (两个按钮)
+        packetMetricsButton = new GuiButton(PACKET_METRICS, centerX - fullWidth/2, currentY, halfWidth, buttonHeight,
+                "Packet Metrics: " + getToggleText(MurderHelperMod.config.packetMetricsOverlay));
+        this.buttonList.add(packetMetricsButton);
+
+        dumpMetricsButton = new GuiButton(DUMP_METRICS, centerX - fullWidth/2 + halfWidth + 10, currentY, halfWidth, buttonHeight,
+                "Dump Metrics CSV");
+        this.buttonList.add(dumpMetricsButton);
+        currentY += spacing;
+
         currentY += 5; // 额外间距
 
-        // 7. Save | Back (两个按钮)
+        // 8. Save | Back (两个按钮)
         this.buttonList.add(new GuiButton(SAVE_BUTTON, centerX - fullWidth/2, currentY, halfWidth, buttonHeight, "Save"));
         this.buttonList.add(new GuiButton(BACK_BUTTON, centerX - fullWidth/2 + halfWidth + 10, currentY, halfWidth, buttonHeight, "Back"));
+        currentY += spacing;
+
+        queueStatsY = currentY;
     }
 
     private String getToggleText(boolean enabled) {
@@ -236,6 +260,22 @@ public class ConfigGUI extends GuiScreen {
                 button.displayString = "Suspect Detection: " + getToggleText(MurderHelperMod.config.suspectDetection);
                 break;
 
+            case PACKET_METRICS:
+                MurderHelperMod.config.packetMetricsOverlay = !MurderHelperMod.config.packetMetricsOverlay;
+                button.displayString = "Packet Metrics: " + getToggleText(MurderHelperMod.config.packetMetricsOverlay);
+                break;
+
+            case DUMP_METRICS:
+                try {
+                    File file = PacketMetricsExporter.dumpCsv();
+                    button.displayString = EnumChatFormatting.GREEN + "Saved " + file.getName();
+                    MurderHelperMod.logger.info("[PacketMetrics] Dumped to {}", file);
+                } catch (IOException e) {
+                    button.displayString = EnumChatFormatting.RED + "Dump failed";
+                    MurderHelperMod.logger.error("[PacketMetrics] Failed to dump metrics", e);
+                }
+                break;
+
             case SHOUT_MURDERER_TOGGLE:
                 MurderHelperMod.config.shoutEnabled = !MurderHelperMod.config.shoutEnabled;
                 button.displayString = "Shout Murderer: " + getToggleText(MurderHelperMod.config.shoutEnabled);
@@ -391,6 +431,12 @@ public class ConfigGUI extends GuiScreen {
                 return Arrays.asList("Toggle automatic suspect detection",
                         "When enabled, players near corpses",
                         "will be marked as suspects");
+            case PACKET_METRICS:
+                return Arrays.asList("Show packet queue delay and",
+                        "per-listener timings in the top-right corner");
+            case DUMP_METRICS:
+                return Arrays.asList("Write the packet timing histograms",
+                        "to config/murderhelper/metrics as CSV");
             case SHOUT_MURDERER_TOGGLE:
                 return Arrays.asList("Detected a murderer and automatically",
                         "sends a template message in chat");
@@ -506,6 +552,15 @@ public class ConfigGUI extends GuiScreen {
             }
         }
 
+        // 绘制数据包队列统计
+        this.drawCenteredString(this.fontRendererObj, String.format("Packet Queue: %d/%d | Dropped: %d | Coalesced: %d | Spilled: %d | Max Lag: %dms",
+                PacketListenerRegistry.getBacklog(), PacketListenerRegistry.getQueueCapacity(),
+                PacketListenerRegistry.getDroppedCount(), PacketListenerRegistry.getCoalescedCount(),
+                PacketListenerRegistry.getSpilledCount(), PacketListenerRegistry.getMaxLagMs()),
+                this.width / 2, queueStatsY, 0x808080);
+        this.drawCenteredString(this.fontRendererObj, "Filtered (untracked entities): " + EntityInterestFilter.getFilteredCount(),
+                this.width / 2, queueStatsY + 10, 0x808080);
+
         super.drawScreen(mouseX, mouseY, partialTicks);
 
         // 绘制鼠标悬浮提示
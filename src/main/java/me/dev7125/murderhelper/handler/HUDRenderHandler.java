@@ -3,6 +3,7 @@ package me.dev7125.murderhelper.handler;
 import me.dev7125.murderhelper.MurderHelperMod;
 import me.dev7125.murderhelper.game.BowShotDetector;
 import me.dev7125.murderhelper.game.KnifeThrownDetector;
+import me.dev7125.murderhelper.game.PlayerSnapshot;
 import me.dev7125.murderhelper.render.MurderMysteryHUD;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.ScaledResolution;
@@ -65,7 +66,7 @@ public class HUDRenderHandler {
             double distance = mc.thePlayer.getDistanceToEntity(closestEnemy);
 
             // 渲染HUD窗口
-            hud.render(closestEnemy, weapon, distance);
+            hud.render(closestEnemy, weapon, distance, event.resolution);
         }
     }
 
@@ -118,34 +119,14 @@ public class HUDRenderHandler {
             return null;
         }
 
-        EntityPlayer closestEnemy = null;
-        double closestDistance = Double.MAX_VALUE;
-
-        // 遍历所有玩家
-        for (EntityPlayer player : mc.theWorld.playerEntities) {
-            // 跳过自己
-            if (player == mc.thePlayer) {
-                continue;
-            }
-
-            // 只检查在Tab列表中的玩家（过滤NPC和死亡玩家）
-            if (!MurderHelperMod.gameState.isRealPlayer(player)) {
-                continue;
-            }
-
-            // 检查是否是敌人
-            if (MurderHelperMod.isEnemy(player.getName())) {
-                double distance = mc.thePlayer.getDistanceToEntity(player);
-
-                // 更新最近的敌人
-                if (distance < closestDistance) {
-                    closestDistance = distance;
-                    closestEnemy = player;
-                }
-            }
+        // 渲染帧复用最近一次tick构建的玩家快照，不再每帧遍历playerEntities
+        PlayerSnapshot snapshot = MurderHelperMod.playerSnapshot;
+        if (!snapshot.isValidFor(mc.theWorld)) {
+            return null;
         }
 
-        return closestEnemy;
+        int index = snapshot.findClosestEnemy(Double.MAX_VALUE);
+        return index < 0 ? null : snapshot.getPlayer(index);
     }
 
     /**
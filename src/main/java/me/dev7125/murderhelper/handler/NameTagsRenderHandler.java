@@ -3,19 +3,31 @@ package me.dev7125.murderhelper.handler;
 import me.dev7125.murderhelper.MurderHelperMod;
 import me.dev7125.murderhelper.render.NametagRenderer;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.client.renderer.entity.RenderManager;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraftforge.client.event.RenderWorldLastEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * 渲染处理器
  * 负责决定何时渲染什么内容，具体渲染工作委托给专门的Renderer类
+ * 视锥外和超过 nametagMaxDistance 的玩家不产生任何GL调用；超过 nametagMarkerDistance 的只绘制彩色标记
  */
 public class NameTagsRenderHandler {
 
+    // 名牌在玩家头顶上方，视锥检测时把碰撞箱向上扩展
+    private static final double NAMETAG_BOX_EXPAND_UP = 1.0D;
+
+    /**
+     * 名牌细节级别
+     */
+    private enum Detail {
+        NONE,
+        MARKER,
+        FULL
+    }
+
     @SubscribeEvent
     public void onRenderWorldLast(RenderWorldLastEvent event) {
         // 只有游戏真正开始后才渲染名牌
@@ -30,54 +42,68 @@ public class NameTagsRenderHandler {
             return;
         }
 
-        // 用于本次渲染循环去重（避免渲染重复的玩家实体）
-        Set<String> renderedPlayers = new HashSet<>();
+        // 与原版实体渲染相同：每帧从当前投影和模型视图矩阵构建视锥
+        RenderManager renderManager = mc.getRenderManager();
+        Frustum frustum = new Frustum();
+        frustum.setPosition(renderManager.viewerPosX, renderManager.viewerPosY, renderManager.viewerPosZ);
+
+        // 合批模式下先收集所有命名牌，循环结束后一次绘制
+        boolean batched = MurderHelperMod.config.batchedNametags;
+        if (batched) {
+            NametagRenderer.beginBatch();
+        }
 
         // 遍历所有玩家实体，渲染自定义命名牌
+        // 是否渲染（真实玩家、模式、同名去重）已在tick结束时由 NametagDecisions 决定
         for (EntityPlayer player : mc.theWorld.playerEntities) {
-            if (player == null) continue;
-
-            String playerName = player.getName();
-
-            // 跳过自己
-            if (player == mc.thePlayer) continue;
-
-            // 只渲染真实玩家（从GameStateManager的真实玩家列表），过滤NPC
-            if (!MurderHelperMod.gameState.isRealPlayer(playerName)) {
+            if (player == null || !MurderHelperMod.nametagDecisions.shouldRender(player.getEntityId())) {
                 continue;
             }
 
-            // 防止重复渲染（游戏胜利后会复制多份相同玩家实体）
-            if (renderedPlayers.contains(playerName)) {
+            Detail detail = getDetail(mc, frustum, player);
+            if (detail == Detail.NONE) {
                 continue;
             }
 
-            // 判断是否应该渲染命名牌
-            if (shouldRenderNametag(player)) {
-                // 委托给NametagRenderer进行实际渲染
+            // 委托给NametagRenderer进行实际渲染
+            if (detail == Detail.MARKER) {
+                if (batched) {
+                    NametagRenderer.addThroughWallMarker(player, event.partialTicks);
+                } else {
+                    NametagRenderer.renderThroughWallMarker(player, event.partialTicks);
+                }
+            } else if (batched) {
+                NametagRenderer.addThroughWallNametag(player, event.partialTicks);
+            } else {
                 NametagRenderer.renderThroughWallNametag(player, event.partialTicks);
-
-                // 标记该玩家已渲染
-                renderedPlayers.add(playerName);
             }
         }
+
+        if (batched) {
+            NametagRenderer.flushBatch();
+        }
     }
 
     /**
-     * 判断是否应该渲染命名牌
-     * 必须和 MixinRendererLivingEntity.shouldRenderCustomNameTag() 保持一致
-     *
-     * @param player 要判断的玩家
-     * @return 是否应该渲染
+     * 根据距离和视锥决定名牌的细节级别
+     * 超过最大距离或不在视锥内时不渲染，超过标记距离时只渲染标记
      */
-    private boolean shouldRenderNametag(EntityPlayer player) {
-        switch (MurderHelperMod.config.renderNameTags) {
-            case 0: // All Player - 所有玩家
-                return true;
-            case 1: // Enemy Faction - 只显示敌对阵营
-                return MurderHelperMod.isEnemy(player.getName());
-            default:
-                return false;
+    private Detail getDetail(Minecraft mc, Frustum frustum, EntityPlayer player) {
+        double distanceSq = mc.thePlayer.getDistanceSqToEntity(player);
+
+        int maxDistance = MurderHelperMod.config.nametagMaxDistance;
+        if (maxDistance > 0 && distanceSq > (double) maxDistance * maxDistance) {
+            return Detail.NONE;
+        }
+
+        if (!frustum.isBoundingBoxInFrustum(player.getEntityBoundingBox().addCoord(0.0D, NAMETAG_BOX_EXPAND_UP, 0.0D))) {
+            return Detail.NONE;
+        }
+
+        int markerDistance = MurderHelperMod.config.nametagMarkerDistance;
+        if (markerDistance > 0 && distanceSq > (double) markerDistance * markerDistance) {
+            return Detail.MARKER;
         }
+        return Detail.FULL;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package me.dev7125.murderhelper.handler;
+
+import me.dev7125.murderhelper.MurderHelperMod;
+import me.dev7125.murderhelper.core.listener.LatencyHistogram;
+import me.dev7125.murderhelper.core.listener.PacketListenerRegistry;
+import me.dev7125.murderhelper.game.TickProfiler;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.gui.ScaledResolution;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import java.util.Locale;
+
+/**
+ * 数据包管线调试覆盖层（配置 packetMetricsOverlay 开启）
+ * 在屏幕右上角显示排队延迟和各监听方法的调用次数、p50/p99/最大耗时（微秒），
+ * 以及 onClientTick 各阶段在滚动窗口内的耗时（p99超过 tickBudgetMicros 的阶段标红）
+ */
+public class PacketMetricsOverlayHandler {
+
+    private static final int LINE_HEIGHT = 10;
+    private static final int MARGIN = 2;
+
+    private final Minecraft mc = Minecraft.getMinecraft();
+
+    @SubscribeEvent
+    public void onRenderGameOverlay(RenderGameOverlayEvent.Post event) {
+        if (event.type != RenderGameOverlayEvent.ElementType.ALL) {
+            return;
+        }
+
+        // F3调试界面打开时不叠加显示
+        if (!MurderHelperMod.config.packetMetricsOverlay || mc.gameSettings.showDebugInfo) {
+            return;
+        }
+
+        FontRenderer font = mc.fontRendererObj;
+        int right = new ScaledResolution(mc).getScaledWidth() - MARGIN;
+        int y = MARGIN;
+
+        y = drawLine(font, String.format(Locale.ROOT, "Backlog %d/%d  Dropped %d  Max lag %dms",
+                PacketListenerRegistry.getBacklog(), PacketListenerRegistry.getQueueCapacity(),
+                PacketListenerRegistry.getDroppedCount(), PacketListenerRegistry.getMaxLagMs()),
+                right, y, 0xFFFFFF);
+        y = drawHistogram(font, PacketListenerRegistry.getQueueDelay(), right, y, 0xFFFF55);
+
+        for (LatencyHistogram latency : PacketListenerRegistry.getHandlerLatencies()) {
+            if (latency.getCount() > 0) {
+                y = drawHistogram(font, latency, right, y, 0xAAAAAA);
+            }
+        }
+
+        TickProfiler profiler = MurderHelperMod.tickProfiler;
+        for (TickProfiler.Stage stage : TickProfiler.Stage.values()) {
+            int samples = profiler.getSampleCount(stage);
+            if (samples == 0) {
+                continue;
+            }
+            String text = String.format(Locale.ROOT, "tick.%s  n=%d  p50 %.1f  p99 %.1f  max %.1f us",
+                    stage.getLabel(), samples,
+                    profiler.getPercentileNanos(stage, 0.50) / 1000.0,
+                    profiler.getPercentileNanos(stage, 0.99) / 1000.0,
+                    profiler.getMaxNanos(stage) / 1000.0);
+            y = drawLine(font, text, right, y, profiler.isOverBudget(stage) ? 0xFF5555 : 0x55FFFF);
+        }
+    }
+
+    private int drawHistogram(FontRenderer font, LatencyHistogram histogram, int right, int y, int color) {
+        String text = String.format(Locale.ROOT, "%s  n=%d  p50 %.1f  p99 %.1f  max %.1f us",
+                histogram.getName(), histogram.getCount(),
+                histogram.getPercentileNanos(0.50) / 1000.0,
+                histogram.getPercentileNanos(0.99) / 1000.0,
+                histogram.getMaxNanos() / 1000.0);
+        return drawLine(font, text, right, y, color);
+    }
+
+    private int drawLine(FontRenderer font, String text, int right, int y, int color) {
+        font.drawStringWithShadow(text, right - font.getStringWidth(text), y, color);
+        return y + LINE_HEIGHT;
+    }
+}
@@ -1,7 +1,6 @@
 package me.dev7125.murderhelper.mixins;
 
 import me.dev7125.murderhelper.MurderHelperMod;
-import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.entity.RendererLivingEntity;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.entity.player.EntityPlayer;
@@ -12,7 +11,7 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 /**
  * Mixin类用于拦截原版实体名字牌渲染
- * 只有在满足所有条件时才会拦截
+ * 只有在满足所有条件时才会拦截（条件见 NametagDecisions）
  */
 @Mixin(RendererLivingEntity.class)
 public class MixinRendererLivingEntity {
@@ -32,57 +31,11 @@ public class MixinRendererLivingEntity {
             double z,
             CallbackInfo ci
     ) {
-        // 第一步：检查是否是玩家实体
-        if (!(entity instanceof EntityPlayer)) {
-            return; // 不是玩家，不处理
-        }
-
-        // 第二步：检查所有前提条件（必须和 RenderHandler 保持一致）
-        if (!MurderHelperMod.config.globalEnabled ||
-                !MurderHelperMod.gameState.isInGame() ||
-                !MurderHelperMod.isGameActuallyStarted()) {
-            return; // 条件不满足，使用原版渲染
-        }
-
-        // 第三步：不处理自己的名字牌
-        EntityPlayer player = (EntityPlayer) entity;
-        Minecraft mc = Minecraft.getMinecraft();
-        if (mc.thePlayer != null && player == mc.thePlayer) {
-            return; // 是自己，不处理
-        }
-
-        // 第四步：检查玩家是否在Tab列表中（过滤NPC和死亡玩家）
-        if (!MurderHelperMod.gameState.isRealPlayer(player)) {
-            // 不在真实玩家列表中，让原版继续渲染（不取消）
-            return;
-        }
-
-        // 第五步：根据配置判断是否应该渲染自定义命名牌
-        if (shouldRenderCustomNameTag(player)) {
+        // 决策在tick结束时按实体ID算好（和 NameTagsRenderHandler 共用），这里只查一次表
+        if (entity instanceof EntityPlayer &&
+                MurderHelperMod.nametagDecisions.isCustomTag(entity.getEntityId())) {
             // 取消原版渲染！我们会在RenderHandler中渲染自定义命名牌
             ci.cancel();
         }
-        // 如果不应该渲染自定义命名牌，则不取消，让原版继续渲染
-    }
-
-    /**
-     * 判断是否应该渲染自定义命名牌
-     * 必须和 RenderHandler.shouldRenderNametag() 保持一致
-     */
-    private boolean shouldRenderCustomNameTag(EntityPlayer player) {
-        String playerName = player.getName();
-
-        switch (MurderHelperMod.config.renderNameTags) {
-            case 0:
-                // All Player - 所有玩家都用自定义命名牌
-                return true;
-
-            case 1:
-                // Enemy Faction - 只有敌对阵营用自定义命名牌
-                return MurderHelperMod.isEnemy(playerName);
-
-            default:
-                return false;
-        }
     }
-}
\ No newline at end of file
+}
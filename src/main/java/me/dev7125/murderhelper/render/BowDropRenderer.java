@@ -3,9 +3,14 @@ package me.dev7125.murderhelper.render;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.FontRenderer;
 import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.WorldRenderer;
 import net.minecraft.client.renderer.entity.RenderManager;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import org.lwjgl.opengl.GL11;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 弓箭掉落物穿墙渲染工具类
  * 优化版本：直接基于坐标渲染，无需依赖实体对象
@@ -14,6 +19,10 @@ public class BowDropRenderer {
 
     private static final Minecraft mc = Minecraft.getMinecraft();
 
+    // 背景网格缓存（文字半宽 -> 网格），文字宽度变化时才构建新网格
+    private static final Map<Integer, CachedMesh> backgroundMeshes = new HashMap<>();
+    private static final int MAX_CACHED_BACKGROUNDS = 32;
+
     /**
      * 渲染弓箭掉落物的黄色穿墙文字（基于坐标）
      *
@@ -84,14 +93,8 @@ public class BowDropRenderer {
         int textWidth = fontRenderer.getStringWidth(text);
         int halfWidth = textWidth / 2;
 
-        // 绘制半透明黑色背景
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glColor4f(0.0F, 0.0F, 0.0F, 0.5F); // 黑色，50%透明度
-        GL11.glVertex3f(-halfWidth - 1, -1, 0);
-        GL11.glVertex3f(-halfWidth - 1, 8, 0);
-        GL11.glVertex3f(halfWidth + 1, 8, 0);
-        GL11.glVertex3f(halfWidth + 1, -1, 0);
-        GL11.glEnd();
+        // 绘制半透明黑色背景（缓存的网格）
+        getBackgroundMesh(halfWidth).draw();
 
         // 启用纹理以绘制文字
         GlStateManager.enableTexture2D();
@@ -114,4 +117,34 @@ public class BowDropRenderer {
         // 恢复OpenGL状态
         GL11.glPopMatrix();
     }
+
+    /**
+     * 获取指定文字半宽的背景网格（不存在时构建）
+     */
+    private static CachedMesh getBackgroundMesh(int halfWidth) {
+        CachedMesh mesh = backgroundMeshes.get(halfWidth);
+        if (mesh != null) {
+            return mesh;
+        }
+
+        // 缓存过多时全部释放（文字宽度只随秒数和距离的位数变化，正常不会达到上限）
+        if (backgroundMeshes.size() >= MAX_CACHED_BACKGROUNDS) {
+            for (CachedMesh cached : backgroundMeshes.values()) {
+                cached.delete();
+            }
+            backgroundMeshes.clear();
+        }
+
+        mesh = new CachedMesh(DefaultVertexFormats.POSITION_COLOR);
+        WorldRenderer worldRenderer = mesh.begin();
+        // 黑色，50%透明度
+        worldRenderer.pos(-halfWidth - 1, -1, 0).color(0.0F, 0.0F, 0.0F, 0.5F).endVertex();
+        worldRenderer.pos(-halfWidth - 1, 8, 0).color(0.0F, 0.0F, 0.0F, 0.5F).endVertex();
+        worldRenderer.pos(halfWidth + 1, 8, 0).color(0.0F, 0.0F, 0.0F, 0.5F).endVertex();
+        worldRenderer.pos(halfWidth + 1, -1, 0).color(0.0F, 0.0F, 0.0F, 0.5F).endVertex();
+        mesh.end();
+
+        backgroundMeshes.put(halfWidth, mesh);
+        return mesh;
+    }
 }
@@ -0,0 +1,138 @@
+package me.dev7125.murderhelper.render;
+
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.renderer.vertex.VertexBuffer;
+import net.minecraft.client.renderer.vertex.VertexFormat;
+import org.lwjgl.opengl.GL11;
+
+/**
+ * 缓存的四边形几何体
+ * 顶点通过 WorldRenderer 只构建一次，之后每帧只重新提交：
+ * 支持VBO时上传到顶点缓冲，否则编译为显示列表（与原版区块渲染的选择方式一致）
+ * 顶点格式只支持 POSITION_COLOR 和 POSITION_TEX
+ *
+ * 用法: WorldRenderer wr = mesh.begin(); wr.pos(...).color(...).endVertex(); ... mesh.end(); 之后每帧 mesh.draw()
+ * 只在渲染线程访问
+ */
+public class CachedMesh {
+
+    // 构建VBO用的顶点缓冲（所有网格共用，构建完立即上传）；显示列表直接用Tessellator编译
+    private static final WorldRenderer BUILDER = new WorldRenderer(1024);
+
+    // 位置（3个float）之后的偏移
+    private static final long ATTRIBUTE_OFFSET = 12L;
+
+    private final VertexFormat format;
+    private final boolean colored;
+
+    private VertexBuffer vertexBuffer;
+    private int displayList = -1;
+
+    public CachedMesh(VertexFormat format) {
+        if (format != DefaultVertexFormats.POSITION_COLOR && format != DefaultVertexFormats.POSITION_TEX) {
+            throw new IllegalArgumentException("Unsupported vertex format");
+        }
+        this.format = format;
+        this.colored = format == DefaultVertexFormats.POSITION_COLOR;
+    }
+
+    // ==================== 构建 ====================
+
+    /**
+     * 开始构建（丢弃之前的几何体）
+     * @return 写入顶点用的 WorldRenderer（GL_QUADS）
+     */
+    public WorldRenderer begin() {
+        delete();
+
+        if (OpenGlHelper.useVbo()) {
+            vertexBuffer = new VertexBuffer(format);
+            BUILDER.begin(GL11.GL_QUADS, format);
+            return BUILDER;
+        }
+
+        displayList = GLAllocation.generateDisplayLists(1);
+        GL11.glNewList(displayList, GL11.GL_COMPILE);
+        WorldRenderer worldRenderer = Tessellator.getInstance().getWorldRenderer();
+        worldRenderer.begin(GL11.GL_QUADS, format);
+        return worldRenderer;
+    }
+
+    /**
+     * 结束构建并上传
+     */
+    public void end() {
+        if (vertexBuffer != null) {
+            BUILDER.finishDrawing();
+            BUILDER.reset();
+            vertexBuffer.bufferData(BUILDER.getByteBuffer());
+        } else if (displayList >= 0) {
+            Tessellator.getInstance().draw();
+            GL11.glEndList();
+        }
+    }
+
+    public boolean isBuilt() {
+        return vertexBuffer != null || displayList >= 0;
+    }
+
+    // ==================== 绘制 ====================
+
+    /**
+     * 提交缓存的几何体（使用当前的矩阵、纹理和混合状态）
+     */
+    public void draw() {
+        if (vertexBuffer != null) {
+            int stride = format.getNextOffset();
+
+            vertexBuffer.bindBuffer();
+            GL11.glVertexPointer(3, GL11.GL_FLOAT, stride, 0L);
+            GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+            if (colored) {
+                GL11.glColorPointer(4, GL11.GL_UNSIGNED_BYTE, stride, ATTRIBUTE_OFFSET);
+                GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+            } else {
+                GL11.glTexCoordPointer(2, GL11.GL_FLOAT, stride, ATTRIBUTE_OFFSET);
+                GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+            }
+
+            vertexBuffer.drawArrays(GL11.GL_QUADS);
+            vertexBuffer.unbindBuffer();
+
+            GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+            if (colored) {
+                GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+            } else {
+                GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+            }
+        } else if (displayList >= 0) {
+            GlStateManager.callList(displayList);
+        } else {
+            return;
+        }
+
+        // 颜色数组会改变当前颜色，让GlStateManager的缓存失效
+        if (colored) {
+            GlStateManager.resetColor();
+        }
+    }
+
+    /**
+     * 释放GL资源
+     */
+    public void delete() {
+        if (vertexBuffer != null) {
+            vertexBuffer.deleteGlBuffers();
+            vertexBuffer = null;
+        }
+        if (displayList >= 0) {
+            GLAllocation.deleteDisplayLists(displayList);
+            displayList = -1;
+        }
+    }
+}
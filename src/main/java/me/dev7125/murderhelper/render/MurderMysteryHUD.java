@@ -10,7 +10,9 @@ import net.minecraft.client.gui.Gui;
 import net.minecraft.client.gui.ScaledResolution;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.RenderHelper;
+import net.minecraft.client.renderer.WorldRenderer;
 import net.minecraft.client.renderer.entity.RenderItem;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.ResourceLocation;
@@ -20,6 +22,7 @@ import org.lwjgl.opengl.GL11;
 /**
  * 密室谋杀游戏 - 可拖动玩家信息窗口
  * 垂直滑块 + 自适应宽度
+ * 窗口内容缓存在离屏帧缓冲中，目标、武器、状态、冷却（0.1秒）、距离等输入变化时才重新渲染
  */
 public class MurderMysteryHUD {
 
@@ -56,6 +59,62 @@ public class MurderMysteryHUD {
     private static final double SAFE_DISTANCE = 50.0;
     private static final double DANGER_DISTANCE = 10.0;
 
+    // 玩家头像网格（大小不变时复用）
+    private CachedMesh headMesh;
+    private int headMeshSize = -1;
+
+    // 离屏缓存：窗口内容只在输入模型变化时重新渲染，其余帧只绘制一个纹理四边形
+    private final OffscreenLayer layer = new OffscreenLayer();
+    private HudModel renderedModel = new HudModel();
+    private HudModel pendingModel = new HudModel();
+    private boolean layerValid = false;
+
+    /**
+     * 窗口内容的输入模型
+     * 只保存决定显示内容的值（数值按显示精度取整），相同则复用上一次渲染的纹理
+     */
+    private static class HudModel {
+        EntityPlayer target;
+        ResourceLocation skin;
+        ItemStack weapon;
+        ItemStack lastKnownWeapon;
+        MurderHelperMod.PlayerRole role;
+        Enum<?> holdingState;
+        Enum<?> weaponState;
+        Enum<?> shotState;
+        boolean holdingWeapon;
+        long cooldownTenths;
+        long distanceTenths;
+        long knifeDistanceTenths;
+        long arrowDistanceTenths;
+        long coordX;
+        long coordY;
+        long coordZ;
+        int bgAlpha;
+        int scaleFactor;
+
+        boolean sameAs(HudModel other) {
+            return target == other.target
+                    && skin == other.skin
+                    && ItemStack.areItemStacksEqual(weapon, other.weapon)
+                    && ItemStack.areItemStacksEqual(lastKnownWeapon, other.lastKnownWeapon)
+                    && role == other.role
+                    && holdingState == other.holdingState
+                    && weaponState == other.weaponState
+                    && shotState == other.shotState
+                    && holdingWeapon == other.holdingWeapon
+                    && cooldownTenths == other.cooldownTenths
+                    && distanceTenths == other.distanceTenths
+                    && knifeDistanceTenths == other.knifeDistanceTenths
+                    && arrowDistanceTenths == other.arrowDistanceTenths
+                    && coordX == other.coordX
+                    && coordY == other.coordY
+                    && coordZ == other.coordZ
+                    && bgAlpha == other.bgAlpha
+                    && scaleFactor == other.scaleFactor;
+        }
+    }
+
     public MurderMysteryHUD(KnifeThrownDetector weaponDetector, BowShotDetector bowShotDetector) {
         this.mc = Minecraft.getMinecraft();
         this.knifeThrownDetector = weaponDetector;
@@ -66,15 +125,152 @@ public class MurderMysteryHUD {
      * 渲染主窗口
      */
     public void render(EntityPlayer targetPlayer, ItemStack weapon, double distance) {
+        render(targetPlayer, weapon, distance, new ScaledResolution(mc));
+    }
+
+    /**
+     * 渲染主窗口（使用覆盖层事件提供的分辨率）
+     * 支持帧缓冲时，窗口内容渲染到离屏层并在输入模型不变时直接复用；透明度滑块每帧直接绘制
+     */
+    public void render(EntityPlayer targetPlayer, ItemStack weapon, double distance, ScaledResolution sr) {
         if (targetPlayer == null || mc.thePlayer == null) return;
 
-        ScaledResolution sr = new ScaledResolution(mc);
+        if (!OffscreenLayer.isSupported()) {
+            layerValid = false;
+
+            // 计算需要的宽度
+            currentWindowWidth = calculateWindowWidth(targetPlayer, weapon);
+            clampWindowPosition(sr);
+            drawWindow(targetPlayer, weapon, distance);
+            drawSlider();
+            return;
+        }
+
+        captureModel(pendingModel, targetPlayer, weapon, distance, sr.getScaleFactor());
+
+        if (!layerValid || !pendingModel.sameAs(renderedModel)) {
+            // 计算需要的宽度
+            currentWindowWidth = calculateWindowWidth(targetPlayer, weapon);
+            clampWindowPosition(sr);
+
+            layer.begin(windowX, windowY, currentWindowWidth, WINDOW_HEIGHT, sr.getScaleFactor());
+            drawWindow(targetPlayer, weapon, distance);
+            layer.end();
+
+            HudModel swap = renderedModel;
+            renderedModel = pendingModel;
+            pendingModel = swap;
+            layerValid = true;
+        } else {
+            clampWindowPosition(sr);
+        }
+
+        GlStateManager.disableDepth();
+        layer.draw(windowX, windowY);
+        GlStateManager.enableDepth();
+        GlStateManager.disableBlend();
+
+        drawSlider();
+    }
+
+    /**
+     * 填充输入模型（与 drawWindow 显示的内容对应）
+     */
+    private void captureModel(HudModel model, EntityPlayer targetPlayer, ItemStack weapon,
+                              double distance, int scaleFactor) {
+        MurderHelperMod.PlayerRole role = MurderHelperMod.getPlayerRole(targetPlayer);
+
+        model.target = targetPlayer;
+        model.skin = targetPlayer instanceof AbstractClientPlayer
+                ? ((AbstractClientPlayer) targetPlayer).getLocationSkin() : null;
+        model.weapon = weapon;
+        model.lastKnownWeapon = weapon == null ? MurderHelperMod.playerTracker.getPlayerWeapon(targetPlayer) : null;
+        model.role = role;
+        model.holdingState = null;
+        model.weaponState = null;
+        model.shotState = null;
+        model.holdingWeapon = false;
+        model.cooldownTenths = -1;
+        model.distanceTenths = Math.round(distance * 10);
+        model.knifeDistanceTenths = -1;
+        model.arrowDistanceTenths = -1;
+        model.coordX = Math.round(targetPlayer.posX);
+        model.coordY = Math.round(targetPlayer.posY);
+        model.coordZ = Math.round(targetPlayer.posZ);
+        model.bgAlpha = bgAlpha;
+        model.scaleFactor = scaleFactor;
+
+        if (role == MurderHelperMod.PlayerRole.MURDERER) {
+            KnifeThrownDetector.WeaponInfo info = knifeThrownDetector.getWeaponInfo(targetPlayer.getName());
+            if (info != null) {
+                model.holdingState = info.getHoldingState();
+                model.weaponState = info.getKnifeState();
+                if (info.getKnifeState() == KnifeThrownDetector.KnifeState.COOLDOWN) {
+                    model.cooldownTenths = getCooldownTenths(info.getCooldownRemainingSeconds());
+                } else if (info.getKnifeState() == KnifeThrownDetector.KnifeState.IN_FLIGHT
+                        && info.projectile != null && info.projectile.position != null) {
+                    Vec3 knifePos = info.projectile.position;
+                    model.knifeDistanceTenths = Math.round(Math.sqrt(
+                            Math.pow(knifePos.xCoord - mc.thePlayer.posX, 2) +
+                                    Math.pow(knifePos.yCoord - mc.thePlayer.posY, 2) +
+                                    Math.pow(knifePos.zCoord - mc.thePlayer.posZ, 2)) * 10);
+                }
+            }
+        } else if (role == MurderHelperMod.PlayerRole.SHOOTER || role == MurderHelperMod.PlayerRole.DETECTIVE) {
+            BowShotDetector.BowInfo bowInfo = bowShotDetector.getBowInfo(targetPlayer.getName());
+            if (bowInfo != null) {
+                model.holdingState = bowInfo.getHoldingState();
+                model.weaponState = bowInfo.getDrawState();
+                model.shotState = bowInfo.getShotState();
+                if (bowInfo.getDrawState() == BowShotDetector.DrawState.NONE
+                        && bowInfo.getShotState() == BowShotDetector.ShotState.COOLDOWN) {
+                    model.cooldownTenths = getCooldownTenths(bowInfo.getCooldownRemainingSeconds());
+                }
+            } else {
+                model.holdingWeapon = isHoldingWeapon(targetPlayer, weapon);
+            }
+
+            BowShotDetector.ArrowInfo nearestArrow = bowShotDetector.getNearestArrowToLocalPlayer(targetPlayer.getName());
+            if (nearestArrow != null) {
+                model.arrowDistanceTenths = Math.round(nearestArrow.getDistanceToPlayer(mc.thePlayer) * 10);
+            }
+        } else {
+            model.holdingWeapon = isHoldingWeapon(targetPlayer, weapon);
+        }
+    }
+
+    /**
+     * 冷却剩余时间（0.1秒精度），已结束时为-1（显示Ready）
+     */
+    private long getCooldownTenths(double cooldown) {
+        return cooldown <= 0 ? -1 : Math.round(cooldown * 10);
+    }
+
+    private boolean isHoldingWeapon(EntityPlayer player, ItemStack weapon) {
+        ItemStack heldItem = player.getHeldItem();
+        return weapon != null && heldItem != null && areItemStacksEqual(weapon, heldItem);
+    }
+
+    /**
+     * 绘制透明度滑块（不进入离屏缓存，拖动时即时更新）
+     */
+    private void drawSlider() {
+        GlStateManager.pushMatrix();
+        GlStateManager.enableBlend();
+        GlStateManager.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        GlStateManager.disableDepth();
 
-        // 计算需要的宽度
-        currentWindowWidth = calculateWindowWidth(targetPlayer, weapon);
+        drawOpacitySlider();
 
-        clampWindowPosition(sr);
+        GlStateManager.enableDepth();
+        GlStateManager.disableBlend();
+        GlStateManager.popMatrix();
+    }
 
+    /**
+     * 绘制窗口内容（背景、边框、头像、文字和物品，不含滑块）
+     */
+    private void drawWindow(EntityPlayer targetPlayer, ItemStack weapon, double distance) {
         int borderColor = calculateBorderColor(distance);
         int bgColor = (bgAlpha << 24) | 0x000000;
 
@@ -168,9 +364,6 @@ public class MurderMysteryHUD {
                 targetPlayer.posX, targetPlayer.posY, targetPlayer.posZ);
         mc.fontRendererObj.drawStringWithShadow(coordText, contentX, contentY, 0xFFFFFF);
 
-        // 绘制垂直透明度滑块（右侧）
-        drawOpacitySlider();
-
         GlStateManager.enableDepth();
         GlStateManager.disableBlend();
         GlStateManager.popMatrix();
@@ -608,8 +801,8 @@ public class MurderMysteryHUD {
         mc.getTextureManager().bindTexture(skinLocation);
 
         GlStateManager.enableBlend();
-        drawScaledCustomSizeModalRect(x, y, 8.0F, 8.0F, 8, 8, size, size, 64.0F, 64.0F);
-        drawScaledCustomSizeModalRect(x, y, 40.0F, 8.0F, 8, 8, size, size, 64.0F, 64.0F);
+        GlStateManager.translate((float) x, (float) y, 0.0F);
+        getHeadMesh(size).draw();
 
         GlStateManager.disableBlend();
         GlStateManager.popMatrix();
@@ -735,22 +928,36 @@ public class MurderMysteryHUD {
     }
 
     /**
-     * 绘制缩放的自定义UV矩形
+     * 获取指定大小的头像网格（脸和帽子层，原点为左上角），大小变化时才重新构建
      */
-    private void drawScaledCustomSizeModalRect(int x, int y, float u, float v, int uWidth, int vHeight,
-                                               int width, int height, float tileWidth, float tileHeight) {
+    private CachedMesh getHeadMesh(int size) {
+        if (headMesh != null && headMeshSize == size) {
+            return headMesh;
+        }
+
+        if (headMesh == null) {
+            headMesh = new CachedMesh(DefaultVertexFormats.POSITION_TEX);
+        }
+        WorldRenderer worldRenderer = headMesh.begin();
+        addScaledCustomSizeModalRect(worldRenderer, 0, 0, 8.0F, 8.0F, 8, 8, size, size, 64.0F, 64.0F);
+        addScaledCustomSizeModalRect(worldRenderer, 0, 0, 40.0F, 8.0F, 8, 8, size, size, 64.0F, 64.0F);
+        headMesh.end();
+        headMeshSize = size;
+        return headMesh;
+    }
+
+    /**
+     * 写入缩放的自定义UV矩形
+     */
+    private void addScaledCustomSizeModalRect(WorldRenderer worldRenderer, int x, int y, float u, float v,
+                                              int uWidth, int vHeight, int width, int height,
+                                              float tileWidth, float tileHeight) {
         float f = 1.0F / tileWidth;
         float f1 = 1.0F / tileHeight;
 
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glTexCoord2f(u * f, (v + vHeight) * f1);
-        GL11.glVertex2f(x, y + height);
-        GL11.glTexCoord2f((u + uWidth) * f, (v + vHeight) * f1);
-        GL11.glVertex2f(x + width, y + height);
-        GL11.glTexCoord2f((u + uWidth) * f, v * f1);
-        GL11.glVertex2f(x + width, y);
-        GL11.glTexCoord2f(u * f, v * f1);
-        GL11.glVertex2f(x, y);
-        GL11.glEnd();
-    }
-}
\ No newline at end of file
+        worldRenderer.pos(x, y + height, 0.0D).tex(u * f, (v + vHeight) * f1).endVertex();
+        worldRenderer.pos(x + width, y + height, 0.0D).tex((u + uWidth) * f, (v + vHeight) * f1).endVertex();
+        worldRenderer.pos(x + width, y, 0.0D).tex((u + uWidth) * f, v * f1).endVertex();
+        worldRenderer.pos(x, y, 0.0D).tex(u * f, v * f1).endVertex();
+    }
+}
@@ -11,14 +11,22 @@ import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.entity.player.EntityPlayer;
 import org.lwjgl.opengl.GL11;
 
+import java.util.Arrays;
+
 /**
  * 玩家名牌渲染器
  * 负责渲染穿墙的自定义命名牌
+ * 合批模式（配置 batchedNametags）：beginBatch / addThroughWallNametag / flushBatch，每帧只绘制一次背景、切换一次GL状态
+ * 远处的玩家只绘制角色颜色的方形标记（LOD），不绘制文字
  */
 public class NametagRenderer {
 
     private static final Minecraft mc = Minecraft.getMinecraft();
 
+    // 远距离标记的边长（与文字同一坐标系，文字高度为8）
+    private static final int MARKER_SIZE = 4;
+    private static final float MARKER_ALPHA = 0.8F;
+
     /**
      * 渲染穿墙命名牌（主方法）
      *
@@ -27,27 +35,268 @@ public class NametagRenderer {
      */
     public static void renderThroughWallNametag(EntityPlayer player, float partialTicks) {
         RenderManager renderManager = mc.getRenderManager();
-        FontRenderer fontRenderer = mc.fontRendererObj;
 
         // 计算玩家的插值位置（平滑移动）
         double x = player.lastTickPosX + (player.posX - player.lastTickPosX) * partialTicks - renderManager.viewerPosX;
         double y = player.lastTickPosY + (player.posY - player.lastTickPosY) * partialTicks - renderManager.viewerPosY + player.height + 0.5D;
         double z = player.lastTickPosZ + (player.posZ - player.lastTickPosZ) * partialTicks - renderManager.viewerPosZ;
 
-        // 计算距离并调整缩放
+        // 获取文本和颜色
+        String text = getNametagText(player);
+        int nametagColor = getNametagColor(player);
+
+        // 渲染命名牌
+        render3DNametag(text, x, y, z, nametagColor, getThroughWallScale(player), true);
+    }
+
+    /**
+     * 渲染穿墙的远距离标记（角色颜色的方形，不绘制文字）
+     *
+     * @param player 要渲染标记的玩家
+     * @param partialTicks 部分tick，用于平滑渲染
+     */
+    public static void renderThroughWallMarker(EntityPlayer player, float partialTicks) {
+        RenderManager renderManager = mc.getRenderManager();
+
+        double x = player.lastTickPosX + (player.posX - player.lastTickPosX) * partialTicks - renderManager.viewerPosX;
+        double y = player.lastTickPosY + (player.posY - player.lastTickPosY) * partialTicks - renderManager.viewerPosY + player.height + 0.5D;
+        double z = player.lastTickPosZ + (player.posZ - player.lastTickPosZ) * partialTicks - renderManager.viewerPosZ;
+        float scale = getThroughWallScale(player);
+        int color = getNametagColor(player);
+
+        GlStateManager.pushMatrix();
+        GlStateManager.translate((float) x, (float) y, (float) z);
+        GL11.glNormal3f(0.0F, 1.0F, 0.0F);
+        GlStateManager.rotate(-renderManager.playerViewY, 0.0F, 1.0F, 0.0F);
+        GlStateManager.rotate(renderManager.playerViewX, 1.0F, 0.0F, 0.0F);
+        GlStateManager.scale(-scale, -scale, scale);
+
+        GlStateManager.disableDepth();
+        GlStateManager.disableLighting();
+        GlStateManager.enableBlend();
+        GlStateManager.tryBlendFuncSeparate(
+                GL11.GL_SRC_ALPHA,
+                GL11.GL_ONE_MINUS_SRC_ALPHA,
+                GL11.GL_ONE,
+                GL11.GL_ZERO
+        );
+        GlStateManager.disableTexture2D();
+
+        int half = MARKER_SIZE / 2;
+        float red = (color >> 16 & 255) / 255.0F;
+        float green = (color >> 8 & 255) / 255.0F;
+        float blue = (color & 255) / 255.0F;
+
+        Tessellator tessellator = Tessellator.getInstance();
+        WorldRenderer worldRenderer = tessellator.getWorldRenderer();
+        worldRenderer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_COLOR);
+        worldRenderer.pos(-half, half + MARKER_SIZE, 0.0D).color(red, green, blue, MARKER_ALPHA).endVertex();
+        worldRenderer.pos(half, half + MARKER_SIZE, 0.0D).color(red, green, blue, MARKER_ALPHA).endVertex();
+        worldRenderer.pos(half, half, 0.0D).color(red, green, blue, MARKER_ALPHA).endVertex();
+        worldRenderer.pos(-half, half, 0.0D).color(red, green, blue, MARKER_ALPHA).endVertex();
+        tessellator.draw();
+
+        GlStateManager.enableTexture2D();
+        GlStateManager.enableDepth();
+        GlStateManager.enableLighting();
+        GlStateManager.disableBlend();
+        GlStateManager.color(1.0F, 1.0F, 1.0F, 1.0F);
+
+        GlStateManager.popMatrix();
+    }
+
+    /**
+     * 穿墙命名牌的缩放（10格外随距离放大，最多2.5倍）
+     */
+    private static float getThroughWallScale(EntityPlayer player) {
         float distance = mc.thePlayer.getDistanceToEntity(player);
         float scale = 0.016666668F * 1.6F; // 基础缩放
 
         if (distance > 10.0F) {
             scale = scale * Math.min(distance / 10.0F, 2.5F);
         }
+        return scale;
+    }
 
-        // 获取文本和颜色
-        String text = getNametagText(player);
-        int nametagColor = getNametagColor(player);
+    // ==================== 合批渲染 ====================
 
-        // 渲染命名牌
-        render3DNametag(text, x, y, z, nametagColor, scale, true);
+    // 本帧收集的命名牌（数组复用，容量不足时扩容；文本为null的是远距离标记）
+    private static int batchSize = 0;
+    private static double[] batchX = new double[16];
+    private static double[] batchY = new double[16];
+    private static double[] batchZ = new double[16];
+    private static float[] batchScale = new float[16];
+    private static int[] batchColor = new int[16];
+    private static int[] batchWidth = new int[16];
+    private static String[] batchText = new String[16];
+
+    /**
+     * 开始收集本帧的命名牌
+     */
+    public static void beginBatch() {
+        batchSize = 0;
+    }
+
+    /**
+     * 把一个穿墙命名牌加入本帧批次（与 renderThroughWallNametag 的位置、缩放、文本和颜色一致）
+     */
+    public static void addThroughWallNametag(EntityPlayer player, float partialTicks) {
+        int i = addBatchEntry(player, partialTicks);
+        batchText[i] = getNametagText(player);
+        batchWidth[i] = mc.fontRendererObj.getStringWidth(batchText[i]);
+    }
+
+    /**
+     * 把一个远距离标记加入本帧批次（与 renderThroughWallMarker 一致）
+     */
+    public static void addThroughWallMarker(EntityPlayer player, float partialTicks) {
+        int i = addBatchEntry(player, partialTicks);
+        batchText[i] = null;
+        batchWidth[i] = MARKER_SIZE;
+    }
+
+    private static int addBatchEntry(EntityPlayer player, float partialTicks) {
+        RenderManager renderManager = mc.getRenderManager();
+
+        if (batchSize == batchX.length) {
+            growBatch();
+        }
+
+        int i = batchSize++;
+        batchX[i] = player.lastTickPosX + (player.posX - player.lastTickPosX) * partialTicks - renderManager.viewerPosX;
+        batchY[i] = player.lastTickPosY + (player.posY - player.lastTickPosY) * partialTicks - renderManager.viewerPosY + player.height + 0.5D;
+        batchZ[i] = player.lastTickPosZ + (player.posZ - player.lastTickPosZ) * partialTicks - renderManager.viewerPosZ;
+        batchScale[i] = getThroughWallScale(player);
+        batchColor[i] = getNametagColor(player);
+        return i;
+    }
+
+    private static void growBatch() {
+        int capacity = batchX.length * 2;
+        batchX = Arrays.copyOf(batchX, capacity);
+        batchY = Arrays.copyOf(batchY, capacity);
+        batchZ = Arrays.copyOf(batchZ, capacity);
+        batchScale = Arrays.copyOf(batchScale, capacity);
+        batchColor = Arrays.copyOf(batchColor, capacity);
+        batchWidth = Arrays.copyOf(batchWidth, capacity);
+        batchText = Arrays.copyOf(batchText, capacity);
+    }
+
+    /**
+     * 绘制本帧收集的全部命名牌
+     * GL状态只设置和恢复一次；所有背景在CPU上按摄像机朝向展开后用一次Tessellator绘制，
+     * 文字在同一个状态块内逐个绘制（每个只切换模型矩阵）
+     */
+    public static void flushBatch() {
+        if (batchSize == 0) {
+            return;
+        }
+
+        RenderManager renderManager = mc.getRenderManager();
+        FontRenderer fontRenderer = mc.fontRendererObj;
+
+        // 与 render3DNametag 相同的朝向：先绕Y轴转 -playerViewY，再绕X轴转 playerViewX，再缩放(-s, -s, s)
+        // 名牌平面内的点(u, v)对应的位移为 -s*u*right - s*v*up
+        double yaw = Math.toRadians(-renderManager.playerViewY);
+        double pitch = Math.toRadians(renderManager.playerViewX);
+        double rightX = Math.cos(yaw);
+        double rightZ = -Math.sin(yaw);
+        double upX = Math.sin(yaw) * Math.sin(pitch);
+        double upY = Math.cos(pitch);
+        double upZ = Math.cos(yaw) * Math.sin(pitch);
+
+        // 设置一次GL状态（穿墙、无光照、半透明混合）
+        GL11.glNormal3f(0.0F, 1.0F, 0.0F);
+        GlStateManager.disableDepth();
+        GlStateManager.disableLighting();
+        GlStateManager.enableBlend();
+        GlStateManager.tryBlendFuncSeparate(
+                GL11.GL_SRC_ALPHA,
+                GL11.GL_ONE_MINUS_SRC_ALPHA,
+                GL11.GL_ONE,
+                GL11.GL_ZERO
+        );
+
+        // 所有背景和远距离标记一次绘制
+        GlStateManager.disableTexture2D();
+        Tessellator tessellator = Tessellator.getInstance();
+        WorldRenderer worldRenderer = tessellator.getWorldRenderer();
+        worldRenderer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_COLOR);
+        for (int i = 0; i < batchSize; i++) {
+            double s = batchScale[i];
+            double x1;
+            double x2;
+            double y1;
+            double y2;
+            float red = 0.0F;
+            float green = 0.0F;
+            float blue = 0.0F;
+            float alpha = 0.25F;
+
+            if (batchText[i] != null) {
+                x1 = -s * (-batchWidth[i] / 2 - 1);
+                x2 = -s * (batchWidth[i] / 2 + 1);
+                y1 = -s * -1;
+                y2 = -s * 8;
+            } else {
+                // 远距离标记：角色颜色的方形
+                int half = MARKER_SIZE / 2;
+                x1 = -s * -half;
+                x2 = -s * half;
+                y1 = -s * half;
+                y2 = -s * (half + MARKER_SIZE);
+                red = (batchColor[i] >> 16 & 255) / 255.0F;
+                green = (batchColor[i] >> 8 & 255) / 255.0F;
+                blue = (batchColor[i] & 255) / 255.0F;
+                alpha = MARKER_ALPHA;
+            }
+
+            addQuadVertex(worldRenderer, i, x1, y2, rightX, rightZ, upX, upY, upZ, red, green, blue, alpha);
+            addQuadVertex(worldRenderer, i, x2, y2, rightX, rightZ, upX, upY, upZ, red, green, blue, alpha);
+            addQuadVertex(worldRenderer, i, x2, y1, rightX, rightZ, upX, upY, upZ, red, green, blue, alpha);
+            addQuadVertex(worldRenderer, i, x1, y1, rightX, rightZ, upX, upY, upZ, red, green, blue, alpha);
+        }
+        tessellator.draw();
+
+        // 所有文字在同一个状态块内绘制
+        GlStateManager.enableTexture2D();
+        for (int i = 0; i < batchSize; i++) {
+            if (batchText[i] == null) {
+                continue;
+            }
+            float scale = batchScale[i];
+
+            GlStateManager.pushMatrix();
+            GlStateManager.translate((float) batchX[i], (float) batchY[i], (float) batchZ[i]);
+            GlStateManager.rotate(-renderManager.playerViewY, 0.0F, 1.0F, 0.0F);
+            GlStateManager.rotate(renderManager.playerViewX, 1.0F, 0.0F, 0.0F);
+            GlStateManager.scale(-scale, -scale, scale);
+            fontRenderer.drawString(batchText[i], -batchWidth[i] / 2, 0, batchColor[i]);
+            GlStateManager.popMatrix();
+
+            batchText[i] = null;
+        }
+
+        // 恢复一次GL状态
+        GlStateManager.enableDepth();
+        GlStateManager.enableLighting();
+        GlStateManager.disableBlend();
+        GlStateManager.color(1.0F, 1.0F, 1.0F, 1.0F);
+
+        batchSize = 0;
+    }
+
+    /**
+     * 写入一个背景或标记顶点（名牌平面内位移已乘以缩放）
+     */
+    private static void addQuadVertex(WorldRenderer worldRenderer, int i, double u, double v,
+                                      double rightX, double rightZ,
+                                      double upX, double upY, double upZ,
+                                      float red, float green, float blue, float alpha) {
+        worldRenderer.pos(batchX[i] + u * rightX + v * upX,
+                        batchY[i] + v * upY,
+                        batchZ[i] + u * rightZ + v * upZ)
+                .color(red, green, blue, alpha).endVertex();
     }
 
     /**
@@ -0,0 +1,118 @@
+package me.dev7125.murderhelper.render;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.shader.Framebuffer;
+import org.lwjgl.opengl.GL11;
+
+/**
+ * 离屏渲染层
+ * 把一块GUI区域渲染到帧缓冲纹理中，内容不变时每帧只绘制一个带纹理的四边形
+ * 帧缓冲清为全透明黑色，半透明背景写入后颜色即为预乘Alpha，合成时使用 GL_ONE, GL_ONE_MINUS_SRC_ALPHA
+ *
+ * 用法: layer.begin(x, y, w, h, scale); ...按GUI坐标绘制...; layer.end(); 之后每帧 layer.draw(x, y)
+ * 只在渲染线程访问
+ */
+public class OffscreenLayer {
+
+    private static final Minecraft mc = Minecraft.getMinecraft();
+
+    private Framebuffer framebuffer;
+    private int guiWidth;
+    private int guiHeight;
+
+    /**
+     * 当前是否可以使用帧缓冲（关闭时调用方应直接绘制）
+     */
+    public static boolean isSupported() {
+        return OpenGlHelper.isFramebufferEnabled();
+    }
+
+    /**
+     * 开始渲染到离屏层，之后按GUI坐标绘制，(originX, originY) 对应层的左上角
+     *
+     * @param scaleFactor GUI缩放倍数（帧缓冲按实际像素分配，保证文字清晰）
+     */
+    public void begin(int originX, int originY, int guiWidth, int guiHeight, int scaleFactor) {
+        int width = guiWidth * scaleFactor;
+        int height = guiHeight * scaleFactor;
+
+        if (framebuffer == null) {
+            framebuffer = new Framebuffer(width, height, true);
+            framebuffer.setFramebufferColor(0.0F, 0.0F, 0.0F, 0.0F);
+        } else if (framebuffer.framebufferWidth != width || framebuffer.framebufferHeight != height) {
+            framebuffer.createBindFramebuffer(width, height);
+        }
+        this.guiWidth = guiWidth;
+        this.guiHeight = guiHeight;
+
+        framebuffer.framebufferClear();
+        framebuffer.bindFramebuffer(true);
+
+        // 与GUI相同的正交投影，只是范围换成层的大小
+        GlStateManager.matrixMode(GL11.GL_PROJECTION);
+        GlStateManager.pushMatrix();
+        GlStateManager.loadIdentity();
+        GlStateManager.ortho(0.0D, guiWidth, guiHeight, 0.0D, 1000.0D, 3000.0D);
+        GlStateManager.matrixMode(GL11.GL_MODELVIEW);
+        GlStateManager.pushMatrix();
+        GlStateManager.translate((float) -originX, (float) -originY, 0.0F);
+    }
+
+    /**
+     * 结束渲染，恢复矩阵和主帧缓冲
+     */
+    public void end() {
+        GlStateManager.popMatrix();
+        GlStateManager.matrixMode(GL11.GL_PROJECTION);
+        GlStateManager.popMatrix();
+        GlStateManager.matrixMode(GL11.GL_MODELVIEW);
+
+        mc.getFramebuffer().bindFramebuffer(true);
+    }
+
+    /**
+     * 把层合成到当前帧缓冲的 (x, y) 位置（GUI坐标）
+     */
+    public void draw(int x, int y) {
+        if (framebuffer == null) {
+            return;
+        }
+
+        float maxU = (float) framebuffer.framebufferWidth / framebuffer.framebufferTextureWidth;
+        float maxV = (float) framebuffer.framebufferHeight / framebuffer.framebufferTextureHeight;
+
+        GlStateManager.enableTexture2D();
+        GlStateManager.enableBlend();
+        GlStateManager.blendFunc(GL11.GL_ONE, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        GlStateManager.color(1.0F, 1.0F, 1.0F, 1.0F);
+        framebuffer.bindFramebufferTexture();
+
+        // 纹理的v=0在底部
+        Tessellator tessellator = Tessellator.getInstance();
+        WorldRenderer worldRenderer = tessellator.getWorldRenderer();
+        worldRenderer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
+        worldRenderer.pos(x, y + guiHeight, 0.0D).tex(0.0D, 0.0D).endVertex();
+        worldRenderer.pos(x + guiWidth, y + guiHeight, 0.0D).tex(maxU, 0.0D).endVertex();
+        worldRenderer.pos(x + guiWidth, y, 0.0D).tex(maxU, maxV).endVertex();
+        worldRenderer.pos(x, y, 0.0D).tex(0.0D, maxV).endVertex();
+        tessellator.draw();
+
+        framebuffer.unbindFramebufferTexture();
+        GlStateManager.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    /**
+     * 释放帧缓冲
+     */
+    public void delete() {
+        if (framebuffer != null) {
+            framebuffer.deleteFramebuffer();
+            framebuffer = null;
+        }
+    }
+}
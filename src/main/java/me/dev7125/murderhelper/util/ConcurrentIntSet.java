@@ -0,0 +1,176 @@
+package me.dev7125.murderhelper.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 并发的原始int集合（开放寻址 + 线性探测）
+ * contains 无锁，可在Netty线程高频调用；add/remove/clear 加锁，适合实体ID这类写少读多的场景
+ * Integer.MIN_VALUE 和 Integer.MIN_VALUE + 1 为内部保留值，不能存入
+ */
+public class ConcurrentIntSet {
+
+    private static final int FREE = Integer.MIN_VALUE;
+    private static final int REMOVED = Integer.MIN_VALUE + 1;
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    // 当前表（扩容/重建时整体替换，读线程总是看到一张完整的表）
+    private volatile AtomicIntegerArray table;
+
+    // 元素数量和已占用槽位数量（含删除标记），仅在锁内修改
+    private int size;
+    private int used;
+
+    public ConcurrentIntSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ConcurrentIntSet(int expectedSize) {
+        this.table = newTable(tableSizeFor(expectedSize * 2));
+    }
+
+    /**
+     * 是否包含（无锁）
+     */
+    public boolean contains(int value) {
+        if (value == FREE || value == REMOVED) {
+            return false;
+        }
+
+        AtomicIntegerArray t = table;
+        int mask = t.length() - 1;
+        int index = mix(value) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            int current = t.get(index);
+            if (current == value) {
+                return true;
+            }
+            if (current == FREE) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 添加元素
+     * @return 集合原本不包含该元素时返回true
+     */
+    public synchronized boolean add(int value) {
+        if (value == FREE || value == REMOVED) {
+            return false;
+        }
+
+        // 负载（含删除标记）超过一半时重建
+        if ((used + 1) * 2 > table.length()) {
+            rehash(size + 1 > table.length() / 4 ? table.length() * 2 : table.length());
+        }
+
+        AtomicIntegerArray t = table;
+        int mask = t.length() - 1;
+        int index = mix(value) & mask;
+        int firstRemoved = -1;
+        while (true) {
+            int current = t.get(index);
+            if (current == value) {
+                return false;
+            }
+            if (current == FREE) {
+                break;
+            }
+            if (current == REMOVED && firstRemoved < 0) {
+                firstRemoved = index;
+            }
+            index = (index + 1) & mask;
+        }
+
+        if (firstRemoved >= 0) {
+            t.set(firstRemoved, value);
+        } else {
+            t.set(index, value);
+            used++;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * 移除元素
+     * @return 集合原本包含该元素时返回true
+     */
+    public synchronized boolean remove(int value) {
+        if (value == FREE || value == REMOVED) {
+            return false;
+        }
+
+        AtomicIntegerArray t = table;
+        int mask = t.length() - 1;
+        int index = mix(value) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            int current = t.get(index);
+            if (current == value) {
+                // 留下删除标记，保证其他元素的探测链不断
+                t.set(index, REMOVED);
+                size--;
+                return true;
+            }
+            if (current == FREE) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public synchronized void clear() {
+        table = newTable(DEFAULT_CAPACITY * 2);
+        size = 0;
+        used = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void rehash(int newCapacity) {
+        AtomicIntegerArray old = table;
+        AtomicIntegerArray t = newTable(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < old.length(); i++) {
+            int value = old.get(i);
+            if (value != FREE && value != REMOVED) {
+                int index = mix(value) & mask;
+                while (t.get(index) != FREE) {
+                    index = (index + 1) & mask;
+                }
+                t.set(index, value);
+            }
+        }
+        used = size;
+        // 发布新表，旧表不再被修改
+        table = t;
+    }
+
+    private static AtomicIntegerArray newTable(int capacity) {
+        AtomicIntegerArray t = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            t.set(i, FREE);
+        }
+        return t;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(Math.max(4, capacity) - 1) << 1;
+        return Math.max(n, 4);
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -26,12 +26,6 @@ public class GameConstants {
      */
     public static final long FULL_CHECK_CACHE_MS = 500;
     
-    /**
-     * Tab 列表缓存时间（毫秒）
-     * 每隔此时间更新一次 Tab 列表缓存
-     */
-    public static final long TAB_LIST_CACHE_MS = 1000;
-    
     // ========== 游戏状态相关常量 ==========
     
     /**
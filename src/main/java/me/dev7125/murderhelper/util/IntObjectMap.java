@@ -0,0 +1,274 @@
+package me.dev7125.murderhelper.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 以原始int为键的哈希表（开放寻址 + 线性探测）
+ * 用于按实体ID索引的检测数据，查询时不装箱 Integer
+ * 非线程安全：检测器只在客户端主线程访问（数据包已由 PacketListenerRegistry 转到主线程分发）
+ * 不支持 null 值
+ */
+public class IntObjectMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    // 结构修改次数，用于values()迭代时检测并发修改
+    private int modCount;
+
+    /**
+     * 遍历回调
+     */
+    @FunctionalInterface
+    public interface Consumer<V> {
+        void accept(int key, V value);
+    }
+
+    /**
+     * 条件回调
+     */
+    @FunctionalInterface
+    public interface Predicate<V> {
+        boolean test(int key, V value);
+    }
+
+    public IntObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2) - 1) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = mix(key) & mask;
+        Object value;
+        while ((value = values[index]) != null) {
+            if (keys[index] == key) {
+                return (V) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return 原来的值，没有时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("IntObjectMap does not support null values");
+        }
+
+        int index = mix(key) & mask;
+        Object current;
+        while ((current = values[index]) != null) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return (V) current;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        modCount++;
+
+        // 负载因子0.5
+        if (size * 2 > values.length) {
+            resize(values.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * @return 被移除的值，没有时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int index = mix(key) & mask;
+        Object current;
+        while ((current = values[index]) != null) {
+            if (keys[index] == key) {
+                removeAt(index);
+                return (V) current;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * 删除槽位并把后续探测链上的元素前移（不使用删除标记）
+     */
+    private void removeAt(int index) {
+        values[index] = null;
+        size--;
+        modCount++;
+
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int home = mix(keys[next]) & mask;
+            // home 不在 (gap, next] 区间内时，元素可以移到空位
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                values[next] = null;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    /**
+     * 移除满足条件的元素
+     * @return 移除的数量
+     */
+    @SuppressWarnings("unchecked")
+    public int removeIf(Predicate<? super V> predicate) {
+        // 先收集再删除，避免删除时的元素前移打乱遍历
+        int[] toRemove = null;
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value != null && predicate.test(keys[i], (V) value)) {
+                if (toRemove == null) {
+                    toRemove = new int[Math.min(size, 16)];
+                } else if (count == toRemove.length) {
+                    toRemove = Arrays.copyOf(toRemove, count * 2);
+                }
+                toRemove[count++] = keys[i];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(toRemove[i]);
+        }
+        return count;
+    }
+
+    /**
+     * 遍历所有元素（回调中不能修改本表）
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super V> consumer) {
+        int expectedModCount = modCount;
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value != null) {
+                consumer.accept(keys[i], (V) value);
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        }
+    }
+
+    /**
+     * 值的只读视图（遍历时不能修改本表）
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+            modCount++;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void resize(int newCapacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        keys = new int[newCapacity];
+        values = new Object[newCapacity];
+        mask = newCapacity - 1;
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = mix(oldKeys[i]) & mask;
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private final int expectedModCount = modCount;
+        private int index = advance(0);
+
+        private int advance(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (index >= values.length) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) values[index];
+            index = advance(index + 1);
+            return value;
+        }
+    }
+}
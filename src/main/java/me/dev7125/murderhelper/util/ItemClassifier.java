@@ -1,6 +1,7 @@
 package me.dev7125.murderhelper.util;
 
 import me.dev7125.murderhelper.MurderHelperMod;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
@@ -8,9 +9,113 @@ import net.minecraftforge.common.util.Constants;
 
 /**
  * 物品分类器 - 用于判断物品类型
+ *
+ * 分类只读取NBT中的少数字段（ExtraAttributes.MELEE、ench的附魔ID、display的Name和Lore），
+ * 分类结果按 物品ID + 损害值 + 这些字段 缓存，不遍历整个NBT树；
+ * 条目保存这些字段的副本，命中时逐项比较，哈希冲突不会返回其他物品的分类
+ * 缓存超过 CACHE_CAPACITY 个条目时整体清空；只在客户端主线程访问
  */
 public class ItemClassifier {
 
+    private static final int CACHE_CAPACITY = 256;
+
+    // 字段不存在时的取值
+    private static final int MELEE_ABSENT = -1;
+    private static final int ENCH_ID_ABSENT = -1;
+
+    /**
+     * 一次解析得到的分类结果
+     */
+    private static final class Classification {
+        final boolean murderWeapon;
+        final BowCategory bowCategory;
+
+        Classification(boolean murderWeapon, BowCategory bowCategory) {
+            this.murderWeapon = murderWeapon;
+            this.bowCategory = bowCategory;
+        }
+    }
+
+    /**
+     * 缓存条目：分类读取的字段副本 + 分类结果（同一哈希的条目串成链表）
+     */
+    private static final class Entry {
+        final int itemId;
+        final int damage;
+        final int melee;
+        final String name;
+        final String[] lore;
+        final int[] enchIds;
+        final Classification classification;
+        Entry next;
+
+        Entry(int itemId, int damage, int melee, String name, NBTTagList lore, NBTTagList ench,
+              Classification classification) {
+            this.itemId = itemId;
+            this.damage = damage;
+            this.melee = melee;
+            this.name = name;
+            this.classification = classification;
+
+            if (lore != null) {
+                this.lore = new String[lore.tagCount()];
+                for (int i = 0; i < this.lore.length; i++) {
+                    this.lore[i] = lore.getStringTagAt(i);
+                }
+            } else {
+                this.lore = null;
+            }
+
+            if (ench != null) {
+                this.enchIds = new int[ench.tagCount()];
+                for (int i = 0; i < enchIds.length; i++) {
+                    enchIds[i] = getEnchId(ench.getCompoundTagAt(i));
+                }
+            } else {
+                this.enchIds = null;
+            }
+        }
+
+        boolean matches(int itemId, int damage, int melee, String name, NBTTagList lore, NBTTagList ench) {
+            if (this.itemId != itemId || this.damage != damage || this.melee != melee
+                    || (this.name == null ? name != null : !this.name.equals(name))) {
+                return false;
+            }
+
+            if (this.lore == null || lore == null) {
+                if ((this.lore == null) != (lore == null)) {
+                    return false;
+                }
+            } else {
+                if (this.lore.length != lore.tagCount()) {
+                    return false;
+                }
+                for (int i = 0; i < this.lore.length; i++) {
+                    if (!this.lore[i].equals(lore.getStringTagAt(i))) {
+                        return false;
+                    }
+                }
+            }
+
+            if (enchIds == null || ench == null) {
+                return enchIds == null && ench == null;
+            }
+            if (enchIds.length != ench.tagCount()) {
+                return false;
+            }
+            for (int i = 0; i < enchIds.length; i++) {
+                if (enchIds[i] != getEnchId(ench.getCompoundTagAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // 字段哈希 -> 条目链表
+    private static final IntObjectMap<Entry> cache = new IntObjectMap<>(CACHE_CAPACITY);
+    private static int cacheSize = 0;
+
     public enum BowCategory {
         NORMAL_BOW, //通过金锭换来的弓
         DETECTIVE_BOW, //侦探的弓
@@ -22,6 +127,101 @@ public class ItemClassifier {
         if (stack == null || stack.getItem() == null) {
             return BowCategory.NONE;
         }
+        return classify(stack).bowCategory;
+    }
+
+    public static boolean isMurderWeapon(ItemStack item) {
+        if (item == null || !item.hasTagCompound()) {
+            return false;
+        }
+        return classify(item).murderWeapon;
+    }
+
+    // ==================== 缓存 ====================
+
+    private static Classification classify(ItemStack stack) {
+        int itemId = Item.getIdFromItem(stack.getItem());
+        int damage = stack.getItemDamage();
+
+        // 只取分类规则会读取的字段（不存在的字段不创建空标签）
+        NBTTagCompound tag = stack.getTagCompound();
+        int melee = MELEE_ABSENT;
+        NBTTagList ench = null;
+        String name = null;
+        NBTTagList lore = null;
+        if (tag != null) {
+            if (tag.hasKey("ExtraAttributes", Constants.NBT.TAG_COMPOUND)) {
+                NBTTagCompound extraAttr = tag.getCompoundTag("ExtraAttributes");
+                if (extraAttr.hasKey("MELEE", Constants.NBT.TAG_BYTE)) {
+                    melee = extraAttr.getByte("MELEE");
+                }
+            }
+            if (tag.hasKey("ench", Constants.NBT.TAG_LIST)) {
+                ench = tag.getTagList("ench", Constants.NBT.TAG_COMPOUND);
+            }
+            if (tag.hasKey("display", Constants.NBT.TAG_COMPOUND)) {
+                NBTTagCompound display = tag.getCompoundTag("display");
+                if (display.hasKey("Name", Constants.NBT.TAG_STRING)) {
+                    name = display.getString("Name");
+                }
+                if (display.hasKey("Lore", Constants.NBT.TAG_LIST)) {
+                    lore = display.getTagList("Lore", Constants.NBT.TAG_STRING);
+                }
+            }
+        }
+
+        int hash = hash(itemId, damage, melee, name, lore, ench);
+        Entry head = cache.get(hash);
+        for (Entry entry = head; entry != null; entry = entry.next) {
+            if (entry.matches(itemId, damage, melee, name, lore, ench)) {
+                return entry.classification;
+            }
+        }
+
+        Classification classification = new Classification(computeMurderWeapon(stack), computeBowCategory(stack));
+
+        if (cacheSize >= CACHE_CAPACITY) {
+            cache.clear();
+            cacheSize = 0;
+            head = null;
+        }
+        Entry entry = new Entry(itemId, damage, melee, name, lore, ench, classification);
+        entry.next = head;
+        cache.put(hash, entry);
+        cacheSize++;
+        return classification;
+    }
+
+    private static int hash(int itemId, int damage, int melee, String name, NBTTagList lore, NBTTagList ench) {
+        // String 缓存自身的哈希值，重复计算只是读取字段
+        int h = itemId * 31 + damage;
+        h = h * 31 + melee;
+        h = h * 31 + (name != null ? name.hashCode() : 0);
+        if (lore != null) {
+            h = h * 31 + lore.tagCount();
+            for (int i = 0; i < lore.tagCount(); i++) {
+                h = h * 31 + lore.getStringTagAt(i).hashCode();
+            }
+        }
+        if (ench != null) {
+            h = h * 31 + ench.tagCount();
+            for (int i = 0; i < ench.tagCount(); i++) {
+                h = h * 31 + getEnchId(ench.getCompoundTagAt(i));
+            }
+        }
+        return h;
+    }
+
+    private static int getEnchId(NBTTagCompound ench) {
+        return ench.hasKey("id", Constants.NBT.TAG_SHORT) ? ench.getShort("id") : ENCH_ID_ABSENT;
+    }
+
+    // ==================== 分类规则 ====================
+
+    private static BowCategory computeBowCategory(ItemStack stack) {
+        if (stack.getItem() == null) {
+            return BowCategory.NONE;
+        }
 
         if (!"minecraft:bow".equals(stack.getItem().getRegistryName())) {
             return BowCategory.NONE;
@@ -70,8 +270,8 @@ public class ItemClassifier {
 
 
 
-    public static boolean isMurderWeapon(ItemStack item) {
-        if (item == null || !item.hasTagCompound()) {
+    private static boolean computeMurderWeapon(ItemStack item) {
+        if (!item.hasTagCompound()) {
             return false;
         }
 